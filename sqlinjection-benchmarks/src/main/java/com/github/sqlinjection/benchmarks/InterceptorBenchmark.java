@@ -0,0 +1,158 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.benchmarks;
+
+import com.github.sqlinjection.autoconfigure.PermitAndDenyCustomizer;
+import com.github.sqlinjection.autoconfigure.SqlInjectionPluginInterceptor;
+import com.github.sqlinjection.autoconfigure.properties.SqlInjectionProperties;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.statement.RoutingStatementHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures what {@link SqlInjectionPluginInterceptor#intercept(Invocation)} costs per prepared statement.
+ * <p>
+ * By default the corpus is measured on mysql with the production defaults, with and without the verdict cache.
+ * The other dialects and the collapse and pre-scan switches are passed on the command line, e.g.
+ * {@code -p dbType=oracle,sqlserver -p collapseEnabled=true,false}, so a default run stays short.
+ * {@link #baseline()} is the cost of the stubbed prepare alone. Run with {@code -prof gc} to see
+ * the allocation per check, the thread variants show how the check scales.
+ *
+ * @author sean chen
+ * @date 2026/10/18 4:05 PM
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class InterceptorBenchmark {
+
+    @Param("mysql")
+    public String dbType;
+
+    @Param({"POINT_LOOKUP", "LARGE_IN_LIST", "MULTI_ROW_INSERT", "MULTI_JOIN_REPORT", "MALICIOUS"})
+    public SqlCorpus corpus;
+
+    @Param({"true", "false"})
+    public boolean cacheEnabled;
+
+    @Param("true")
+    public boolean collapseEnabled;
+
+    @Param("true")
+    public boolean preScanEnabled;
+
+    private SqlInjectionPluginInterceptor interceptor;
+
+    private Invocation invocation;
+
+    @Setup
+    public void setup() throws Throwable {
+        SqlInjectionProperties properties = new SqlInjectionProperties();
+        properties.getCache().setEnabled(cacheEnabled);
+        properties.getCollapse().setEnabled(collapseEnabled);
+        properties.getPreScan().setEnabled(preScanEnabled);
+        interceptor = new SqlInjectionPluginInterceptor(properties, new PermitAndDenyCustomizer());
+
+        Configuration configuration = new Configuration(new Environment("benchmark",
+                new JdbcTransactionFactory(), new StubJdbc.UrlDataSource(url(dbType))));
+
+        StaticSqlSource sqlSource = new StaticSqlSource(configuration, corpus.getSql());
+        MappedStatement mappedStatement = new MappedStatement.Builder(configuration,
+                "com.github.sqlinjection.benchmarks.Mapper." + corpus.name(), sqlSource, SqlCommandType.SELECT).build();
+        BoundSql boundSql = sqlSource.getBoundSql(null);
+
+        StatementHandler statementHandler = new RoutingStatementHandler(null, mappedStatement, null,
+                RowBounds.DEFAULT, null, boundSql);
+        Method prepare = StatementHandler.class.getMethod("prepare", Connection.class, Integer.class);
+        invocation = new Invocation(statementHandler, prepare, new Object[]{StubJdbc.CONNECTION, null});
+
+        // resolve the provider outside of the measurement
+        intercept();
+    }
+
+    @Benchmark
+    public Object baseline() throws Exception {
+        return invocation.proceed();
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Object intercept() throws Throwable {
+        try {
+            return interceptor.intercept(invocation);
+        } catch (SQLException e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    @Threads(4)
+    public Object intercept4Threads() throws Throwable {
+        return intercept();
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public Object interceptMaxThreads() throws Throwable {
+        return intercept();
+    }
+
+    static String url(String dbType) {
+        switch (dbType) {
+            case "mysql":
+                return "jdbc:mysql://localhost:3306/benchmark";
+            case "oracle":
+                return "jdbc:oracle:thin:@localhost:1521:benchmark";
+            case "sqlserver":
+                return "jdbc:sqlserver://localhost:1433;databaseName=benchmark";
+            case "postgresql":
+                return "jdbc:postgresql://localhost:5432/benchmark";
+            case "db2":
+                return "jdbc:db2://localhost:50000/benchmark";
+            case "sqlite":
+                return "jdbc:sqlite:benchmark.db";
+            case "clickhouse":
+                return "jdbc:clickhouse://localhost:8123/benchmark";
+            default:
+                throw new IllegalArgumentException("Unknown db type: " + dbType);
+        }
+    }
+}
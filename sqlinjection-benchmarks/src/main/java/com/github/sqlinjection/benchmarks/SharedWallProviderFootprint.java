@@ -0,0 +1,98 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.benchmarks;
+
+import com.github.sqlinjection.autoconfigure.PermitAndDenyCustomizer;
+import com.github.sqlinjection.autoconfigure.StartupSqlInjectionPlugin;
+import com.github.sqlinjection.autoconfigure.properties.SqlInjectionProperties;
+import com.github.sqlinjection.autoconfigure.wall.SharedWallProviders;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reports what the startup of the plugin costs for many sql session factories of the same dialect, with the wall
+ * providers shared across the factories or built per factory.
+ * <p>
+ * The time is the startup of all factories, after the startup of one factory with another wall config loaded the
+ * classes. The memory is the heap retained by the plugin after a full gc. Run each mode in a fresh jvm, e.g.
+ * {@code java -cp benchmarks.jar com.github.sqlinjection.benchmarks.SharedWallProviderFootprint 14 mysql true}.
+ *
+ * @author sean chen
+ * @date 2026/10/18 11:55 PM
+ */
+public class SharedWallProviderFootprint {
+
+    public static void main(String[] args) throws InterruptedException {
+        int factories = args.length > 0 ? Integer.parseInt(args[0]) : 14;
+        String dbType = args.length > 1 ? args[1] : "mysql";
+        boolean shared = args.length <= 2 || Boolean.parseBoolean(args[2]);
+
+        SqlInjectionProperties properties = new SqlInjectionProperties();
+        properties.getCache().setSharedProviders(shared);
+
+        PermitAndDenyCustomizer warmUpCustomizer = new PermitAndDenyCustomizer();
+        warmUpCustomizer.setSelectAllColumnAllow(false);
+        new StartupSqlInjectionPlugin(createSqlSessionFactories(1, dbType), properties, warmUpCustomizer).destroy();
+
+        List<SqlSessionFactory> sqlSessionFactories = createSqlSessionFactories(factories, dbType);
+        long before = usedHeap();
+        long start = System.nanoTime();
+        StartupSqlInjectionPlugin plugin = new StartupSqlInjectionPlugin(sqlSessionFactories, properties,
+                new PermitAndDenyCustomizer());
+        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long retained = usedHeap() - before;
+
+        System.out.printf("factories %d, db type %s, shared %s: startup %d ms, retained %.1f KB, shared providers %d%n",
+                factories, dbType, shared, millis, retained / 1024.0, SharedWallProviders.size());
+        plugin.destroy();
+    }
+
+    private static List<SqlSessionFactory> createSqlSessionFactories(int factories, String dbType) {
+        List<SqlSessionFactory> sqlSessionFactories = new ArrayList<>();
+        for (int i = 0; i < factories; i++) {
+            Configuration configuration = new Configuration(new Environment("footprint" + i,
+                    new JdbcTransactionFactory(), new StubJdbc.UrlDataSource(InterceptorBenchmark.url(dbType))));
+            sqlSessionFactories.add(new DefaultSqlSessionFactory(configuration));
+        }
+        return sqlSessionFactories;
+    }
+
+    private static long usedHeap() throws InterruptedException {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+}
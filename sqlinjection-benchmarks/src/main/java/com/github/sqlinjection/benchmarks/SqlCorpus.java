@@ -0,0 +1,81 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.benchmarks;
+
+import java.util.Collections;
+
+/**
+ * Realistic sql shapes the interceptor sees in production.
+ *
+ * @author sean chen
+ * @date 2026/10/18 3:40 PM
+ */
+public enum SqlCorpus {
+
+    /**
+     * Short primary key lookup
+     */
+    POINT_LOOKUP("select id, name, status, create_time from t_user where id = ?"),
+
+    /**
+     * Batch lookup with 1000 placeholders
+     */
+    LARGE_IN_LIST("select id, name, status from t_user where status = ? and id in ("
+            + String.join(", ", Collections.nCopies(1000, "?")) + ")"),
+
+    /**
+     * Multi row insert with 1000 tuples of 5 placeholders
+     */
+    MULTI_ROW_INSERT("insert into t_order_item (order_id, product_id, quantity, price, create_time) values "
+            + String.join(", ", Collections.nCopies(1000, "(?, ?, ?, ?, ?)"))),
+
+    /**
+     * Reporting query with joins, aggregation and ordering
+     */
+    MULTI_JOIN_REPORT("select u.id, u.name, d.name as dept_name, count(o.id) as order_count, sum(o.amount) as total_amount"
+            + " from t_user u"
+            + " inner join t_dept d on d.id = u.dept_id"
+            + " left join t_order o on o.user_id = u.id and o.status = ?"
+            + " left join t_order_item i on i.order_id = o.id"
+            + " left join t_product p on p.id = i.product_id"
+            + " where u.create_time >= ? and u.create_time < ? and d.region in (?, ?, ?)"
+            + " group by u.id, u.name, d.name"
+            + " having count(o.id) > ?"
+            + " order by total_amount desc"),
+
+    /**
+     * Tautology injected through ${} substitution, rejected by the wall
+     */
+    MALICIOUS("select id, name from t_user where name = 'a' or 1 = 1 union select username, password from t_admin");
+
+    private final String sql;
+
+    SqlCorpus(String sql) {
+        this.sql = sql;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+}
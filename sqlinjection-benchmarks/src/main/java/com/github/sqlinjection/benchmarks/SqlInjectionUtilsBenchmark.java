@@ -0,0 +1,87 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.benchmarks;
+
+import com.github.sqlinjection.autoconfigure.utils.SqlInjectionUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the linear scanner of {@link SqlInjectionUtils#isValidSql} with the former regex on user supplied strings.
+ * <p>
+ * {@code UNION_FLOOD} and {@code FUNCTION_FLOOD} repeat the left side of a lazy {@code .+?} rule without its right side,
+ * which makes the backtracking regex quadratic in the input length.
+ *
+ * @author sean chen
+ * @date 2026/10/18 7:55 PM
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SqlInjectionUtilsBenchmark {
+
+    public enum Input {
+
+        BENIGN("Customer Name 42, Some Street; "),
+        UNION_FLOOD("union "),
+        FUNCTION_FLOOD("sleep(1 ");
+
+        private final String unit;
+
+        Input(String unit) {
+            this.unit = unit;
+        }
+    }
+
+    @Param({"BENIGN", "UNION_FLOOD", "FUNCTION_FLOOD"})
+    public Input input;
+
+    @Param({"1000", "100000"})
+    public int length;
+
+    private String sql;
+
+    @Setup
+    public void setup() {
+        StringBuilder builder = new StringBuilder(length + input.unit.length());
+        while (builder.length() < length) {
+            builder.append(input.unit);
+        }
+        sql = builder.substring(0, length);
+    }
+
+    @Benchmark
+    public boolean regex() {
+        return RegexSqlInjectionUtils.isValidSql(sql);
+    }
+
+    @Benchmark
+    public boolean scanner() {
+        return SqlInjectionUtils.isValidSql(sql);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.benchmarks;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.wall.WallCheckResult;
+import com.alibaba.druid.wall.WallProvider;
+import com.github.sqlinjection.autoconfigure.PermitAndDenyCustomizer;
+import com.github.sqlinjection.autoconfigure.wall.WallPreScanner;
+import com.github.sqlinjection.autoconfigure.wall.WallProviderFactory;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the druid wall check of a sql it has not seen before with the {@link WallPreScanner} of the same sql.
+ * <p>
+ * The white list of the wall provider is disabled, so every check parses the sql, as the first check of every new
+ * sql does. {@code MULTI_JOIN_REPORT} calls functions and {@code MALICIOUS} has constant conditions, so the pre-scan
+ * gives up and {@link #scanThenCheck()} is what they cost with the pre-scan enabled. The other dialects are passed
+ * on the command line, e.g. {@code -p dbType=oracle,sqlserver}.
+ *
+ * @author sean chen
+ * @date 2026/10/18 8:10 PM
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class WallPreScanBenchmark {
+
+    @Param("mysql")
+    public String dbType;
+
+    @Param({"POINT_LOOKUP", "LARGE_IN_LIST", "MULTI_JOIN_REPORT", "MALICIOUS"})
+    public SqlCorpus corpus;
+
+    private WallProvider provider;
+
+    private WallPreScanner preScanner;
+
+    private String sql;
+
+    @Setup
+    public void setup() {
+        DbType type = DbType.of(dbType);
+        provider = new WallProviderFactory(new PermitAndDenyCustomizer()).createWallProvider(type);
+        provider.setWhiteListEnable(false);
+        provider.setBlackListEnable(false);
+        preScanner = new WallPreScanner(type, provider.getConfig());
+        sql = corpus.getSql();
+    }
+
+    @Benchmark
+    public WallCheckResult check() {
+        return provider.check(sql);
+    }
+
+    @Benchmark
+    public String[] scan() {
+        return preScanner.scan(sql);
+    }
+
+    @Benchmark
+    public Object scanThenCheck() {
+        String[] names = preScanner.scan(sql);
+        return names != null ? names : provider.check(sql);
+    }
+}
@@ -0,0 +1,333 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.maven;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.wall.Violation;
+import com.alibaba.druid.wall.WallProvider;
+import com.github.sqlinjection.autoconfigure.PermitAndDenyCustomizer;
+import com.github.sqlinjection.autoconfigure.manifest.TrustedStatementManifest;
+import com.github.sqlinjection.autoconfigure.utils.PermitAndDenyCustomizerUtils;
+import com.github.sqlinjection.autoconfigure.utils.SqlSourceUtils;
+import com.github.sqlinjection.autoconfigure.wall.WallConfigDigest;
+import com.github.sqlinjection.autoconfigure.wall.WallProviderFactory;
+import org.apache.ibatis.builder.xml.XMLConfigBuilder;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.io.ResolverUtil;
+import org.apache.ibatis.io.Resources;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.maven.artifact.DependencyResolutionRequiredException;
+import org.apache.maven.plugin.AbstractMojo;
+import org.apache.maven.plugin.MojoExecutionException;
+import org.apache.maven.plugin.MojoFailureException;
+import org.apache.maven.plugins.annotations.LifecyclePhase;
+import org.apache.maven.plugins.annotations.Mojo;
+import org.apache.maven.plugins.annotations.Parameter;
+import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.apache.maven.project.MavenProject;
+import org.codehaus.plexus.util.DirectoryScanner;
+
+import java.io.*;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.apache.ibatis.mapping.StatementType.CALLABLE;
+
+/**
+ * Validates the static sql of the mapper xmls and annotated mappers of the project with the wall config of the
+ * dialect, fails the build on violations, and writes the statements which pass into a
+ * {@link TrustedStatementManifest} in the classes directory, so they are packaged into the jar.
+ * <p>
+ * At boot the manifest is loaded by the plugin and its statements skip the startup validation.
+ *
+ * @author sean chen
+ * @date 2026/10/18 10:20 PM
+ */
+@Mojo(name = "validate", defaultPhase = LifecyclePhase.PROCESS_CLASSES, requiresDependencyResolution = ResolutionScope.COMPILE)
+public class ValidateMojo extends AbstractMojo {
+
+    private static final String MAPPER_DTD = "mybatis-3-mapper.dtd";
+
+    @Parameter(defaultValue = "${project}", readonly = true, required = true)
+    private MavenProject project;
+
+    /**
+     * The dialect to validate the sql for, the name of a druid {@link DbType}, the default is mysql
+     */
+    @Parameter(property = "sqlinjection.dbType", defaultValue = "mysql")
+    private String dbType;
+
+    /**
+     * The directory of the compiled classes and resources, the manifest is written into it
+     */
+    @Parameter(defaultValue = "${project.build.outputDirectory}", required = true)
+    private File classesDirectory;
+
+    /**
+     * The ant patterns of the mapper xmls in the classes directory, the default is all xmls with the mybatis mapper doctype
+     */
+    @Parameter
+    private String[] mapperLocations = {"**/*.xml"};
+
+    /**
+     * The packages of the annotated mapper interfaces
+     */
+    @Parameter
+    private String[] mapperPackages;
+
+    /**
+     * The packages of the type aliases used by the mappers, like {@code mybatis.type-aliases-package}
+     */
+    @Parameter
+    private String[] typeAliasesPackages;
+
+    /**
+     * The mybatis config file, like {@code mybatis.config-location}
+     */
+    @Parameter
+    private File configLocation;
+
+    /**
+     * The database id of the statements to validate, like the one of the {@code DatabaseIdProvider}
+     */
+    @Parameter
+    private String databaseId;
+
+    /**
+     * A properties or yaml file with the {@code mybatis.plugin.sqlinjection.wall.config} of the application.
+     * The manifest only applies at runtime if the wall config is the same
+     */
+    @Parameter
+    private File wallConfigFile;
+
+    /**
+     * Whether to validate callable statements, like {@code mybatis.plugin.sqlinjection.wall.support-callable},
+     * the default is true
+     */
+    @Parameter(defaultValue = "true")
+    private boolean supportCallable = true;
+
+    /**
+     * The ids of the statements not to validate, like {@code mybatis.plugin.sqlinjection.wall.ignored-statements}
+     */
+    @Parameter
+    private Set<String> ignoredStatements;
+
+    /**
+     * Whether to fail the build on violations, otherwise they are logged and left out of the manifest
+     */
+    @Parameter(property = "sqlinjection.failOnViolation", defaultValue = "true")
+    private boolean failOnViolation;
+
+    @Parameter(property = "sqlinjection.skip", defaultValue = "false")
+    private boolean skip;
+
+    @Override
+    public void execute() throws MojoExecutionException, MojoFailureException {
+        if (skip) {
+            getLog().info("Skip the sql injection validation.");
+            return;
+        }
+        if (!classesDirectory.isDirectory()) {
+            getLog().info("Skip the sql injection validation, there are no classes.");
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+
+        DbType type = DbType.of(dbType);
+        if (type == null) {
+            throw new MojoExecutionException("Unknown dbType: " + dbType);
+        }
+
+        WallProvider provider;
+        String configDigest;
+        try {
+            PermitAndDenyCustomizer customizer = wallConfigFile == null ? new PermitAndDenyCustomizer()
+                    : PermitAndDenyCustomizerUtils.load(wallConfigFile);
+            provider = new WallProviderFactory(customizer).createWallProvider(type);
+            configDigest = WallConfigDigest.of(provider.getConfig());
+        } catch (IOException | RuntimeException e) {
+            throw new MojoExecutionException("Build the wall config of " + type + " error.", e);
+        }
+
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        try (URLClassLoader classLoader = createProjectClassLoader()) {
+            Thread.currentThread().setContextClassLoader(classLoader);
+            Resources.setDefaultClassLoader(classLoader);
+
+            Collection<MappedStatement> statements = getStatements(loadConfiguration(classLoader));
+
+            Map<String, String> trusted = new TreeMap<>();
+            List<String> violations = new ArrayList<>();
+            for (MappedStatement statement : statements) {
+                String sql = statement.getSqlSource().getBoundSql(null).getSql();
+                List<Violation> result = provider.check(sql).getViolations();
+                if (result.isEmpty()) {
+                    trusted.put(statement.getId(), TrustedStatementManifest.digest(sql));
+                } else {
+                    violations.add("dbType: " + type + ", " + statement.getId() + ", " + result.get(0).getMessage() + ": " + sql);
+                }
+            }
+
+            getLog().info("Validated " + statements.size() + " static statements for " + type + " in "
+                    + (System.currentTimeMillis() - start) + " ms, " + violations.size() + " violations.");
+
+            if (!violations.isEmpty()) {
+                for (String violation : violations) {
+                    getLog().error("sql injection violation, " + violation);
+                }
+                if (failOnViolation) {
+                    throw new MojoFailureException(violations.size() + " sql injection violations, see the log above.");
+                }
+            }
+
+            writeManifest(new TrustedStatementManifest(type, configDigest, trusted));
+        } catch (IOException e) {
+            throw new MojoExecutionException("The sql injection validation failed.", e);
+        } finally {
+            Resources.setDefaultClassLoader(null);
+            Thread.currentThread().setContextClassLoader(contextClassLoader);
+        }
+    }
+
+    private URLClassLoader createProjectClassLoader() throws MojoExecutionException {
+        try {
+            List<URL> urls = new ArrayList<>();
+            for (String element : project.getCompileClasspathElements()) {
+                urls.add(new File(element).toURI().toURL());
+            }
+            // parent first, so the mapper annotations are the ones of the mybatis of the plugin
+            return new URLClassLoader(urls.toArray(new URL[0]), getClass().getClassLoader());
+        } catch (DependencyResolutionRequiredException | MalformedURLException e) {
+            throw new MojoExecutionException("Resolve the compile classpath error.", e);
+        }
+    }
+
+    private Configuration loadConfiguration(ClassLoader classLoader) throws IOException, MojoExecutionException {
+        Configuration configuration;
+        if (configLocation != null) {
+            try (InputStream in = Files.newInputStream(configLocation.toPath())) {
+                configuration = new XMLConfigBuilder(in).parse();
+            } catch (RuntimeException e) {
+                throw new MojoExecutionException("Parse the mybatis config " + configLocation + " error.", e);
+            }
+        } else {
+            configuration = new Configuration();
+        }
+        if (databaseId != null) {
+            configuration.setDatabaseId(databaseId);
+        }
+
+        if (typeAliasesPackages != null) {
+            for (String typeAliasesPackage : typeAliasesPackages) {
+                configuration.getTypeAliasRegistry().registerAliases(typeAliasesPackage);
+            }
+        }
+
+        for (String resource : findMapperXmls()) {
+            if (configuration.isResourceLoaded(resource)) {
+                continue;
+            }
+            try (InputStream in = Files.newInputStream(new File(classesDirectory, resource).toPath())) {
+                new XMLMapperBuilder(in, configuration, resource, configuration.getSqlFragments()).parse();
+            } catch (RuntimeException e) {
+                throw new MojoExecutionException("Parse the mapper " + resource + " error.", e);
+            }
+        }
+
+        if (mapperPackages != null) {
+            for (String mapperPackage : mapperPackages) {
+                ResolverUtil<Class<?>> resolver = new ResolverUtil<>();
+                resolver.setClassLoader(classLoader);
+                resolver.find(new ResolverUtil.IsA(Object.class), mapperPackage);
+                for (Class<?> mapper : resolver.getClasses()) {
+                    if (mapper.isInterface() && !configuration.hasMapper(mapper)) {
+                        configuration.addMapper(mapper);
+                    }
+                }
+            }
+        }
+
+        try {
+            // builds the statements which were incomplete, e.g. referring to a result map of another mapper
+            configuration.getMappedStatementNames();
+        } catch (RuntimeException e) {
+            throw new MojoExecutionException("Build the mapped statements error.", e);
+        }
+        return configuration;
+    }
+
+    private List<String> findMapperXmls() throws IOException {
+        DirectoryScanner scanner = new DirectoryScanner();
+        scanner.setBasedir(classesDirectory);
+        scanner.setIncludes(mapperLocations);
+        scanner.scan();
+
+        List<String> resources = new ArrayList<>();
+        for (String file : scanner.getIncludedFiles()) {
+            String content = new String(Files.readAllBytes(new File(classesDirectory, file).toPath()), StandardCharsets.UTF_8);
+            if (content.contains(MAPPER_DTD)) {
+                resources.add(file.replace(File.separatorChar, '/'));
+            }
+        }
+        Collections.sort(resources);
+        return resources;
+    }
+
+    private Collection<MappedStatement> getStatements(Configuration configuration) {
+        // the values may contain ambiguous short names, and the same statement under its short name
+        Set<MappedStatement> statements = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Object value : configuration.getMappedStatements()) {
+            if (!(value instanceof MappedStatement)) {
+                continue;
+            }
+            MappedStatement statement = (MappedStatement) value;
+            if (!supportCallable && CALLABLE.equals(statement.getStatementType())) {
+                continue;
+            }
+            if (ignoredStatements != null && ignoredStatements.contains(statement.getId())) {
+                continue;
+            }
+            if (SqlSourceUtils.isStatic(statement.getSqlSource())) {
+                statements.add(statement);
+            }
+        }
+        return statements;
+    }
+
+    private void writeManifest(TrustedStatementManifest manifest) throws IOException {
+        File file = new File(classesDirectory, TrustedStatementManifest.LOCATION);
+        Files.createDirectories(file.getParentFile().toPath());
+        try (OutputStream out = Files.newOutputStream(file.toPath())) {
+            manifest.write(out);
+        }
+        getLog().info("Wrote " + manifest.getStatements().size() + " trusted statements to " + file);
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.maven;
+
+import com.github.sqlinjection.autoconfigure.PermitAndDenyCustomizer;
+import com.github.sqlinjection.autoconfigure.SqlInjectionCollaborators;
+import com.github.sqlinjection.autoconfigure.StartupSqlInjectionPlugin;
+import com.github.sqlinjection.autoconfigure.manifest.TrustedStatementManifest;
+import com.github.sqlinjection.autoconfigure.metrics.SkipReason;
+import com.github.sqlinjection.autoconfigure.metrics.SqlInjectionMetrics;
+import com.github.sqlinjection.autoconfigure.properties.SqlInjectionProperties;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.datasource.unpooled.UnpooledDataSource;
+import org.apache.ibatis.executor.statement.RoutingStatementHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+import org.apache.ibatis.session.defaults.DefaultSqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.apache.maven.project.MavenProject;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author sean chen
+ * @date 2026/10/19 6:40 PM
+ */
+class ValidateMojoTest {
+
+    private static final String NAMESPACE = "com.github.sqlinjection.maven.UserMapper";
+
+    private static final String MAPPER = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"
+            + "<!DOCTYPE mapper PUBLIC \"-//mybatis.org//DTD Mapper 3.0//EN\" \"http://mybatis.org/dtd/mybatis-3-mapper.dtd\">\n"
+            + "<mapper namespace=\"" + NAMESPACE + "\">\n"
+            + "    <select id=\"select\" resultType=\"map\">SELECT * FROM users WHERE id = #{id}</select>\n"
+            + "    <select id=\"count\" statementType=\"CALLABLE\" resultType=\"map\">{call count_users(#{id})}</select>\n"
+            + "</mapper>\n";
+
+    @TempDir
+    Path classes;
+
+    @Test
+    void manifestIsTrustedAtBoot() throws Throwable {
+        Path mapper = classes.resolve("mapper/UserMapper.xml");
+        Files.createDirectories(mapper.getParent());
+        Files.write(mapper, MAPPER.getBytes(StandardCharsets.UTF_8));
+
+        ValidateMojo mojo = new ValidateMojo();
+        MavenProject project = new MavenProject();
+        project.getBuild().setOutputDirectory(classes.toString());
+        set(mojo, "project", project);
+        set(mojo, "classesDirectory", classes.toFile());
+        set(mojo, "dbType", "mysql");
+        set(mojo, "failOnViolation", true);
+        mojo.execute();
+
+        TrustedStatementManifest manifest;
+        try (InputStream in = Files.newInputStream(classes.resolve(TrustedStatementManifest.LOCATION))) {
+            manifest = TrustedStatementManifest.read(in);
+        }
+        // callable statements are validated by default, like at runtime
+        assertEquals(2, manifest.getStatements().size());
+        assertTrue(manifest.getStatements().containsKey(NAMESPACE + ".count"));
+
+        Configuration configuration = new Configuration(new Environment("test", new JdbcTransactionFactory(),
+                new UnpooledDataSource("com.mysql.cj.jdbc.Driver", "jdbc:mysql://localhost:3306/test", null, null)));
+        try (InputStream in = Files.newInputStream(mapper)) {
+            new XMLMapperBuilder(in, configuration, "mapper/UserMapper.xml", configuration.getSqlFragments()).parse();
+        }
+
+        SqlInjectionProperties properties = new SqlInjectionProperties();
+        // so only the manifest trusts the statements
+        properties.getStartup().setValidationEnabled(false);
+        properties.getStartup().setClassificationEnabled(false);
+        Map<SkipReason, AtomicInteger> skipped = new ConcurrentHashMap<>();
+        SqlInjectionCollaborators collaborators = new SqlInjectionCollaborators();
+        collaborators.setMetrics(new SqlInjectionMetrics() {
+            @Override
+            public void recordSkipped(SkipReason reason) {
+                skipped.computeIfAbsent(reason, key -> new AtomicInteger()).incrementAndGet();
+            }
+        });
+
+        ClassLoader contextClassLoader = Thread.currentThread().getContextClassLoader();
+        StartupSqlInjectionPlugin plugin;
+        try (URLClassLoader classLoader = new URLClassLoader(new URL[]{classes.toUri().toURL()}, contextClassLoader)) {
+            Thread.currentThread().setContextClassLoader(classLoader);
+            plugin = new StartupSqlInjectionPlugin(Collections.singletonList(new DefaultSqlSessionFactory(configuration)),
+                    properties, new PermitAndDenyCustomizer(), collaborators);
+        } finally {
+            Thread.currentThread().setContextClassLoader(contextClassLoader);
+        }
+
+        try {
+            Interceptor interceptor = configuration.getInterceptors().get(0);
+            interceptor.intercept(prepare(configuration.getMappedStatement(NAMESPACE + ".select")));
+            interceptor.intercept(prepare(configuration.getMappedStatement(NAMESPACE + ".count")));
+            assertEquals(2, skipped.get(SkipReason.TRUSTED).get());
+        } finally {
+            plugin.destroy();
+        }
+    }
+
+    private static Invocation prepare(MappedStatement statement) throws NoSuchMethodException {
+        StatementHandler statementHandler = new RoutingStatementHandler(null, statement, null, RowBounds.DEFAULT, null,
+                statement.getBoundSql(null));
+        return new Invocation(statementHandler, StatementHandler.class.getMethod("prepare", Connection.class, Integer.class),
+                new Object[]{stub(Connection.class), null});
+    }
+
+    /**
+     * @return a jdbc object whose methods return stubs of the jdbc interfaces and the defaults of the primitives
+     */
+    private static <T> T stub(Class<T> type) {
+        return type.cast(Proxy.newProxyInstance(ValidateMojoTest.class.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            Class<?> returnType = method.getReturnType();
+            if (returnType.isInterface() && returnType.getName().startsWith("java.sql.")) {
+                return stub(returnType);
+            }
+            if (returnType == boolean.class) {
+                return false;
+            }
+            if (returnType == int.class) {
+                return 0;
+            }
+            if (returnType == long.class) {
+                return 0L;
+            }
+            return null;
+        }));
+    }
+
+    private static void set(Object target, String name, Object value) throws ReflectiveOperationException {
+        Field field = target.getClass().getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(target, value);
+    }
+}
@@ -0,0 +1,283 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.replay;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.wall.Violation;
+import com.alibaba.druid.wall.WallProvider;
+import com.github.sqlinjection.autoconfigure.PermitAndDenyCustomizer;
+import com.github.sqlinjection.autoconfigure.cache.SqlFingerprint;
+import com.github.sqlinjection.autoconfigure.properties.SqlInjectionProperties;
+import com.github.sqlinjection.autoconfigure.recording.RecordedStatement;
+import com.github.sqlinjection.autoconfigure.utils.PermitAndDenyCustomizerUtils;
+import com.github.sqlinjection.autoconfigure.utils.SqlCollapseUtils;
+import com.github.sqlinjection.autoconfigure.wall.WallPreScanner;
+import com.github.sqlinjection.autoconfigure.wall.WallProviderFactory;
+import org.springframework.lang.Nullable;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Replays the statements recorded by the plugin against a wall config, to try a change of the permit and deny lists
+ * and to measure the check cost on the real traffic before rolling it out.
+ * <p>
+ * The wall providers are built by the {@link WallProviderFactory} from the customizer bound from the given
+ * properties or yaml file, like the plugin does at startup. Every distinct statement is checked once to report
+ * the statements which would be blocked, then all are checked by the given number of threads, each in its own
+ * random order, to report the throughput and the latency percentiles. The check is the one of the interceptor
+ * without its verdict cache: the collapse of the large lists, the pre-scan and the druid wall. The druid white
+ * and black lists are disabled unless {@code --wall-cache} is given, so every check parses the sql, e.g.
+ * {@code java -jar replay.jar statements.rec --config application.yml --threads 4 --iterations 10}.
+ *
+ * @author sean chen
+ * @date 2026/10/19 1:30 AM
+ */
+public class ReplayTool {
+
+    private static final String USAGE = "usage: java -jar replay.jar <recording file> [--config <properties or yaml file>]"
+            + " [--threads <n>] [--iterations <n>] [--wall-cache] [--no-collapse] [--no-pre-scan] [--max-blocked <n>]";
+
+    private static final int MAX_SQL_LENGTH = 200;
+
+    private final Map<DbType, WallProvider> providers;
+    private final Map<DbType, WallPreScanner> preScanners = new EnumMap<>(DbType.class);
+    private final boolean collapse;
+    private final int collapseThreshold;
+
+    private ReplayTool(Map<DbType, WallProvider> providers, boolean collapse, boolean preScan) {
+        this.providers = providers;
+        this.collapse = collapse;
+        this.collapseThreshold = new SqlInjectionProperties().getCollapse().getThreshold();
+        if (preScan) {
+            providers.forEach((dbType, provider) -> preScanners.put(dbType, new WallPreScanner(dbType, provider.getConfig())));
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        String recording = null;
+        String config = null;
+        int threads = Runtime.getRuntime().availableProcessors();
+        int iterations = 10;
+        int maxBlocked = 100;
+        boolean wallCache = false;
+        boolean collapse = true;
+        boolean preScan = true;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--config":
+                    config = value(args, ++i);
+                    break;
+                case "--threads":
+                    threads = Math.max(1, Integer.parseInt(value(args, ++i)));
+                    break;
+                case "--iterations":
+                    iterations = Math.max(1, Integer.parseInt(value(args, ++i)));
+                    break;
+                case "--max-blocked":
+                    maxBlocked = Integer.parseInt(value(args, ++i));
+                    break;
+                case "--wall-cache":
+                    wallCache = true;
+                    break;
+                case "--no-collapse":
+                    collapse = false;
+                    break;
+                case "--no-pre-scan":
+                    preScan = false;
+                    break;
+                default:
+                    if (args[i].startsWith("--") || recording != null) {
+                        exit("Unknown argument " + args[i]);
+                    }
+                    recording = args[i];
+            }
+        }
+        if (recording == null) {
+            exit("The recording file is missing");
+        }
+
+        List<RecordedStatement> statements = distinct(RecordedStatement.read(Paths.get(recording)));
+        PermitAndDenyCustomizer customizer = config != null
+                ? PermitAndDenyCustomizerUtils.load(new File(config))
+                : new PermitAndDenyCustomizer();
+        Map<DbType, WallProvider> providers = createWallProviders(customizer, statements, wallCache);
+        statements.removeIf(statement -> !providers.containsKey(statement.getDbType()));
+        System.out.printf("Replaying %d distinct statements of %s with the wall config %s%n",
+                statements.size(), providers.keySet(), config != null ? config : "by default");
+        if (statements.isEmpty()) {
+            return;
+        }
+
+        ReplayTool tool = new ReplayTool(providers, collapse, preScan);
+        tool.reportBlocked(statements, maxBlocked);
+        tool.reportLoad(statements, threads, iterations);
+    }
+
+    private void reportBlocked(List<RecordedStatement> statements, int maxBlocked) {
+        Map<String, Integer> blockedPerStatementId = new TreeMap<>();
+        int blocked = 0;
+        for (RecordedStatement statement : statements) {
+            Violation violation = check(statement);
+            if (violation == null) {
+                continue;
+            }
+            if (blocked++ < maxBlocked) {
+                System.out.printf("BLOCKED %s %s, %s: %s%n", statement.getDbType(), statement.getStatementId(),
+                        violation.getMessage(), truncate(statement.getSql()));
+            }
+            blockedPerStatementId.merge(statement.getStatementId(), 1, Integer::sum);
+        }
+        System.out.printf("%d of %d statements would be blocked, by statement id:%n", blocked, statements.size());
+        blockedPerStatementId.forEach((statementId, count) -> System.out.printf("  %s %d%n", statementId, count));
+    }
+
+    private void reportLoad(List<RecordedStatement> statements, int threads, int iterations) throws InterruptedException {
+        long[][] latencies = new long[threads][];
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] workers = new Thread[threads];
+        for (int t = 0; t < threads; t++) {
+            int worker = t;
+            workers[t] = new Thread(() -> {
+                List<RecordedStatement> order = new ArrayList<>(statements);
+                Random random = new Random(worker);
+                long[] nanos = new long[order.size() * iterations];
+                int count = 0;
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < iterations; i++) {
+                    Collections.shuffle(order, random);
+                    for (RecordedStatement statement : order) {
+                        long begin = System.nanoTime();
+                        check(statement);
+                        nanos[count++] = System.nanoTime() - begin;
+                    }
+                }
+                latencies[worker] = nanos;
+            }, "replay-" + t);
+            workers[t].start();
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Thread worker : workers) {
+            worker.join();
+        }
+        long elapsed = System.nanoTime() - begin;
+
+        long[] all = Arrays.stream(latencies).flatMapToLong(Arrays::stream).sorted().toArray();
+        System.out.printf("%d checks by %d threads in %d ms, %.0f checks/s%n", all.length, threads,
+                TimeUnit.NANOSECONDS.toMillis(elapsed), all.length * 1e9 / elapsed);
+        System.out.printf("latency us: p50 %.1f, p90 %.1f, p99 %.1f, p99.9 %.1f, max %.1f%n",
+                percentile(all, 0.5), percentile(all, 0.9), percentile(all, 0.99), percentile(all, 0.999),
+                all[all.length - 1] / 1000.0);
+    }
+
+    /**
+     * The check of the interceptor, without its verdict cache
+     *
+     * @return the first violation, or {@code null} if the statement passes
+     */
+    @Nullable
+    private Violation check(RecordedStatement statement) {
+        WallProvider provider = providers.get(statement.getDbType());
+        String sql = statement.getSql();
+        String checkedSql = collapse && sql.length() >= collapseThreshold ? SqlCollapseUtils.collapse(sql) : sql;
+        WallPreScanner preScanner = preScanners.get(statement.getDbType());
+        if (preScanner != null && provider.getWhiteSql(checkedSql) == null && preScanner.scan(checkedSql) != null) {
+            return null;
+        }
+        List<Violation> violations = provider.check(checkedSql).getViolations();
+        return violations.isEmpty() ? null : violations.get(0);
+    }
+
+    /**
+     * The statements of the same shape, which the plugin checks once, recorded again after a restart
+     */
+    private static List<RecordedStatement> distinct(List<RecordedStatement> statements) {
+        SqlFingerprint sqlFingerprint = new SqlFingerprint(0L);
+        Set<Long> fingerprints = new HashSet<>();
+        List<RecordedStatement> distinct = new ArrayList<>();
+        for (RecordedStatement statement : statements) {
+            if (fingerprints.add(sqlFingerprint.of(statement.getDbType().name(), statement.getStatementId(), statement.getSql()))) {
+                distinct.add(statement);
+            }
+        }
+        return distinct;
+    }
+
+    private static Map<DbType, WallProvider> createWallProviders(PermitAndDenyCustomizer customizer,
+                                                                 List<RecordedStatement> statements, boolean wallCache) {
+        WallProviderFactory factory = new WallProviderFactory(customizer);
+        Map<DbType, WallProvider> providers = new EnumMap<>(DbType.class);
+        for (RecordedStatement statement : statements) {
+            DbType dbType = statement.getDbType();
+            if (providers.containsKey(dbType)) {
+                continue;
+            }
+            try {
+                WallProvider provider = factory.createWallProvider(dbType);
+                provider.setWhiteListEnable(wallCache);
+                provider.setBlackListEnable(wallCache);
+                providers.put(dbType, provider);
+            } catch (IllegalStateException e) {
+                System.out.printf("The statements of %s are skipped: %s%n", dbType, e.getMessage());
+                providers.put(dbType, null);
+            }
+        }
+        providers.values().removeIf(Objects::isNull);
+        return providers;
+    }
+
+    private static double percentile(long[] sorted, double percentile) {
+        int index = (int) Math.min(sorted.length - 1, Math.ceil(percentile * sorted.length) - 1);
+        return sorted[Math.max(0, index)] / 1000.0;
+    }
+
+    private static String truncate(String sql) {
+        String line = sql.replaceAll("\\s+", " ");
+        return line.length() <= MAX_SQL_LENGTH ? line : line.substring(0, MAX_SQL_LENGTH) + "...";
+    }
+
+    private static String value(String[] args, int index) {
+        if (index >= args.length) {
+            exit("The value of " + args[index - 1] + " is missing");
+        }
+        return args[index];
+    }
+
+    private static void exit(String message) {
+        System.err.println(message);
+        System.err.println(USAGE);
+        System.exit(2);
+    }
+}
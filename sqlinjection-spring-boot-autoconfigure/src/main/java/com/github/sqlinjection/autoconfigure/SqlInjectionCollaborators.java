@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure;
+
+import com.github.sqlinjection.autoconfigure.event.ViolationEventPublisher;
+import com.github.sqlinjection.autoconfigure.metrics.SqlInjectionMetrics;
+import com.github.sqlinjection.autoconfigure.wall.ProviderCircuitBreaker;
+import org.springframework.lang.Nullable;
+
+/**
+ * The optional collaborators of the interceptors, each one is a no-op unless it is set.
+ * <p>
+ * A new collaborator is added here instead of to the constructors of {@link SqlInjectionPluginInterceptor} and
+ * {@link StartupSqlInjectionPlugin}.
+ *
+ * @author sean chen
+ * @date 2026/10/19 6:05 PM
+ */
+public class SqlInjectionCollaborators {
+
+    /**
+     * The instrumentation of the check pipeline, the default is no-op
+     */
+    private SqlInjectionMetrics metrics = SqlInjectionMetrics.NOOP;
+
+    /**
+     * Notified when the circuit breaker of the wall providers changes its state, the default is no-op
+     */
+    private ProviderCircuitBreaker.Listener circuitBreakerListener = ProviderCircuitBreaker.Listener.NOOP;
+
+    /**
+     * Delivers the violations to the sinks, the default is none
+     */
+    @Nullable
+    private ViolationEventPublisher violationEventPublisher;
+
+    public SqlInjectionMetrics getMetrics() {
+        return metrics;
+    }
+
+    public void setMetrics(SqlInjectionMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    public ProviderCircuitBreaker.Listener getCircuitBreakerListener() {
+        return circuitBreakerListener;
+    }
+
+    public void setCircuitBreakerListener(ProviderCircuitBreaker.Listener circuitBreakerListener) {
+        this.circuitBreakerListener = circuitBreakerListener;
+    }
+
+    @Nullable
+    public ViolationEventPublisher getViolationEventPublisher() {
+        return violationEventPublisher;
+    }
+
+    public void setViolationEventPublisher(@Nullable ViolationEventPublisher violationEventPublisher) {
+        this.violationEventPublisher = violationEventPublisher;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure;
+
+import com.alibaba.druid.DbType;
+import org.springframework.lang.Nullable;
+
+import java.sql.SQLException;
+
+/**
+ * Thrown when the sql of a statement violates the druid wall.
+ * <p>
+ * It carries the id of the statement and the error code of the violation, which is also the vendor code of the
+ * {@link SQLException}. It has no stack trace: the stack of the interceptor says nothing about the violation, the
+ * caller is on the stack of the mybatis exception wrapping it, and a flood of attacks does not pay for walking
+ * the stack on every rejection.
+ *
+ * @author sean chen
+ * @date 2026/10/18 8:45 PM
+ */
+public class SqlInjectionException extends SQLException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final DbType dbType;
+    private final String statementId;
+
+    /**
+     * @param reason        The message
+     * @param dbType        The db type of the wall provider
+     * @param statementId   The id of the mapped statement
+     * @param violationCode The error code of the violation
+     * @param cause         The syntax error of the sql, if any
+     */
+    public SqlInjectionException(String reason, DbType dbType, String statementId, int violationCode,
+                                 @Nullable Throwable cause) {
+        super(reason, null, violationCode, cause);
+        this.dbType = dbType;
+        this.statementId = statementId;
+    }
+
+    public DbType getDbType() {
+        return dbType;
+    }
+
+    public String getStatementId() {
+        return statementId;
+    }
+
+    /**
+     * @return the error code of the violation, see {@link com.alibaba.druid.wall.violation.ErrorCode}
+     */
+    public int getViolationCode() {
+        return getErrorCode();
+    }
+
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -25,22 +25,44 @@ package com.github.sqlinjection.autoconfigure;
 
 import com.alibaba.druid.DbType;
 import com.alibaba.druid.sql.dialect.clickhouse.parser.ClickhouseSelectParser;
+import com.github.sqlinjection.autoconfigure.event.ApplicationEventViolationEventSink;
+import com.github.sqlinjection.autoconfigure.event.JsonLinesViolationEventSink;
+import com.github.sqlinjection.autoconfigure.event.ViolationEventPublisher;
+import com.github.sqlinjection.autoconfigure.event.ViolationEventSink;
+import com.github.sqlinjection.autoconfigure.metrics.MicrometerSqlInjectionMetrics;
+import com.github.sqlinjection.autoconfigure.metrics.SqlInjectionEndpoint;
+import com.github.sqlinjection.autoconfigure.metrics.SqlInjectionMetrics;
+import com.github.sqlinjection.autoconfigure.metrics.StatementCheckStatistics;
 import com.github.sqlinjection.autoconfigure.properties.SqlInjectionProperties;
+import com.github.sqlinjection.autoconfigure.reload.PermitAndDenyCustomizerReloader;
+import com.github.sqlinjection.autoconfigure.wall.CircuitBreakerStateChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Metrics;
 import org.apache.ibatis.session.SqlSessionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.actuate.autoconfigure.endpoint.condition.ConditionalOnAvailableEndpoint;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
 import org.springframework.boot.autoconfigure.AutoConfigureOrder;
 import org.springframework.boot.autoconfigure.condition.*;
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
 
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.ServiceLoader;
+import java.util.stream.Collectors;
 
 import static com.github.sqlinjection.autoconfigure.properties.SqlInjectionProperties.SQL_INJECTION_PREFIX;
-import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
 
 /**
  * @author sean chen
@@ -52,10 +74,10 @@ import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebA
 @ConditionalOnBean(SqlSessionFactory.class)
 @ConditionalOnClass({DbType.class, ClickhouseSelectParser.class})
 @AutoConfigureOrder(Ordered.LOWEST_PRECEDENCE)
-@ConditionalOnWebApplication(type = SERVLET)
 @EnableConfigurationProperties(SqlInjectionProperties.class)
 public class SqlInjectionPluginAutoConfiguration {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(SqlInjectionPluginAutoConfiguration.class);
 
     @Bean
     @ConfigurationProperties(SQL_INJECTION_PREFIX + ".config")
@@ -67,7 +89,82 @@ public class SqlInjectionPluginAutoConfiguration {
     @Bean
     public StartupSqlInjectionPlugin startupSqlInjectionPlugin(ObjectProvider<List<SqlSessionFactory>> sqlSessionFactories,
                                                                SqlInjectionProperties properties,
-                                                               PermitAndDenyCustomizer customizer) {
-        return new StartupSqlInjectionPlugin(sqlSessionFactories.getIfAvailable(Collections::emptyList), properties, customizer);
+                                                               PermitAndDenyCustomizer customizer,
+                                                               ObjectProvider<SqlInjectionMetrics> metrics,
+                                                               ApplicationEventPublisher eventPublisher,
+                                                               ObjectProvider<ViolationEventPublisher> violationEventPublisher) {
+        SqlInjectionCollaborators collaborators = new SqlInjectionCollaborators();
+        collaborators.setMetrics(metrics.getIfAvailable(() -> SqlInjectionMetrics.NOOP));
+        collaborators.setCircuitBreakerListener((breaker, previous, current) ->
+                eventPublisher.publishEvent(new CircuitBreakerStateChangedEvent(breaker, previous, current)));
+        collaborators.setViolationEventPublisher(violationEventPublisher.getIfAvailable());
+        return new StartupSqlInjectionPlugin(sqlSessionFactories.getIfAvailable(Collections::emptyList), properties, customizer,
+                collaborators);
+    }
+
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(prefix = SQL_INJECTION_PREFIX, value = "events.enabled", havingValue = "true", matchIfMissing = true)
+    public ViolationEventPublisher violationEventPublisher(SqlInjectionProperties properties,
+                                                           ObjectProvider<ViolationEventSink> sinkBeans,
+                                                           ObjectProvider<SqlInjectionMetrics> metrics,
+                                                           ApplicationEventPublisher eventPublisher) {
+        SqlInjectionProperties.Events events = properties.getEvents();
+        List<ViolationEventSink> sinks = new ArrayList<>(sinkBeans.orderedStream().collect(Collectors.toList()));
+        for (ViolationEventSink sink : ServiceLoader.load(ViolationEventSink.class)) {
+            sinks.add(sink);
+        }
+        if (events.isApplicationEventEnabled()) {
+            sinks.add(new ApplicationEventViolationEventSink(eventPublisher));
+        }
+        if (events.getFile() != null) {
+            try {
+                sinks.add(new JsonLinesViolationEventSink(Paths.get(events.getFile()),
+                        events.getMaxFileSize().toBytes(), events.getMaxHistory()));
+            } catch (IOException | RuntimeException e) {
+                LOGGER.warn("Open the violation events file {} error, the events are not written to it.", events.getFile(), e);
+            }
+        }
+        return new ViolationEventPublisher(events, sinks, metrics.getIfAvailable(() -> SqlInjectionMetrics.NOOP));
+    }
+
+
+    @Bean
+    @ConditionalOnProperty(prefix = SQL_INJECTION_PREFIX, value = "reload.enabled", havingValue = "true")
+    public PermitAndDenyCustomizerReloader permitAndDenyCustomizerReloader(StartupSqlInjectionPlugin startupSqlInjectionPlugin,
+                                                                           Environment environment,
+                                                                           SqlInjectionProperties properties) {
+        return new PermitAndDenyCustomizerReloader(startupSqlInjectionPlugin, environment, properties.getReload());
+    }
+
+
+    @Configuration
+    @ConditionalOnClass(MeterRegistry.class)
+    @ConditionalOnProperty(prefix = SQL_INJECTION_PREFIX, value = "metrics.enabled", havingValue = "true", matchIfMissing = true)
+    static class SqlInjectionMetricsConfiguration {
+
+        @Bean
+        @ConditionalOnMissingBean(SqlInjectionMetrics.class)
+        public MicrometerSqlInjectionMetrics sqlInjectionMetrics(ObjectProvider<MeterRegistry> meterRegistry,
+                                                                 SqlInjectionProperties properties) {
+            return new MicrometerSqlInjectionMetrics(meterRegistry.getIfAvailable(() -> Metrics.globalRegistry),
+                    properties.getMetrics().isPercentileHistogram());
+        }
+
+
+        @Configuration
+        @ConditionalOnClass(Endpoint.class)
+        @ConditionalOnAvailableEndpoint(endpoint = SqlInjectionEndpoint.class)
+        static class SqlInjectionEndpointConfiguration {
+
+            @Bean
+            @ConditionalOnMissingBean
+            public SqlInjectionEndpoint sqlInjectionEndpoint(ObjectProvider<MicrometerSqlInjectionMetrics> metrics) {
+                MicrometerSqlInjectionMetrics micrometerMetrics = metrics.getIfAvailable();
+                return new SqlInjectionEndpoint(micrometerMetrics != null
+                        ? micrometerMetrics.getStatistics()
+                        : new StatementCheckStatistics());
+            }
+        }
     }
 }
@@ -24,33 +24,48 @@
 package com.github.sqlinjection.autoconfigure;
 
 import com.alibaba.druid.DbType;
-import com.alibaba.druid.util.JdbcUtils;
 import com.alibaba.druid.wall.Violation;
 import com.alibaba.druid.wall.WallCheckResult;
-import com.alibaba.druid.wall.WallConfig;
 import com.alibaba.druid.wall.WallProvider;
-import com.alibaba.druid.wall.spi.*;
 import com.alibaba.druid.wall.violation.SyntaxErrorViolation;
+import com.github.sqlinjection.autoconfigure.cache.BatchCheckMemo;
+import com.github.sqlinjection.autoconfigure.cache.PersistentVerdictStore;
+import com.github.sqlinjection.autoconfigure.cache.SqlFingerprint;
+import com.github.sqlinjection.autoconfigure.cache.VerdictCache;
+import com.github.sqlinjection.autoconfigure.cache.ViolationCache;
+import com.github.sqlinjection.autoconfigure.event.ViolationEventPublisher;
+import com.github.sqlinjection.autoconfigure.metrics.SkipReason;
+import com.github.sqlinjection.autoconfigure.metrics.SqlInjectionMetrics;
 import com.github.sqlinjection.autoconfigure.properties.SqlInjectionProperties;
-import com.github.sqlinjection.autoconfigure.utils.JsonUtils;
+import com.github.sqlinjection.autoconfigure.recording.StatementRecorder;
+import com.github.sqlinjection.autoconfigure.report.ViolationReporter;
+import com.github.sqlinjection.autoconfigure.sampling.StatementSampler;
+import com.github.sqlinjection.autoconfigure.shadow.ShadowCheckExecutor;
+import com.github.sqlinjection.autoconfigure.utils.SqlCollapseUtils;
+import com.github.sqlinjection.autoconfigure.utils.StatementHandlerUtils;
+import com.github.sqlinjection.autoconfigure.utils.WallCheckResultUtils;
+import com.github.sqlinjection.autoconfigure.wall.ProviderCircuitBreaker;
+import com.github.sqlinjection.autoconfigure.wall.WallConfigDiff;
+import com.github.sqlinjection.autoconfigure.wall.WallPreScanner;
+import com.github.sqlinjection.autoconfigure.wall.WallProviderFactory;
+import com.github.sqlinjection.autoconfigure.wall.WallProviderRegistry;
+import org.apache.ibatis.executor.BatchExecutor;
+import org.apache.ibatis.executor.Executor;
 import org.apache.ibatis.executor.statement.StatementHandler;
 import org.apache.ibatis.mapping.BoundSql;
 import org.apache.ibatis.mapping.MappedStatement;
 import org.apache.ibatis.plugin.*;
-import org.apache.ibatis.reflection.MetaObject;
-import org.apache.ibatis.reflection.SystemMetaObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.lang.Nullable;
 
-import javax.sql.DataSource;
-import java.lang.reflect.Proxy;
+import java.io.IOException;
+import java.nio.file.Paths;
 import java.sql.Connection;
-import java.sql.SQLException;
 import java.util.*;
-import java.util.function.Consumer;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 
-import static com.github.sqlinjection.autoconfigure.PermitAndDenyCustomizer.DEFAULT_MYSQL_DENY_FUNCTIONS;
 import static org.apache.ibatis.mapping.StatementType.CALLABLE;
 
 /**
@@ -59,324 +74,468 @@ import static org.apache.ibatis.mapping.StatementType.CALLABLE;
  */
 @Intercepts(
         {
-                @Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class})
+                @Signature(type = StatementHandler.class, method = "prepare", args = {Connection.class, Integer.class}),
+                @Signature(type = Executor.class, method = "flushStatements", args = {}),
+                @Signature(type = Executor.class, method = "commit", args = {boolean.class}),
+                @Signature(type = Executor.class, method = "rollback", args = {boolean.class}),
+                @Signature(type = Executor.class, method = "close", args = {boolean.class})
         }
 )
 public class SqlInjectionPluginInterceptor implements Interceptor {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(SqlInjectionPluginInterceptor.class);
 
-    private static final int MAX_ERROR_EXECUTE_COUNT = 10;
-    private static final String MYBATIS_PLUGIN_TARGET = "h.target";
-    private static final String STATEMENT_HANDLER_DELEGATE_MAPPED_STATEMENT = "delegate.mappedStatement";
+    /**
+     * The number of distinct sql trusted per statement, the sql of a dynamic statement varies with its parameters
+     */
+    private static final int MAXIMUM_TRUSTED_SQL = 64;
 
-    private static final String STATEMENT_HANDLER_DELEGATE_BOUND_SQL = "delegate.boundSql";
-    private final Object sqlInjectionPluginMonitor = new Object();
     private final SqlInjectionProperties properties;
-    private final PermitAndDenyCustomizer customizer;
-    private volatile int currentErrorCount = 0;
-    private volatile WallProvider wallProvider;
-    private volatile DbType dbType;
+    private final SqlInjectionMetrics metrics;
+    private final WallProviderRegistry wallProviderRegistry;
+    private final SqlFingerprint sqlFingerprint;
+    @Nullable
+    private final VerdictCache verdictCache;
+    @Nullable
+    private final ViolationCache violationCache;
+    @Nullable
+    private final PersistentVerdictStore verdictStore;
+    @Nullable
+    private final ShadowCheckExecutor shadowCheckExecutor;
+    @Nullable
+    private final StatementSampler statementSampler;
+    @Nullable
+    private final BatchCheckMemo batchCheckMemo;
+    private final ViolationReporter violationReporter;
+    @Nullable
+    private final ViolationEventPublisher violationEventPublisher;
+    @Nullable
+    private final StatementRecorder statementRecorder;
+    /**
+     * statement id -> db type -> the static sql validated at startup, and the sql of the substitution free
+     * statements which passed the check at runtime. A statement routed to several dialects is only trusted on
+     * the dialects its sql passed
+     */
+    private final Map<String, Map<DbType, Set<String>>> trustedStatements = new ConcurrentHashMap<>();
+    /**
+     * The statements without ${} substitution, classified at startup, whose sql is trusted once it passed the check
+     */
+    private final Set<MappedStatement> substitutionFreeStatements = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    /**
+     * Incremented by each reload which changed the wall config, after the new providers are swapped in and before
+     * the caches are invalidated. A check which started under an older generation takes back what it published
+     */
+    private final AtomicLong configGeneration = new AtomicLong();
 
     public SqlInjectionPluginInterceptor(SqlInjectionProperties properties, PermitAndDenyCustomizer customizer) {
+        this(properties, customizer, new SqlInjectionCollaborators());
+    }
+
+    public SqlInjectionPluginInterceptor(SqlInjectionProperties properties, PermitAndDenyCustomizer customizer,
+                                         SqlInjectionCollaborators collaborators) {
         this.properties = properties;
-        this.customizer = customizer;
+        this.metrics = collaborators.getMetrics();
+        SqlInjectionProperties.Cache cache = properties.getCache();
+        this.wallProviderRegistry = new WallProviderRegistry(new WallProviderFactory(customizer), metrics,
+                new ProviderCircuitBreaker(properties.getCircuitBreaker(), collaborators.getCircuitBreakerListener()),
+                cache.isSharedProviders());
+        this.verdictCache = cache.isEnabled() ? new VerdictCache(cache.getMaximumSize()) : null;
+        this.violationCache = cache.isEnabled() && cache.getViolationMaximumSize() > 0
+                ? new ViolationCache(cache.getViolationMaximumSize())
+                : null;
+        this.verdictStore = cache.isEnabled() && cache.getPersistentFile() != null ? openVerdictStore(cache) : null;
+        // the persisted fingerprints are only valid with the seed of the store
+        this.sqlFingerprint = verdictStore != null ? new SqlFingerprint(verdictStore.getSeed()) : new SqlFingerprint();
+        this.shadowCheckExecutor = properties.isEnableWarningOnly() && properties.getShadow().isEnabled()
+                ? new ShadowCheckExecutor(properties.getShadow(), metrics)
+                : null;
+        this.statementSampler = properties.getSampling().isEnabled() ? new StatementSampler(properties.getSampling()) : null;
+        this.violationReporter = new ViolationReporter(properties.getReport());
+        this.violationEventPublisher = collaborators.getViolationEventPublisher();
+        this.statementRecorder = properties.getRecord().isEnabled() && properties.getRecord().getFile() != null
+                ? openStatementRecorder(properties.getRecord())
+                : null;
+        this.batchCheckMemo = properties.getBatch().isEnabled() ? new BatchCheckMemo(properties.getBatch().getMaximumSize()) : null;
     }
 
     @Override
     public Object intercept(Invocation invocation) throws Throwable {
 
-        StatementHandler statementHandler = getTarget(invocation.getTarget());
+        if (invocation.getTarget() instanceof Executor) {
+            // the batch ends, the statements of the next one are checked again
+            if (batchCheckMemo != null) {
+                batchCheckMemo.clear();
+            }
+            return invocation.proceed();
+        }
 
-        MetaObject metaObject = SystemMetaObject.forObject(statementHandler);
+        StatementHandler statementHandler = StatementHandlerUtils.getTarget(invocation.getTarget());
 
-        MappedStatement mappedStatement = (MappedStatement) metaObject.getValue(STATEMENT_HANDLER_DELEGATE_MAPPED_STATEMENT);
+        MappedStatement mappedStatement = StatementHandlerUtils.getMappedStatement(statementHandler);
 
         if (!properties.isSupportCallable() && CALLABLE.equals(mappedStatement.getStatementType())) {
+            metrics.recordSkipped(SkipReason.CALLABLE);
             return invocation.proceed();
         }
 
         Set<String> ignoredStatements = properties.getIgnoredStatements();
         if (ignoredStatements != null && ignoredStatements.contains(mappedStatement.getId())) {
+            metrics.recordSkipped(SkipReason.IGNORED);
             return invocation.proceed();
         }
 
-        if (!initDruidWallProvider(mappedStatement)) {
-            return invocation.proceed();
-        }
-
-        BoundSql boundSql = (BoundSql) metaObject.getValue(STATEMENT_HANDLER_DELEGATE_BOUND_SQL);
-
-        String sqlToCheck = boundSql.getSql();
-
-        if (LOGGER.isDebugEnabled()) {
-            LOGGER.debug("The sql checked by sql injection plugin is: {}", sqlToCheck);
-        }
+        Connection connection = (Connection) invocation.getArgs()[0];
 
-        WallCheckResult check = wallProvider.check(sqlToCheck);
+        // read before the provider, so a reload swapping the provider afterwards is noticed
+        long generation = configGeneration.get();
 
-        List<Violation> violations = check.getViolations();
+        DbType dbType = wallProviderRegistry.getDbType(mappedStatement, connection);
 
-        if (violations.size() > 0) {
-            Violation firstViolation = violations.get(0);
-            if (properties.isEnableWarningOnly()) {
+        BoundSql boundSql = statementHandler.getBoundSql();
 
-                LOGGER.warn("sql injection violation, dbType {}, {} : {}", dbType, firstViolation.getMessage(), sqlToCheck);
-            } else {
-                if (firstViolation instanceof SyntaxErrorViolation) {
-                    SyntaxErrorViolation violation = (SyntaxErrorViolation) firstViolation;
+        String sqlToCheck = boundSql.getSql();
 
-                    throw new SQLException("sql injection violation, dbType: "
-                            + dbType
-                            + ", " + firstViolation.getMessage()
-                            + ": " + sqlToCheck,
-                            violation.getException());
-                } else {
+        // recorded before the statements skipped by the current config, a replay with another config checks them
+        if (statementRecorder != null && dbType != null) {
+            statementRecorder.record(dbType, mappedStatement.getId(), sqlToCheck);
+        }
 
-                    throw new SQLException("sql injection violation, dbType: "
-                            + dbType
-                            + ", " + firstViolation.getMessage()
-                            + ": " + sqlToCheck);
-                }
-            }
+        if (dbType == null) {
+            metrics.recordSkipped(SkipReason.PROVIDER_NOT_READY);
+            return invocation.proceed();
         }
 
-        return invocation.proceed();
-    }
+        // other plugins may rewrite the sql, so only the very sql validated before is trusted
+        Set<String> trustedSql = getTrustedSql(mappedStatement, dbType);
+        if (trustedSql != null && trustedSql.contains(sqlToCheck)) {
+            metrics.recordSkipped(substitutionFreeStatements.contains(mappedStatement) ? SkipReason.SUBSTITUTION_FREE : SkipReason.TRUSTED);
+            return invocation.proceed();
+        }
 
-    @Override
-    public Object plugin(Object target) {
-        if (target instanceof StatementHandler) {
-            return Plugin.wrap(target, this);
+        Executor batchExecutor = batchCheckMemo != null ? getBatchExecutor(statementHandler) : null;
+        if (batchExecutor != null && batchCheckMemo.contains(batchExecutor, sqlToCheck)) {
+            metrics.recordSkipped(SkipReason.BATCHED);
+            return invocation.proceed();
         }
-        return target;
-    }
 
-    @Override
-    public void setProperties(Properties properties) {
-        //do nothing
-    }
+        if (statementSampler != null && !statementSampler.shouldCheck(mappedStatement)) {
+            metrics.recordSkipped(SkipReason.SAMPLED);
+            return invocation.proceed();
+        }
 
-    @SuppressWarnings("unchecked")
-    private <D> D getTarget(Object target) {
-        if (Proxy.isProxyClass(target.getClass())) {
-            MetaObject metaObject = SystemMetaObject.forObject(target);
-            return getTarget(metaObject.getValue(MYBATIS_PLUGIN_TARGET));
+        WallProvider provider = wallProviderRegistry.getWallProvider(dbType);
+        if (provider == null) {
+            metrics.recordSkipped(SkipReason.PROVIDER_NOT_READY);
+            return invocation.proceed();
         }
-        return (D) target;
-    }
 
+        // the verdict does not depend on the number of parameters, so the large lists are checked by their first element
+        SqlInjectionProperties.Collapse collapse = properties.getCollapse();
+        String checkedSql = collapse.isEnabled() && sqlToCheck.length() >= collapse.getThreshold()
+                ? SqlCollapseUtils.collapse(sqlToCheck)
+                : sqlToCheck;
 
-    private boolean initDruidWallProvider(MappedStatement mappedStatement) {
-        if (invalidExecuteTimes()) {
-            return false;
+        if (LOGGER.isDebugEnabled()) {
+            LOGGER.debug("The sql checked by sql injection plugin is: {}", checkedSql);
         }
 
-        if (wallProvider == null) {
-            synchronized (sqlInjectionPluginMonitor) {
-                // double check
-                if (wallProvider == null) {
-                    try {
-                        if (invalidExecuteTimes()) {
-                            return false;
-                        }
-
-                        DataSource dataSource = mappedStatement.getConfiguration().getEnvironment().getDataSource();
+        long fingerprint = 0L;
+        if (verdictCache != null) {
+            fingerprint = sqlFingerprint.of(dbType.name(), mappedStatement.getId(), checkedSql);
+            boolean cached = verdictCache.contains(fingerprint);
+            if (!cached && verdictStore != null && verdictStore.contains(dbType, provider, fingerprint)) {
+                // the objects of a persisted verdict are unknown, so any reload invalidates it in the memory
+                verdictCache.put(fingerprint);
+                cached = true;
+            }
+            if (cached) {
+                if (statementSampler != null) {
+                    statementSampler.recordPass(mappedStatement.getId());
+                }
+                if (batchExecutor != null) {
+                    batchCheckMemo.add(batchExecutor, sqlToCheck);
+                }
+                metrics.recordSkipped(SkipReason.CACHED);
+                return invocation.proceed();
+            }
 
-                        String url = getUrl(dataSource);
+            // the repeats of a violation are rejected without parsing them again
+            Violation knownViolation = violationCache != null ? violationCache.get(fingerprint) : null;
+            if (knownViolation != null) {
+                recordViolation(dbType, mappedStatement.getId(), knownViolation, sqlToCheck);
+                if (properties.isEnableWarningOnly()) {
+                    return invocation.proceed();
+                }
+                throw violationException(dbType, mappedStatement.getId(), knownViolation, sqlToCheck);
+            }
+        }
 
-                        String dbTypeName = JdbcUtils.getDbType(url, null);
-                        if (dbTypeName == null) {
-                            LOGGER.info("The db type is not supported, url: {}", url);
-                            currentErrorCount++;
-                            return false;
-                        }
+        if (shadowCheckExecutor != null) {
+            long shadowFingerprint = fingerprint;
+            shadowCheckExecutor.execute(() -> check(provider, dbType, mappedStatement.getId(), sqlToCheck, checkedSql,
+                    shadowFingerprint, generation));
+            return invocation.proceed();
+        }
 
-                        dbType = DbType.of(dbTypeName);
+        Violation firstViolation = check(provider, dbType, mappedStatement.getId(), sqlToCheck, checkedSql, fingerprint, generation);
 
-                        //init wall provider
-                        wallProvider = createWallProvider(dbType, customizer, url);
+        if (firstViolation == null && batchExecutor != null) {
+            batchCheckMemo.add(batchExecutor, sqlToCheck);
+        }
 
-                    } catch (Throwable throwable) {
-                        LOGGER.error("Init druid wall provider error.", throwable);
-                        currentErrorCount++;
-                        return false;
-                    }
-                }
+        // the parameters of a substitution free statement can not change its sql, so the sql which passed is trusted
+        if (firstViolation == null && substitutionFreeStatements.contains(mappedStatement)) {
+            trust(mappedStatement, dbType, sqlToCheck);
+            if (configGeneration.get() != generation) {
+                getTrustedSql(mappedStatement, dbType).remove(sqlToCheck);
             }
         }
 
-        return true;
-    }
+        if (firstViolation != null && !properties.isEnableWarningOnly()) {
+            throw violationException(dbType, mappedStatement.getId(), firstViolation, sqlToCheck);
+        }
 
-    private WallProvider createWallProvider(DbType dbType, PermitAndDenyCustomizer customizer, String url) {
-        WallProvider provider;
-        WallConfig config;
-
-        switch (dbType) {
-            case mysql:
-            case oceanbase:
-            case drds:
-            case mariadb:
-            case tidb:
-            case h2:
-            case presto:
-            case trino:
-                config = getWallConfig(dbType, customizer, MySqlWallProvider.DEFAULT_CONFIG_DIR);
-                provider = new MySqlWallProvider(config);
-                break;
-            case oracle:
-            case ali_oracle:
-            case oceanbase_oracle:
-                //case dm:
-                config = getWallConfig(dbType, customizer, OracleWallProvider.DEFAULT_CONFIG_DIR);
-                provider = new OracleWallProvider(config);
-                break;
-            case sqlserver:
-            case jtds:
-                config = getWallConfig(dbType, customizer, SQLServerWallProvider.DEFAULT_CONFIG_DIR);
-                provider = new SQLServerWallProvider(config);
-                break;
-            case postgresql:
-            case edb:
-            case polardb:
-            case greenplum:
-            case gaussdb:
-                config = getWallConfig(dbType, customizer, PGWallProvider.DEFAULT_CONFIG_DIR);
-                provider = new PGWallProvider(config);
-                break;
-            case db2:
-                config = getWallConfig(dbType, customizer, DB2WallProvider.DEFAULT_CONFIG_DIR);
-                provider = new DB2WallProvider(config);
-                break;
-            case sqlite:
-                config = getWallConfig(dbType, customizer, SQLiteWallProvider.DEFAULT_CONFIG_DIR);
-                provider = new SQLiteWallProvider(config);
-                break;
-            case clickhouse:
-                config = getWallConfig(dbType, customizer, ClickhouseWallProvider.DEFAULT_CONFIG_DIR);
-                provider = new ClickhouseWallProvider(config);
-                break;
-            default:
-                throw new IllegalStateException("dbType not support : " + dbType + ", url " + url);
-        }
-        return provider;
+        return invocation.proceed();
     }
 
-    private boolean invalidExecuteTimes() {
-        return currentErrorCount > MAX_ERROR_EXECUTE_COUNT;
+    private SqlInjectionException violationException(DbType dbType, String statementId, Violation violation, String sql) {
+        Throwable cause = violation instanceof SyntaxErrorViolation ? ((SyntaxErrorViolation) violation).getException() : null;
+        return new SqlInjectionException("sql injection violation, dbType: "
+                + dbType
+                + ", " + violation.getMessage()
+                + ": " + violationReporter.truncate(sql),
+                dbType, statementId, violation.getErrorCode(), cause);
     }
 
-    private String getUrl(DataSource dataSource) throws SQLException {
-        try (Connection connection = dataSource.getConnection()) {
-            return connection.getMetaData().getURL();
+    /**
+     * Count and publish the violation, and log a warning in the warning only mode
+     */
+    private void recordViolation(DbType dbType, String statementId, Violation violation, String sql) {
+        metrics.recordViolation(dbType, violation);
+        if (violationEventPublisher != null) {
+            violationEventPublisher.publish(dbType, statementId, violation, sql, !properties.isEnableWarningOnly());
+        }
+        if (statementSampler != null) {
+            statementSampler.recordViolation(statementId);
+        }
+        if (properties.isEnableWarningOnly()) {
+            violationReporter.report(dbType, statementId, violation, sql);
         }
     }
 
+    /**
+     * Check the sql by the druid wall unless its tokens pass the pre-scan, the verdict is cached when it passes and
+     * a warning is logged when it violates in the warning only mode
+     *
+     * @param sql        The sql of the statement, which is reported
+     * @param checkedSql The sql checked by the druid wall, which may be collapsed
+     * @param generation The config generation read before the provider
+     * @return the first violation, or null if the sql passed
+     */
+    @Nullable
+    private Violation check(WallProvider provider, DbType dbType, String statementId, String sql, String checkedSql,
+                            long fingerprint, long generation) {
+        String[] objectNames = null;
+        // the wall passes the sql of its white list by a lookup, the pre-scan pays off for the sql it has not seen
+        if (properties.getPreScan().isEnabled() && provider.getWhiteSql(checkedSql) == null) {
+            WallPreScanner preScanner = wallProviderRegistry.getPreScanner(dbType, provider);
+            objectNames = preScanner.scan(checkedSql);
+            if (objectNames != null) {
+                metrics.recordSkipped(SkipReason.PRE_SCANNED);
+            }
+        }
 
-    private WallConfig getWallConfig(DbType dbType, PermitAndDenyCustomizer customizer, String defaultConfigDir) {
-        WallConfig wallConfig = JsonUtils.convertValue(customizer, WallConfig.class);
-
-        clearWallConfig(wallConfig);
-
-        wallConfig.setDir(defaultConfigDir);
+        List<Violation> violations = Collections.emptyList();
+        if (objectNames == null) {
+            long checkStart = System.nanoTime();
+            WallCheckResult check = provider.check(checkedSql);
+            metrics.recordCheck(dbType, statementId, System.nanoTime() - checkStart);
+            violations = check.getViolations();
+            if (violations.isEmpty()) {
+                objectNames = WallCheckResultUtils.getObjectNames(check);
+            }
+        }
 
-        wallConfig.init();
+        if (violations.isEmpty()) {
+            if (verdictCache != null) {
+                verdictCache.put(fingerprint, objectNames);
+                // the verdict of the previous config must not survive the invalidation of a reload
+                if (configGeneration.get() != generation) {
+                    verdictCache.remove(fingerprint);
+                }
+            }
+            if (verdictStore != null) {
+                verdictStore.put(dbType, provider, fingerprint);
+            }
+            if (statementSampler != null) {
+                statementSampler.recordPass(statementId);
+            }
+            return null;
+        }
 
-        applyCustomizerFunctions(wallConfig, customizer, dbType);
+        Violation firstViolation = violations.get(0);
+        if (violationCache != null) {
+            violationCache.put(fingerprint, firstViolation);
+            if (configGeneration.get() != generation) {
+                violationCache.remove(fingerprint);
+            }
+        }
+        recordViolation(dbType, statementId, firstViolation, sql);
+        return firstViolation;
+    }
 
-        return wallConfig;
+    /**
+     * @return the executor of the statement handler if it batches the statements, or null
+     */
+    @Nullable
+    private static Executor getBatchExecutor(StatementHandler statementHandler) {
+        Executor executor = StatementHandlerUtils.getExecutor(statementHandler);
+        return executor instanceof BatchExecutor ? executor : null;
     }
 
+    @Override
+    public Object plugin(Object target) {
+        // the executors are only intercepted to know when a batch ends
+        if (target instanceof StatementHandler || (batchCheckMemo != null && target instanceof Executor)) {
+            return Plugin.wrap(target, this);
+        }
+        return target;
+    }
 
-    private void clearWallConfig(WallConfig config) {
-        config.getDenyFunctions().clear();
-        config.getDenyTables().clear();
-        config.getDenySchemas().clear();
-        config.getDenyVariants().clear();
-        config.getDenyObjects().clear();
-        config.getPermitFunctions().clear();
-        config.getPermitTables().clear();
-        config.getPermitSchemas().clear();
-        config.getPermitVariants().clear();
-        config.getReadOnlyTables().clear();
+    @Override
+    public void setProperties(Properties properties) {
+        //do nothing
     }
 
+    /**
+     * Swap in the wall providers of a new customizer. Requests keep being checked by the current providers
+     * until the new ones are built, then only the cached verdicts the change may affect are invalidated
+     * and the trusted statements are validated again
+     *
+     * @param customizer The new customizer
+     */
+    public void reload(PermitAndDenyCustomizer customizer) {
+        long start = System.currentTimeMillis();
+        WallConfigDiff diff = wallProviderRegistry.reload(new WallProviderFactory(customizer));
+        if (diff.isEmpty()) {
+            LOGGER.info("Reloaded the wall config of sql injection plugin in {} ms, nothing changed.", System.currentTimeMillis() - start);
+            return;
+        }
+
+        configGeneration.incrementAndGet();
 
-    private void applyCustomizerFunctions(WallConfig wallConfig, PermitAndDenyCustomizer customizer, DbType dbType) {
-        applyFunctions(wallConfig, customizer, dbType);
-        applyTables(wallConfig, customizer, dbType);
-        applySchemas(wallConfig, customizer, dbType);
-        applyVariants(wallConfig, customizer, dbType);
-        applyDenyObjects(wallConfig, customizer, dbType);
-        applyReadOnlyTables(wallConfig, customizer, dbType);
-        wallConfig.setTenantCallBack(customizer.getTenantCallBack());
-        wallConfig.setUpdateCheckHandler(customizer.getUpdateCheckHandler());
-    }
+        int invalidated = 0;
+        if (verdictCache != null) {
+            invalidated = verdictCache.invalidate(diff::affects);
+        }
+        if (violationCache != null) {
+            // a violation may pass under the new config
+            violationCache.clear();
+        }
+        if (statementSampler != null) {
+            statementSampler.reset();
+        }
+        if (batchCheckMemo != null) {
+            batchCheckMemo.invalidate();
+        }
 
+        int untrusted = 0;
+        for (Map<DbType, Set<String>> trustedDialects : trustedStatements.values()) {
+            for (Map.Entry<DbType, Set<String>> entry : trustedDialects.entrySet()) {
+                WallProvider provider = wallProviderRegistry.getWallProvider(entry.getKey());
+                for (String sql : entry.getValue()) {
+                    if (provider == null || !provider.check(sql).getViolations().isEmpty()) {
+                        // checked at runtime again
+                        entry.getValue().remove(sql);
+                        untrusted++;
+                    }
+                }
+            }
+        }
 
-    private void applyFunctions(WallConfig wallConfig, PermitAndDenyCustomizer customizer, DbType dbType) {
-        Set<String> denyFunctions = wallConfig.getDenyFunctions();
-        Set<String> permitFunctions = wallConfig.getPermitFunctions();
-        //default deny functions
-        dataOperator(DEFAULT_MYSQL_DENY_FUNCTIONS, dbType, dataConsumer(denyFunctions, permitFunctions));
-        //custom permit and deny functions
-        dataOperator(customizer.getDatabase2PermitFunctions(), dbType, dataConsumer(permitFunctions, denyFunctions));
-        dataOperator(customizer.getDatabase2DenyFunctions(), dbType, dataConsumer(denyFunctions, permitFunctions));
+        LOGGER.info("Reloaded the wall config of sql injection plugin in {} ms, changed objects: {}, {} cached verdicts and {} trusted statements invalidated.",
+                System.currentTimeMillis() - start, diff, invalidated, untrusted);
     }
 
-    private void applyTables(WallConfig wallConfig, PermitAndDenyCustomizer customizer, DbType dbType) {
-        Set<String> permitTables = wallConfig.getPermitTables();
-        Set<String> denyTables = wallConfig.getDenyTables();
-        //permit
-        dataOperator(customizer.getDatabase2PermitTables(), dbType, dataConsumer(permitTables, denyTables));
-        //deny
-        dataOperator(customizer.getDatabase2DenyTables(), dbType, dataConsumer(denyTables, permitTables));
+    /**
+     * Stop the shadow check threads, the sql still queued is not checked and the running checks are waited for,
+     * then flush the persistent verdicts, the recorded statements and the summaries of the repeated violations
+     */
+    public void close() {
+        if (shadowCheckExecutor != null) {
+            shadowCheckExecutor.close();
+        }
+        if (statementRecorder != null) {
+            statementRecorder.close();
+        }
+        violationReporter.flush();
+        if (verdictStore != null) {
+            verdictStore.close();
+        }
     }
 
-    private void applySchemas(WallConfig wallConfig, PermitAndDenyCustomizer customizer, DbType dbType) {
-        Set<String> permitSchemas = wallConfig.getPermitSchemas();
-        Set<String> denySchemas = wallConfig.getDenySchemas();
-        //permit
-        dataOperator(customizer.getDatabase2PermitSchemas(), dbType, dataConsumer(permitSchemas, denySchemas));
-        //deny
-        dataOperator(customizer.getDatabase2DenySchemas(), dbType, dataConsumer(denySchemas, permitSchemas));
+    @Nullable
+    private static PersistentVerdictStore openVerdictStore(SqlInjectionProperties.Cache cache) {
+        long start = System.currentTimeMillis();
+        try {
+            PersistentVerdictStore store = PersistentVerdictStore.open(Paths.get(cache.getPersistentFile()), cache.getPersistentMaximumSize());
+            LOGGER.info("Opened the persistent verdict store {} with {} verdicts in {} ms.",
+                    cache.getPersistentFile(), store.size(), System.currentTimeMillis() - start);
+            return store;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Open the persistent verdict store {} error, the verdicts are not persisted.", cache.getPersistentFile(), e);
+            return null;
+        }
     }
 
-    private void applyVariants(WallConfig wallConfig, PermitAndDenyCustomizer customizer, DbType dbType) {
-        Set<String> permitVariants = wallConfig.getPermitVariants();
-        Set<String> denyVariants = wallConfig.getDenyVariants();
-        //permit
-        dataOperator(customizer.getDatabase2PermitVariants(), dbType, dataConsumer(permitVariants, denyVariants));
-        //deny
-        dataOperator(customizer.getDatabase2DenyVariants(), dbType, dataConsumer(denyVariants, permitVariants));
+    @Nullable
+    private static StatementRecorder openStatementRecorder(SqlInjectionProperties.Record record) {
+        try {
+            StatementRecorder recorder = StatementRecorder.open(Paths.get(record.getFile()), record.getMaximumSize());
+            LOGGER.info("Recording the statements of sql injection plugin to {}.", record.getFile());
+            return recorder;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Open the recording file {} error, the statements are not recorded.", record.getFile(), e);
+            return null;
+        }
     }
 
-    private void applyDenyObjects(WallConfig wallConfig, PermitAndDenyCustomizer customizer, DbType dbType) {
-        Set<String> denyObjects = wallConfig.getDenyObjects();
-        //deny objects
-        dataOperator(customizer.getDatabase2DenyObjects(), dbType, dataConsumer(denyObjects, null));
+    WallProviderRegistry getWallProviderRegistry() {
+        return wallProviderRegistry;
     }
 
-    private void applyReadOnlyTables(WallConfig wallConfig, PermitAndDenyCustomizer customizer, DbType dbType) {
-        Set<String> readOnlyTables = wallConfig.getReadOnlyTables();
-        //read only tables
-        dataOperator(customizer.getDatabase2ReadOnlyTables(), dbType, dataConsumer(readOnlyTables, null));
+    /**
+     * Skip the runtime check of the given statement whenever it executes exactly the given sql on the given dialect
+     *
+     * @param mappedStatement The mapped statement
+     * @param dbType          The dialect the sql was validated against
+     * @param sql             The validated sql
+     */
+    void trust(MappedStatement mappedStatement, DbType dbType, String sql) {
+        Set<String> trustedSql = trustedStatements.computeIfAbsent(mappedStatement.getId(), id -> new ConcurrentHashMap<>())
+                .computeIfAbsent(dbType, key -> ConcurrentHashMap.newKeySet());
+        if (trustedSql.size() < MAXIMUM_TRUSTED_SQL) {
+            trustedSql.add(sql);
+        }
     }
 
-    private void dataOperator(Map<String, Set<String>> customMap, DbType type, Consumer<Set<String>> consumer) {
-        Optional.ofNullable(customMap)
-                .map(map -> map.get(type.name()))
-                .ifPresent(consumer);
+    @Nullable
+    private Set<String> getTrustedSql(MappedStatement mappedStatement, DbType dbType) {
+        Map<DbType, Set<String>> trustedDialects = trustedStatements.get(mappedStatement.getId());
+        return trustedDialects != null ? trustedDialects.get(dbType) : null;
     }
 
-    private Consumer<Set<String>> dataConsumer(Set<String> addAllSet, @Nullable Set<String> removeAllSet) {
-        return data -> {
-            addAllSet.addAll(data);
+    boolean isTrusted(MappedStatement mappedStatement) {
+        return trustedStatements.containsKey(mappedStatement.getId());
+    }
 
-            if (removeAllSet != null) {
-                removeAllSet.removeAll(data);
-            }
-        };
+    /**
+     * Trust each sql of the given statement once it passed the check, its sql can not be changed by the parameters.
+     * The trusted sql is checked again on a reload
+     *
+     * @param mappedStatement The mapped statement
+     */
+    void markSubstitutionFree(MappedStatement mappedStatement) {
+        substitutionFreeStatements.add(mappedStatement);
     }
 }
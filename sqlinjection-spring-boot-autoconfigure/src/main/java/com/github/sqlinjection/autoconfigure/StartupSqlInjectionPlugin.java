@@ -27,42 +27,102 @@ import com.github.sqlinjection.autoconfigure.properties.SqlInjectionProperties;
 import org.apache.ibatis.plugin.Interceptor;
 import org.apache.ibatis.session.Configuration;
 import org.apache.ibatis.session.SqlSessionFactory;
+import org.springframework.beans.factory.DisposableBean;
 
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * @author sean chen
  * @date 2023/9/11 12:00 AM
  */
-public class StartupSqlInjectionPlugin {
+public class StartupSqlInjectionPlugin implements DisposableBean {
+
+    private final List<SqlInjectionPluginInterceptor> interceptors = new ArrayList<>();
+
+    private final ReentrantLock reloadLock = new ReentrantLock();
 
     public StartupSqlInjectionPlugin(List<SqlSessionFactory> sqlSessionFactories, SqlInjectionProperties properties, PermitAndDenyCustomizer customizer) {
-        start(sqlSessionFactories, properties, customizer);
+        this(sqlSessionFactories, properties, customizer, new SqlInjectionCollaborators());
+    }
+
+    public StartupSqlInjectionPlugin(List<SqlSessionFactory> sqlSessionFactories, SqlInjectionProperties properties,
+                                     PermitAndDenyCustomizer customizer, SqlInjectionCollaborators collaborators) {
+        start(sqlSessionFactories, properties, customizer, collaborators);
     }
 
-    private void start(List<SqlSessionFactory> sqlSessionFactories, SqlInjectionProperties properties, PermitAndDenyCustomizer customizer) {
+    private void start(List<SqlSessionFactory> sqlSessionFactories, SqlInjectionProperties properties,
+                       PermitAndDenyCustomizer customizer, SqlInjectionCollaborators collaborators) {
         for (SqlSessionFactory sqlSessionFactory : sqlSessionFactories) {
-            try {
-                Configuration configuration = sqlSessionFactory.getConfiguration();
+            Configuration configuration = sqlSessionFactory.getConfiguration();
 
-                SqlInjectionPluginInterceptor interceptor = new SqlInjectionPluginInterceptor(properties, customizer);
+            SqlInjectionPluginInterceptor interceptor = null;
+            try {
+                interceptor = findMybatisInterceptor(configuration);
 
-                if (!containsMybatisInterceptor(configuration, interceptor)) {
+                if (interceptor == null) {
+                    interceptor = new SqlInjectionPluginInterceptor(properties, customizer, collaborators);
                     configuration.addInterceptor(interceptor);
                 }
 
             } catch (Exception ignored) {
             }
+
+            if (interceptor != null) {
+                interceptors.add(interceptor);
+                interceptor.getWallProviderRegistry().init(configuration);
+            }
+
+            if (interceptor != null && properties.getStartup().isManifestEnabled()) {
+                new TrustedStatementManifestLoader().load(configuration, interceptor);
+            }
+
+            // violations must fail the startup, so they are not swallowed
+            if (interceptor != null && properties.getStartup().isValidationEnabled()) {
+                new StaticStatementValidator(properties).validate(configuration, interceptor);
+            }
+
+            if (interceptor != null && properties.getStartup().isClassificationEnabled()) {
+                new StatementClassifier().classify(configuration, interceptor);
+            }
+        }
+    }
+
+    /**
+     * Swap in the wall config of a new customizer for all mybatis configurations, see
+     * {@link SqlInjectionPluginInterceptor#reload(PermitAndDenyCustomizer)}
+     *
+     * @param customizer The new customizer
+     */
+    public void reload(PermitAndDenyCustomizer customizer) {
+        reloadLock.lock();
+        try {
+            for (SqlInjectionPluginInterceptor interceptor : interceptors) {
+                interceptor.reload(customizer);
+            }
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    @Override
+    public void destroy() {
+        for (SqlInjectionPluginInterceptor interceptor : interceptors) {
+            interceptor.close();
         }
     }
 
-    private boolean containsMybatisInterceptor(Configuration configuration, Interceptor interceptor) {
+    private SqlInjectionPluginInterceptor findMybatisInterceptor(Configuration configuration) {
         try {
-            return configuration.getInterceptors().stream()
-                    .anyMatch(config -> interceptor.getClass().isAssignableFrom(config.getClass()));
-        } catch (Exception ex) {
-            return false;
+            for (Interceptor config : configuration.getInterceptors()) {
+                if (config instanceof SqlInjectionPluginInterceptor) {
+                    return (SqlInjectionPluginInterceptor) config;
+                }
+            }
+        } catch (Exception ignored) {
         }
+        return null;
     }
 
 }
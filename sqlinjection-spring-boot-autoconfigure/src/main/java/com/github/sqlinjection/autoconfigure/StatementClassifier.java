@@ -0,0 +1,74 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure;
+
+import com.github.sqlinjection.autoconfigure.utils.SqlSourceUtils;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+/**
+ * Classifies the mapped statements at startup by whether their sql can be changed by the parameters.
+ * <p>
+ * {@code #{}} parameters become jdbc bind placeholders, only {@code ${}} substitutions and sql providers can
+ * inject sql. The sql of the statements without them is checked once at runtime, then trusted by the interceptor
+ * as long as the statement executes exactly that sql, so a sql rewritten by another plugin is still checked.
+ *
+ * @author sean chen
+ * @date 2026/10/18 8:20 PM
+ */
+class StatementClassifier {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatementClassifier.class);
+
+    void classify(Configuration configuration, SqlInjectionPluginInterceptor interceptor) {
+        long start = System.currentTimeMillis();
+
+        // the values may contain ambiguous short names, and the same statement under its short name
+        Collection<?> values = configuration.getMappedStatements();
+        Set<MappedStatement> statements = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Object value : values) {
+            if (value instanceof MappedStatement) {
+                statements.add((MappedStatement) value);
+            }
+        }
+
+        int substitutionFree = 0;
+        for (MappedStatement statement : statements) {
+            if (SqlSourceUtils.isSubstitutionFree(statement.getSqlSource())) {
+                interceptor.markSubstitutionFree(statement);
+                substitutionFree++;
+            }
+        }
+
+        LOGGER.info("Classified {} statements by sql injection plugin in {} ms, {} substitution free, {} always checked at runtime.",
+                statements.size(), System.currentTimeMillis() - start, substitutionFree, statements.size() - substitutionFree);
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.wall.Violation;
+import com.alibaba.druid.wall.WallProvider;
+import com.github.sqlinjection.autoconfigure.properties.SqlInjectionProperties;
+import com.github.sqlinjection.autoconfigure.utils.SqlSourceUtils;
+import com.github.sqlinjection.autoconfigure.wall.WallProviderRegistry;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
+import org.apache.ibatis.session.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import static org.apache.ibatis.mapping.StatementType.CALLABLE;
+
+/**
+ * Validates the sql of all static mapped statements at startup, in parallel.
+ * <p>
+ * The sql of {@link StaticSqlSource} and {@link RawSqlSource} is fully known at boot, statements
+ * which pass are trusted by the interceptor and skip the runtime check.
+ *
+ * @author sean chen
+ * @date 2026/10/18 10:36 AM
+ */
+class StaticStatementValidator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StaticStatementValidator.class);
+
+    private final SqlInjectionProperties properties;
+
+    StaticStatementValidator(SqlInjectionProperties properties) {
+        this.properties = properties;
+    }
+
+    void validate(Configuration configuration, SqlInjectionPluginInterceptor interceptor) {
+        long start = System.currentTimeMillis();
+
+        List<MappedStatement> statements = getStaticStatements(configuration, interceptor);
+        if (statements.isEmpty()) {
+            return;
+        }
+
+        WallProviderRegistry registry = interceptor.getWallProviderRegistry();
+
+        List<Callable<String>> tasks = new ArrayList<>(statements.size());
+        for (MappedStatement statement : statements) {
+            tasks.add(() -> validate(registry, interceptor, statement));
+        }
+
+        List<String> violations = new ArrayList<>();
+        ForkJoinPool pool = new ForkJoinPool(Math.max(1, properties.getStartup().getParallelism()));
+        try {
+            for (Future<String> future : pool.invokeAll(tasks)) {
+                String violation = future.get();
+                if (violation != null) {
+                    violations.add(violation);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("The startup validation of sql is interrupted.", e);
+        } catch (Exception e) {
+            throw new IllegalStateException("The startup validation of sql failed.", e);
+        } finally {
+            pool.shutdown();
+        }
+
+        LOGGER.info("Validated {} static statements by sql injection plugin in {} ms, {} violations.",
+                statements.size(), System.currentTimeMillis() - start, violations.size());
+
+        if (violations.isEmpty()) {
+            return;
+        }
+
+        if (properties.isEnableWarningOnly()) {
+            for (String violation : violations) {
+                LOGGER.warn("sql injection violation, {}", violation);
+            }
+        } else {
+            throw new IllegalStateException("sql injection violation, " + String.join("; ", violations));
+        }
+    }
+
+    /**
+     * @return the violation message, or {@code null} if the statement passed
+     */
+    private String validate(WallProviderRegistry registry, SqlInjectionPluginInterceptor interceptor, MappedStatement statement) {
+        // a statement of a routing data source is validated against every dialect it may be routed to
+        Set<DbType> dbTypes = registry.getDbTypes(statement);
+        if (dbTypes.isEmpty()) {
+            return null;
+        }
+
+        String sql;
+        try {
+            sql = statement.getSqlSource().getBoundSql(null).getSql();
+        } catch (Exception e) {
+            LOGGER.debug("Skip the startup validation of statement {}.", statement.getId(), e);
+            return null;
+        }
+
+        for (DbType dbType : dbTypes) {
+            WallProvider wallProvider = registry.getWallProvider(dbType);
+            if (wallProvider == null) {
+                return null;
+            }
+            List<Violation> violations = wallProvider.check(sql).getViolations();
+            if (!violations.isEmpty()) {
+                return "dbType: " + dbType + ", " + statement.getId() + ", " + violations.get(0).getMessage() + ": " + sql;
+            }
+        }
+
+        for (DbType dbType : dbTypes) {
+            interceptor.trust(statement, dbType, sql);
+        }
+        return null;
+    }
+
+    private List<MappedStatement> getStaticStatements(Configuration configuration, SqlInjectionPluginInterceptor interceptor) {
+        Set<String> ignoredStatements = properties.getIgnoredStatements();
+
+        // the values may contain ambiguous short names, and the same statement under its short name
+        Collection<?> values = configuration.getMappedStatements();
+        Set<MappedStatement> statements = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (Object value : values) {
+            if (!(value instanceof MappedStatement)) {
+                continue;
+            }
+            MappedStatement statement = (MappedStatement) value;
+            if (!properties.isSupportCallable() && CALLABLE.equals(statement.getStatementType())) {
+                continue;
+            }
+            if (ignoredStatements != null && ignoredStatements.contains(statement.getId())) {
+                continue;
+            }
+            // trusted by the build time manifest
+            if (interceptor.isTrusted(statement)) {
+                continue;
+            }
+            if (SqlSourceUtils.isStatic(statement.getSqlSource())) {
+                statements.add(statement);
+            }
+        }
+        return new ArrayList<>(statements);
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.wall.WallProvider;
+import com.github.sqlinjection.autoconfigure.manifest.TrustedStatementManifest;
+import com.github.sqlinjection.autoconfigure.utils.SqlSourceUtils;
+import com.github.sqlinjection.autoconfigure.wall.WallConfigDigest;
+import com.github.sqlinjection.autoconfigure.wall.WallProviderRegistry;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.ClassUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+
+/**
+ * Trusts the statements validated at build time by the sqlinjection-maven-plugin, so they skip the startup
+ * validation and the runtime check.
+ * <p>
+ * A manifest only applies if the statements run against its dialect only and the runtime wall config has the
+ * same digest as the one it was validated with. A statement is only trusted if its sql at boot has the digest
+ * recorded in the manifest, and the interceptor then compares the very sql, so other plugins rewriting it are
+ * still checked.
+ *
+ * @author sean chen
+ * @date 2026/10/18 10:10 PM
+ */
+class TrustedStatementManifestLoader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(TrustedStatementManifestLoader.class);
+
+    void load(Configuration configuration, SqlInjectionPluginInterceptor interceptor) {
+        ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+        Enumeration<URL> urls;
+        try {
+            urls = classLoader == null ? ClassLoader.getSystemResources(TrustedStatementManifest.LOCATION)
+                    : classLoader.getResources(TrustedStatementManifest.LOCATION);
+        } catch (IOException e) {
+            LOGGER.warn("Find the trusted statement manifests error.", e);
+            return;
+        }
+
+        while (urls.hasMoreElements()) {
+            URL url = urls.nextElement();
+            try (InputStream in = url.openStream()) {
+                load(configuration, interceptor, url, TrustedStatementManifest.read(in));
+            } catch (IOException e) {
+                LOGGER.warn("Read the trusted statement manifest {} error, it is ignored.", url, e);
+            }
+        }
+    }
+
+    private void load(Configuration configuration, SqlInjectionPluginInterceptor interceptor, URL url,
+                      TrustedStatementManifest manifest) {
+        long start = System.currentTimeMillis();
+
+        WallProviderRegistry registry = interceptor.getWallProviderRegistry();
+        DbType dbType = manifest.getDbType();
+        WallProvider provider = registry.getWallProvider(dbType);
+        if (provider == null) {
+            LOGGER.info("Ignore the trusted statement manifest {}, the wall provider of {} is not available.", url, dbType);
+            return;
+        }
+        if (!manifest.getConfigDigest().equals(WallConfigDigest.of(provider.getConfig()))) {
+            LOGGER.info("Ignore the trusted statement manifest {}, the wall config differs from the one it was validated with.", url);
+            return;
+        }
+
+        int trusted = 0;
+        for (Map.Entry<String, String> entry : manifest.getStatements().entrySet()) {
+            if (!configuration.hasStatement(entry.getKey(), false)) {
+                continue;
+            }
+            MappedStatement statement = configuration.getMappedStatement(entry.getKey(), false);
+            if (!SqlSourceUtils.isStatic(statement.getSqlSource())
+                    || !Collections.singleton(dbType).equals(registry.getDbTypes(statement))) {
+                continue;
+            }
+
+            String sql;
+            try {
+                sql = statement.getSqlSource().getBoundSql(null).getSql();
+            } catch (Exception e) {
+                continue;
+            }
+            if (manifest.isTrusted(statement.getId(), sql)) {
+                interceptor.trust(statement, dbType, sql);
+                trusted++;
+            }
+        }
+
+        LOGGER.info("Trusted {} of {} statements of the manifest {} in {} ms.",
+                trusted, manifest.getStatements().size(), url, System.currentTimeMillis() - start);
+    }
+}
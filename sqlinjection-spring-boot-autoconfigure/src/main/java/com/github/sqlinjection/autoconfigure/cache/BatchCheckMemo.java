@@ -0,0 +1,139 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.cache;
+
+import java.util.Arrays;
+
+/**
+ * The sql which already passed the druid wall in the current batch of an executor.
+ * <p>
+ * A batch executor prepares a statement again whenever the batch alternates between statements, e.g. the
+ * inserts into a parent and a child table, so each distinct sql only needs to be checked once per batch.
+ * The verdict cache already skips those checks, the memo only saves the fingerprint of a large sql. The memo is thread confined like the executors
+ * themselves: a thread remembers the sql of the executor it last prepared a statement on, and forgets it
+ * when an executor flushes, commits, rolls back or closes. The memo holds at most {@code maximumSize} sql,
+ * the oldest is evicted first.
+ *
+ * @author sean chen
+ * @date 2026/10/18 5:41 PM
+ */
+public final class BatchCheckMemo {
+
+    private final int maximumSize;
+    private final ThreadLocal<Batch> batches;
+    /**
+     * Bumped when the wall config changes, the memo of an older generation is forgotten
+     */
+    private volatile int generation;
+
+    /**
+     * @param maximumSize The maximum number of distinct sql remembered per batch
+     */
+    public BatchCheckMemo(int maximumSize) {
+        this.maximumSize = Math.max(1, maximumSize);
+        this.batches = ThreadLocal.withInitial(() -> new Batch(this.maximumSize));
+    }
+
+    /**
+     * @param executor The executor which prepares the statement
+     * @param sql      The sql of the statement
+     * @return whether the sql already passed in the current batch of the executor
+     */
+    public boolean contains(Object executor, String sql) {
+        Batch batch = batches.get();
+        if (batch.executor != executor || batch.generation != generation) {
+            return false;
+        }
+        String[] sqls = batch.sqls;
+        int size = batch.size;
+        for (int i = 0; i < size; i++) {
+            // the static sql of a statement is the same string instance on every prepare
+            if (sqls[i] == sql) {
+                return true;
+            }
+        }
+        for (int i = 0; i < size; i++) {
+            if (sqls[i].equals(sql)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remember that the sql passed in the current batch of the executor
+     *
+     * @param executor The executor which prepares the statement
+     * @param sql      The sql of the statement
+     */
+    public void add(Object executor, String sql) {
+        Batch batch = batches.get();
+        int currentGeneration = generation;
+        if (batch.executor != executor || batch.generation != currentGeneration) {
+            batch.reset();
+            batch.executor = executor;
+            batch.generation = currentGeneration;
+        }
+        if (batch.size < maximumSize) {
+            batch.sqls[batch.size++] = sql;
+        } else {
+            batch.sqls[batch.next] = sql;
+            batch.next = (batch.next + 1) % maximumSize;
+        }
+    }
+
+    /**
+     * Forget the batch of the current thread, called when an executor flushes its statements
+     */
+    public void clear() {
+        batches.get().reset();
+    }
+
+    /**
+     * Forget the batches of all threads, called when the wall config changes
+     */
+    public synchronized void invalidate() {
+        generation++;
+    }
+
+    private static final class Batch {
+
+        private final String[] sqls;
+        private Object executor;
+        private int generation;
+        private int size;
+        private int next;
+
+        private Batch(int maximumSize) {
+            this.sqls = new String[maximumSize];
+        }
+
+        private void reset() {
+            Arrays.fill(sqls, 0, size, null);
+            executor = null;
+            size = 0;
+            next = 0;
+        }
+    }
+}
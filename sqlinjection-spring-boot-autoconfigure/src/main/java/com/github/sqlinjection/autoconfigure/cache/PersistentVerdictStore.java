@@ -0,0 +1,405 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.cache;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.VERSION;
+import com.alibaba.druid.wall.WallProvider;
+import com.github.sqlinjection.autoconfigure.wall.WallConfigDigest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.*;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A memory mapped file of the sql fingerprints which passed the druid wall, so a restarted application
+ * does not check every sql shape again.
+ * <p>
+ * The file holds a header with the fingerprint seed and a hash of the druid version, followed by an open addressing
+ * table of 64-bit keys. Only passes are stored, so a key is the whole verdict. A key mixes the fingerprint
+ * with the digest of the effective wall config of the provider, so a changed config, at startup or by a
+ * reload, never hits the verdicts of the previous one. When the table is 3/4 full it is cleared, which also
+ * drops the verdicts of old configs.
+ * <p>
+ * Lookups never lock, appends are serialized. A file is opened once per process and shared by the interceptors
+ * of all sql session factories, and it is locked against other processes, so there is a single writer. The seed
+ * makes the fingerprints predictable to whoever can read the file, so it is created readable by the owner only.
+ *
+ * @author sean chen
+ * @date 2026/10/18 10:40 PM
+ */
+public final class PersistentVerdictStore implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PersistentVerdictStore.class);
+
+    private static final long MAGIC = 0x53514C4956524431L;
+    /**
+     * The fingerprints of format 1 did not hash the literal values, so its verdicts are dropped
+     */
+    private static final int FORMAT = 2;
+
+    private static final int MAGIC_OFFSET = 0;
+    private static final int FORMAT_OFFSET = 8;
+    private static final int CAPACITY_OFFSET = 12;
+    private static final int SEED_OFFSET = 16;
+    private static final int SIZE_OFFSET = 24;
+    private static final int DRUID_VERSION_OFFSET = 28;
+    private static final int HEADER_SIZE = 64;
+
+    private static final int MAXIMUM_CAPACITY = 1 << 26;
+
+    private static final long EMPTY = 0L;
+
+    /**
+     * The number of providers per db type whose config versions are remembered, e.g. of several sql session factories
+     */
+    private static final int VERSIONS = 8;
+
+    /**
+     * file -> the store mapping it
+     */
+    private static final Map<Path, PersistentVerdictStore> STORES = new HashMap<>();
+
+    private static final ReentrantLock STORES_LOCK = new ReentrantLock();
+
+    private final Path path;
+    private final FileChannel channel;
+    private final FileLock fileLock;
+    private final MappedByteBuffer buffer;
+    private final int capacity;
+    private final int mask;
+    private final long seed;
+    private int size;
+
+    /**
+     * Serializes the appends, a monitor would pin the carrier thread of a virtual thread faulting a page in
+     */
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * dbType -> the config versions of its recent providers, the latest first
+     */
+    private final Map<DbType, ProviderVersion[]> versions = new ConcurrentHashMap<>();
+
+    /**
+     * The number of interceptors using the store, guarded by {@link #STORES_LOCK}
+     */
+    private int references;
+
+    /**
+     * Set under the lock once the file is closed, a late put is ignored
+     */
+    private boolean closed;
+
+    private PersistentVerdictStore(Path path, FileChannel channel, FileLock fileLock, MappedByteBuffer buffer, int capacity) {
+        this.path = path;
+        this.channel = channel;
+        this.fileLock = fileLock;
+        this.buffer = buffer;
+        this.capacity = capacity;
+        this.mask = capacity - 1;
+        this.seed = buffer.getLong(SEED_OFFSET);
+        this.size = buffer.getInt(SIZE_OFFSET);
+    }
+
+    /**
+     * Open the store, a missing file or one written by another format, capacity or druid version is created anew.
+     * The store already open on the file is shared, each open must be followed by a {@link #close()}
+     *
+     * @param path        The file
+     * @param maximumSize The number of slots, rounded up to a power of two, ignored if the store is already open
+     * @return the store
+     * @throws IOException if the file can not be created or mapped, or is used by another process
+     */
+    public static PersistentVerdictStore open(Path path, int maximumSize) throws IOException {
+        Path absolute = path.toAbsolutePath().normalize();
+        STORES_LOCK.lock();
+        try {
+            PersistentVerdictStore store = STORES.get(absolute);
+            if (store == null) {
+                store = create(absolute, maximumSize);
+                STORES.put(absolute, store);
+            }
+            store.references++;
+            return store;
+        } finally {
+            STORES_LOCK.unlock();
+        }
+    }
+
+    private static PersistentVerdictStore create(Path path, int maximumSize) throws IOException {
+        int capacity = 16;
+        while (capacity < maximumSize && capacity < MAXIMUM_CAPACITY) {
+            capacity <<= 1;
+        }
+        long length = HEADER_SIZE + (long) capacity * Long.BYTES;
+
+        boolean created = !Files.exists(path);
+        if (created) {
+            createFile(path);
+        }
+
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        try {
+            FileLock fileLock = channel.tryLock();
+            if (fileLock == null) {
+                throw new IOException("The persistent verdict store " + path + " is used by another process.");
+            }
+            boolean valid = !created && channel.size() == length;
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, length);
+            if (!valid || buffer.getLong(MAGIC_OFFSET) != MAGIC || buffer.getInt(FORMAT_OFFSET) != FORMAT
+                    || buffer.getInt(CAPACITY_OFFSET) != capacity || buffer.getInt(DRUID_VERSION_OFFSET) != druidVersion()) {
+                if (!created) {
+                    LOGGER.info("The persistent verdict store {} was written by another version, it is created anew.", path);
+                }
+                initialize(buffer, capacity);
+            }
+            return new PersistentVerdictStore(path, channel, fileLock, buffer, capacity);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * @param dbType      The db type of the provider
+     * @param provider    The provider the sql is checked by
+     * @param fingerprint The sql fingerprint
+     * @return true if the sql passed the same wall config before
+     */
+    public boolean contains(DbType dbType, WallProvider provider, long fingerprint) {
+        long key = key(dbType, provider, fingerprint);
+        if (key == EMPTY) {
+            return false;
+        }
+        int index = index(key);
+        for (int probe = 0; probe < capacity; probe++) {
+            long slot = buffer.getLong(offset(index));
+            if (slot == key) {
+                return true;
+            }
+            if (slot == EMPTY) {
+                return false;
+            }
+            index = (index + 1) & mask;
+        }
+        return false;
+    }
+
+    /**
+     * @param dbType      The db type of the provider
+     * @param provider    The provider the sql passed
+     * @param fingerprint The sql fingerprint
+     */
+    public void put(DbType dbType, WallProvider provider, long fingerprint) {
+        long key = key(dbType, provider, fingerprint);
+        if (key == EMPTY) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            if (size >= capacity - (capacity >>> 2)) {
+                LOGGER.info("The persistent verdict store {} is full, it is cleared.", path);
+                clear();
+            }
+            int index = index(key);
+            while (true) {
+                long slot = buffer.getLong(offset(index));
+                if (slot == key) {
+                    return;
+                }
+                if (slot == EMPTY) {
+                    buffer.putLong(offset(index), key);
+                    buffer.putInt(SIZE_OFFSET, ++size);
+                    return;
+                }
+                index = (index + 1) & mask;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void clear() {
+        lock.lock();
+        try {
+            for (int i = 0; i < capacity; i++) {
+                buffer.putLong(offset(i), EMPTY);
+            }
+            size = 0;
+            buffer.putInt(SIZE_OFFSET, 0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Flush the verdicts to the file and close it, once no interceptor uses the store any more
+     */
+    @Override
+    public void close() {
+        STORES_LOCK.lock();
+        try {
+            if (--references > 0) {
+                return;
+            }
+            STORES.remove(path, this);
+        } finally {
+            STORES_LOCK.unlock();
+        }
+        lock.lock();
+        try {
+            closed = true;
+            buffer.force();
+            fileLock.release();
+            channel.close();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Close the persistent verdict store {} error.", path, e);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private long key(DbType dbType, WallProvider provider, long fingerprint) {
+        ProviderVersion version = getVersion(dbType, provider);
+        if (!version.versioned) {
+            return EMPTY;
+        }
+        long key = fingerprint ^ version.version * 0x9E3779B97F4A7C15L;
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return key;
+    }
+
+    /**
+     * The providers of several sql session factories and the previous provider of requests started before a
+     * reload check the same db type, so the versions of the recent ones are kept
+     */
+    private ProviderVersion getVersion(DbType dbType, WallProvider provider) {
+        ProviderVersion[] recent = versions.get(dbType);
+        if (recent != null) {
+            for (ProviderVersion version : recent) {
+                if (version.provider == provider) {
+                    return version;
+                }
+            }
+        }
+        ProviderVersion version = new ProviderVersion(provider);
+        int length = recent == null ? 1 : Math.min(recent.length + 1, VERSIONS);
+        ProviderVersion[] updated = new ProviderVersion[length];
+        updated[0] = version;
+        if (recent != null) {
+            System.arraycopy(recent, 0, updated, 1, length - 1);
+        }
+        // a version lost by a concurrent update is digested again
+        versions.put(dbType, updated);
+        return version;
+    }
+
+    private int index(long key) {
+        return (int) (key ^ (key >>> 32)) & mask;
+    }
+
+    private static int offset(int index) {
+        return HEADER_SIZE + index * Long.BYTES;
+    }
+
+    private static void createFile(Path path) throws IOException {
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        try {
+            Files.createFile(path, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------")));
+        } catch (UnsupportedOperationException e) {
+            Files.createFile(path);
+        }
+    }
+
+    private static void initialize(MappedByteBuffer buffer, int capacity) {
+        for (int offset = 0; offset < buffer.capacity(); offset += Long.BYTES) {
+            buffer.putLong(offset, EMPTY);
+        }
+        buffer.putLong(MAGIC_OFFSET, MAGIC);
+        buffer.putInt(FORMAT_OFFSET, FORMAT);
+        buffer.putInt(CAPACITY_OFFSET, capacity);
+        buffer.putLong(SEED_OFFSET, new SecureRandom().nextLong());
+        buffer.putInt(SIZE_OFFSET, 0);
+        buffer.putInt(DRUID_VERSION_OFFSET, druidVersion());
+        buffer.force();
+    }
+
+    private static int druidVersion() {
+        // the rules of the wall are code as well, so another druid version may reach other verdicts
+        return VERSION.getVersionNumber().hashCode();
+    }
+
+    private static final class ProviderVersion {
+
+        private final WallProvider provider;
+        private final boolean versioned;
+        private final long version;
+
+        private ProviderVersion(WallProvider provider) {
+            this.provider = provider;
+            String digest = WallConfigDigest.of(provider.getConfig());
+            // a config with callbacks can not be digested, so its verdicts are not persisted
+            this.versioned = digest != null;
+            this.version = digest != null ? ByteBuffer.wrap(Base64.getUrlDecoder().decode(digest)).getLong() : 0L;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.cache;
+
+import org.springframework.lang.Nullable;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Predicate;
+
+/**
+ * A bounded, lock-free table from sql fingerprints to values, shared by the {@link VerdictCache} and the
+ * {@link ViolationCache}.
+ * <p>
+ * The table is 4-way set associative: a fingerprint can only live in the 4 slots of its set, and when all of them
+ * are taken a random one is evicted, so a flood of distinct fingerprints only evicts the entries of its own sets.
+ * Lookups never lock and never allocate.
+ *
+ * @param <V> The type of the values
+ * @author sean chen
+ * @date 2026/10/19 7:20 PM
+ */
+final class SetAssociativeTable<V> {
+
+    private static final int WAYS = 4;
+
+    private final AtomicReferenceArray<Entry<V>> slots;
+    private final int sets;
+
+    /**
+     * @param maximumSize The maximum number of fingerprints kept in the table
+     */
+    SetAssociativeTable(int maximumSize) {
+        this.sets = Math.max(1, maximumSize / WAYS);
+        this.slots = new AtomicReferenceArray<>(sets * WAYS);
+    }
+
+    /**
+     * @param fingerprint The sql fingerprint
+     * @return the value of the fingerprint, or {@code null} if it is unknown
+     */
+    @Nullable
+    V get(long fingerprint) {
+        int base = base(fingerprint);
+        for (int i = base; i < base + WAYS; i++) {
+            Entry<V> entry = slots.get(i);
+            if (entry != null && entry.fingerprint == fingerprint) {
+                return entry.value;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Put the value of a fingerprint, the value of a fingerprint already in the table is kept
+     *
+     * @param fingerprint The sql fingerprint
+     * @param value       The value
+     */
+    void put(long fingerprint, V value) {
+        int base = base(fingerprint);
+        Entry<V> entry = null;
+        for (int i = base; i < base + WAYS; i++) {
+            Entry<V> current = slots.get(i);
+            if (current != null && current.fingerprint == fingerprint) {
+                return;
+            }
+            if (current == null) {
+                if (entry == null) {
+                    entry = new Entry<>(fingerprint, value);
+                }
+                if (slots.compareAndSet(i, null, entry)) {
+                    return;
+                }
+            }
+        }
+        slots.set(base + ThreadLocalRandom.current().nextInt(WAYS),
+                entry != null ? entry : new Entry<>(fingerprint, value));
+    }
+
+    /**
+     * @param fingerprint The sql fingerprint
+     */
+    void remove(long fingerprint) {
+        int base = base(fingerprint);
+        for (int i = base; i < base + WAYS; i++) {
+            Entry<V> entry = slots.get(i);
+            if (entry != null && entry.fingerprint == fingerprint) {
+                slots.compareAndSet(i, entry, null);
+            }
+        }
+    }
+
+    /**
+     * @param filter Tests the values to remove
+     * @return the number of removed entries
+     */
+    int removeIf(Predicate<? super V> filter) {
+        int removed = 0;
+        for (int i = 0; i < slots.length(); i++) {
+            Entry<V> entry = slots.get(i);
+            if (entry != null && filter.test(entry.value) && slots.compareAndSet(i, entry, null)) {
+                removed++;
+            }
+        }
+        return removed;
+    }
+
+    void clear() {
+        for (int i = 0; i < slots.length(); i++) {
+            slots.set(i, null);
+        }
+    }
+
+    int capacity() {
+        return slots.length();
+    }
+
+    private int base(long fingerprint) {
+        // maps the low 32 bits onto [0, sets) without a division
+        return (int) (((fingerprint & 0xFFFFFFFFL) * sets) >>> 32) * WAYS;
+    }
+
+    private static final class Entry<V> {
+
+        private final long fingerprint;
+        private final V value;
+
+        private Entry(long fingerprint, V value) {
+            this.fingerprint = fingerprint;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,359 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.cache;
+
+import java.security.SecureRandom;
+
+/**
+ * Computes a 64-bit fingerprint of a sql, so that sql of the same shape share one verdict.
+ * <p>
+ * Only whitespace runs, the case of keywords and identifiers and the length of placeholder lists
+ * such as {@code IN (?, ?, ?)} are collapsed. Literals are hashed with their value, because the
+ * druid wall judges conditions such as {@code 1 = 1} and {@code 1 = 2} by the values. Everything
+ * the normalization can not prove harmless (comments, escapes, quoted identifiers containing
+ * backslashes, dialect specific quoting, non ascii characters ...) switches the scanner to exact
+ * hashing of the rest of the sql. Two sql with the same fingerprint only differ in whitespace,
+ * in case and in the number of placeholders of a list, which is all the druid wall does not look at.
+ * <p>
+ * The hash is seeded per instance with a random value, so fingerprints can not be precomputed.
+ *
+ * @author sean chen
+ * @date 2026/10/18 9:12 AM
+ */
+public final class SqlFingerprint {
+
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    /**
+     * Token markers are outside of the char range, so they never collide with a hashed char.
+     */
+    private static final int SPACE = 0x10001;
+    private static final int NEW_LINE = 0x10002;
+    private static final int RAW = 0x10003;
+
+    private static final int PLACEHOLDER = 0x10011;
+    private static final int NUMBER = 0x10012;
+    private static final int STRING = 0x10013;
+
+    private static final int LIST_NONE = 0;
+    private static final int LIST_OPEN = 1;
+    private static final int LIST_VALUE = 2;
+    private static final int LIST_COMMA = 3;
+
+    private final long seed;
+
+    public SqlFingerprint() {
+        this(new SecureRandom().nextLong());
+    }
+
+    public SqlFingerprint(long seed) {
+        this.seed = seed;
+    }
+
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * Fingerprint the sql of the given statement
+     *
+     * @param dialect     The dialect the sql is checked for, the same sql may get another verdict in another dialect
+     * @param statementId The mapped statement id
+     * @param sql         The sql to fingerprint
+     * @return the 64-bit fingerprint
+     */
+    public long of(String dialect, String statementId, CharSequence sql) {
+        long hash = mix(mix(seed, dialect.hashCode()), statementId.hashCode());
+
+        int length = sql.length();
+        int pendingSpace = 0;
+        int listState = LIST_NONE;
+        int listPairs = 0;
+        int listSpace = 0;
+
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                int space = SPACE;
+                while (i < length && ((c = sql.charAt(i)) == ' ' || c == '\t' || c == '\n' || c == '\r')) {
+                    if (c == '\n' || c == '\r') {
+                        space = NEW_LINE;
+                    }
+                    i++;
+                }
+                if (listState == LIST_VALUE) {
+                    listSpace = Math.max(listSpace, space);
+                } else if (listState == LIST_NONE) {
+                    pendingSpace = Math.max(pendingSpace, space);
+                }
+                continue;
+            }
+
+            // scan the next token, a value token is a placeholder or a simple literal
+            int tokenEnd;
+            int valueKind = 0;
+            if (c == '?') {
+                valueKind = PLACEHOLDER;
+                tokenEnd = i + 1;
+            } else if (isDigit(c)) {
+                tokenEnd = scanNumber(sql, i, length);
+                if (tokenEnd > 0) {
+                    valueKind = NUMBER;
+                } else {
+                    tokenEnd = -tokenEnd;
+                }
+            } else if (c == '\'') {
+                if (i > 0 && isAttached(sql.charAt(i - 1))) {
+                    return finish(raw(hash, sql, i, length));
+                }
+                tokenEnd = scanString(sql, i, length);
+                if (tokenEnd < 0) {
+                    return finish(raw(hash, sql, i, length));
+                }
+                valueKind = STRING;
+            } else if (isWord(c)) {
+                tokenEnd = i + 1;
+                while (tokenEnd < length && isWord(sql.charAt(tokenEnd))) {
+                    tokenEnd++;
+                }
+            } else if (c == '"' || c == '`') {
+                tokenEnd = scanQuoted(sql, i, length, c);
+                if (tokenEnd < 0) {
+                    return finish(raw(hash, sql, i, length));
+                }
+            } else if (isPunctuation(c)) {
+                if (i + 1 < length && ((c == '-' && sql.charAt(i + 1) == '-') || (c == '/' && sql.charAt(i + 1) == '*'))) {
+                    return finish(raw(hash, sql, i, length));
+                }
+                tokenEnd = i + 1;
+            } else {
+                // comments, escapes, dialect specific quoting and non ascii characters are hashed as is
+                return finish(raw(hash, sql, i, length));
+            }
+
+            // collapse lists of placeholders, literals are never collapsed since the wall judges their values
+            if (listState == LIST_OPEN && valueKind == PLACEHOLDER) {
+                hash = mix(hash, valueKind);
+                listState = LIST_VALUE;
+                listPairs = 0;
+                listSpace = 0;
+                i = tokenEnd;
+                continue;
+            }
+            if (listState == LIST_VALUE) {
+                if (c == ',') {
+                    listState = LIST_COMMA;
+                    listSpace = 0;
+                    i = tokenEnd;
+                    continue;
+                }
+                if (c == ')') {
+                    hash = mix(hash, ')');
+                    listState = LIST_NONE;
+                    i = tokenEnd;
+                    continue;
+                }
+                hash = flushPairs(hash, listPairs);
+                pendingSpace = listSpace;
+                listState = LIST_NONE;
+            } else if (listState == LIST_COMMA) {
+                if (valueKind == PLACEHOLDER) {
+                    listPairs++;
+                    listState = LIST_VALUE;
+                    i = tokenEnd;
+                    continue;
+                }
+                hash = mix(flushPairs(hash, listPairs), ',');
+                listState = LIST_NONE;
+            } else if (listState == LIST_OPEN) {
+                listState = LIST_NONE;
+            }
+
+            if (pendingSpace != 0) {
+                hash = mix(hash, pendingSpace);
+                pendingSpace = 0;
+            }
+
+            if (valueKind != 0) {
+                hash = mix(hash, valueKind);
+                if (valueKind != PLACEHOLDER) {
+                    for (int j = i; j < tokenEnd; j++) {
+                        hash = mix(hash, sql.charAt(j));
+                    }
+                }
+            } else if (isWord(c)) {
+                for (int j = i; j < tokenEnd; j++) {
+                    hash = mix(hash, toLowerCase(sql.charAt(j)));
+                }
+            } else {
+                for (int j = i; j < tokenEnd; j++) {
+                    hash = mix(hash, sql.charAt(j));
+                }
+                if (c == '(') {
+                    listState = LIST_OPEN;
+                }
+            }
+            i = tokenEnd;
+        }
+
+        if (listState == LIST_VALUE) {
+            hash = flushPairs(hash, listPairs);
+        } else if (listState == LIST_COMMA) {
+            hash = mix(flushPairs(hash, listPairs), ',');
+        }
+        return finish(hash);
+    }
+
+    /**
+     * @return the end of the number, or the negated end if the number is not a simple literal
+     */
+    private static int scanNumber(CharSequence sql, int start, int length) {
+        int i = start;
+        while (i < length && isDigit(sql.charAt(i))) {
+            i++;
+        }
+        if (i + 1 < length && sql.charAt(i) == '.' && isDigit(sql.charAt(i + 1))) {
+            i++;
+            while (i < length && isDigit(sql.charAt(i))) {
+                i++;
+            }
+        }
+        if (i < length) {
+            char next = sql.charAt(i);
+            if (isWord(next) || next == '.' || next == '\'' || next == '"' || next == '`') {
+                return -i;
+            }
+        }
+        return i;
+    }
+
+    /**
+     * @return the end of a simple string literal, or -1 if the literal contains escapes or is not terminated
+     */
+    private static int scanString(CharSequence sql, int start, int length) {
+        for (int i = start + 1; i < length; i++) {
+            char c = sql.charAt(i);
+            if (c == '\\') {
+                return -1;
+            }
+            if (c == '\'') {
+                if (i + 1 < length && sql.charAt(i + 1) == '\'') {
+                    return -1;
+                }
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static int scanQuoted(CharSequence sql, int start, int length, char quote) {
+        for (int i = start + 1; i < length; i++) {
+            char c = sql.charAt(i);
+            if (c == '\\') {
+                return -1;
+            }
+            if (c == quote) {
+                return i + 1;
+            }
+        }
+        return -1;
+    }
+
+    private static long raw(long hash, CharSequence sql, int start, int length) {
+        hash = mix(hash, RAW);
+        for (int i = start; i < length; i++) {
+            hash = mix(hash, sql.charAt(i));
+        }
+        return hash;
+    }
+
+    private static long flushPairs(long hash, int pairs) {
+        for (int i = 0; i < pairs; i++) {
+            hash = mix(mix(hash, ','), PLACEHOLDER);
+        }
+        return hash;
+    }
+
+    private static long mix(long hash, int value) {
+        return (hash ^ value) * FNV_PRIME;
+    }
+
+    private static long finish(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWord(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || isDigit(c) || c == '_';
+    }
+
+    /**
+     * Quotes attached to a word or {@code &} are dialect specific literals, e.g. {@code N'..'}, {@code q'[..]'} or {@code U&'..'}
+     */
+    private static boolean isAttached(char c) {
+        return isWord(c) || c == '&';
+    }
+
+    private static boolean isPunctuation(char c) {
+        switch (c) {
+            case '(':
+            case ')':
+            case ',':
+            case '.':
+            case ';':
+            case '=':
+            case '<':
+            case '>':
+            case '!':
+            case '+':
+            case '-':
+            case '*':
+            case '/':
+            case '%':
+            case '|':
+            case '&':
+            case '^':
+            case '~':
+            case ':':
+            case '@':
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static char toLowerCase(char c) {
+        return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+    }
+}
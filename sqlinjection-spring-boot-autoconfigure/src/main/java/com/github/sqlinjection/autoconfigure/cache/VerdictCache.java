@@ -0,0 +1,101 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.cache;
+
+import java.util.function.Predicate;
+
+/**
+ * A bounded, lock-free set of sql fingerprints which already passed the druid wall.
+ * <p>
+ * The verdicts live in a 4-way {@link SetAssociativeTable}, lookups never lock and never allocate.
+ * Each verdict remembers the tables and functions its sql touched, so it can be invalidated selectively.
+ *
+ * @author sean chen
+ * @date 2026/10/18 9:48 AM
+ */
+public final class VerdictCache {
+
+    /**
+     * The names of a verdict whose objects are unknown, compared by identity
+     */
+    private static final String[] UNKNOWN_NAMES = new String[0];
+
+    private final SetAssociativeTable<String[]> table;
+
+    /**
+     * @param maximumSize The maximum number of fingerprints kept in the cache
+     */
+    public VerdictCache(int maximumSize) {
+        this.table = new SetAssociativeTable<>(maximumSize);
+    }
+
+    public boolean contains(long fingerprint) {
+        return table.get(fingerprint) != null;
+    }
+
+    /**
+     * Put a verdict whose objects are unknown, e.g. one restored from the {@link PersistentVerdictStore}, it is
+     * removed by every invalidation
+     *
+     * @param fingerprint The sql fingerprint
+     */
+    public void put(long fingerprint) {
+        put(fingerprint, UNKNOWN_NAMES);
+    }
+
+    /**
+     * @param fingerprint The sql fingerprint
+     * @param objectNames The normalized names of the tables and functions the sql touched
+     */
+    public void put(long fingerprint, String[] objectNames) {
+        table.put(fingerprint, objectNames);
+    }
+
+    /**
+     * Remove the verdict of a fingerprint
+     *
+     * @param fingerprint The sql fingerprint
+     */
+    public void remove(long fingerprint) {
+        table.remove(fingerprint);
+    }
+
+    /**
+     * Remove the verdicts whose sql touched objects matching the predicate, and those whose objects are unknown
+     *
+     * @param objectNames Tests the names of the tables and functions a sql touched
+     * @return the number of removed verdicts
+     */
+    public int invalidate(Predicate<String[]> objectNames) {
+        return table.removeIf(names -> names == UNKNOWN_NAMES || objectNames.test(names));
+    }
+
+    public void clear() {
+        table.clear();
+    }
+
+    public int capacity() {
+        return table.capacity();
+    }
+}
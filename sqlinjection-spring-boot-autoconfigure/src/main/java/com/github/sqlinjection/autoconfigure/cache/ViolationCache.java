@@ -0,0 +1,85 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.cache;
+
+import com.alibaba.druid.wall.Violation;
+import org.springframework.lang.Nullable;
+
+/**
+ * A bounded, lock-free map of the sql fingerprints which violated the druid wall to their first violation.
+ * <p>
+ * An attack replays the same sql over and over, its repeats are rejected by a lookup before any parsing. The
+ * fingerprints keep the literal values, so a benign sql which only differs from a violation in a constant, e.g.
+ * {@code 1 = 2} instead of {@code 1 = 1}, is still checked by the wall.
+ * The violations live in a 4-way {@link SetAssociativeTable} like the verdicts of the {@link VerdictCache}, so a
+ * flood of distinct shapes only evicts the violations of its own sets. Lookups never lock and never allocate.
+ *
+ * @author sean chen
+ * @date 2026/10/18 8:40 PM
+ */
+public final class ViolationCache {
+
+    private final SetAssociativeTable<Violation> table;
+
+    /**
+     * @param maximumSize The maximum number of fingerprints kept in the cache
+     */
+    public ViolationCache(int maximumSize) {
+        this.table = new SetAssociativeTable<>(maximumSize);
+    }
+
+    /**
+     * @param fingerprint The sql fingerprint
+     * @return the first violation of the sql, or {@code null} if it is unknown
+     */
+    @Nullable
+    public Violation get(long fingerprint) {
+        return table.get(fingerprint);
+    }
+
+    /**
+     * @param fingerprint The sql fingerprint
+     * @param violation   The first violation of the sql
+     */
+    public void put(long fingerprint, Violation violation) {
+        table.put(fingerprint, violation);
+    }
+
+    /**
+     * Remove the violation of a fingerprint
+     *
+     * @param fingerprint The sql fingerprint
+     */
+    public void remove(long fingerprint) {
+        table.remove(fingerprint);
+    }
+
+    public void clear() {
+        table.clear();
+    }
+
+    public int capacity() {
+        return table.capacity();
+    }
+}
@@ -26,11 +26,16 @@ package com.github.sqlinjection.autoconfigure.druid.enhancement;
 import com.alibaba.druid.DbType;
 import com.alibaba.druid.filter.Filter;
 import com.alibaba.druid.pool.DruidDataSource;
+import com.alibaba.druid.proxy.jdbc.DataSourceProxy;
 import com.alibaba.druid.sql.dialect.clickhouse.parser.ClickhouseSelectParser;
 import com.alibaba.druid.wall.WallConfig;
 import com.alibaba.druid.wall.WallFilter;
 import com.github.sqlinjection.autoconfigure.druid.DruidWallFilterProperties;
-import com.github.sqlinjection.autoconfigure.utils.JsonUtils;
+import com.github.sqlinjection.autoconfigure.utils.DbTypeUtils;
+import com.github.sqlinjection.autoconfigure.wall.WallProviderFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanUtils;
 import org.springframework.beans.BeansException;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.boot.autoconfigure.AutoConfigureAfter;
@@ -40,14 +45,14 @@ import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.lang.Nullable;
 
-import java.lang.reflect.Field;
-import java.util.Collections;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 import static com.github.sqlinjection.autoconfigure.druid.DruidWallFilterProperties.DRUID_FILTER_WALL_PREFIX;
-import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication.Type.SERVLET;
 
 /**
  * @author sean chen
@@ -59,7 +64,6 @@ import static org.springframework.boot.autoconfigure.condition.ConditionalOnWebA
 @ConditionalOnBean(DruidDataSource.class)
 @ConditionalOnClass({DbType.class, ClickhouseSelectParser.class})
 @AutoConfigureAfter(DataSourceAutoConfiguration.class)
-@ConditionalOnWebApplication(type = SERVLET)
 @EnableConfigurationProperties(DruidWallFilterProperties.class)
 public class DruidWallFilterAutoConfiguration {
 
@@ -88,13 +92,32 @@ public class DruidWallFilterAutoConfiguration {
     }
 
 
+    /**
+     * Appends a wall filter to every druid data source without one. The wall config is built once per dialect,
+     * from the defaults of the dialect and the configured wall config, and all data sources of a dialect share
+     * one wall filter, so its wall provider and sql cache are built once. The provider is named after the first
+     * data source. Every data source inits its filters on its own init, so the shared filter ignores the inits
+     * after the first one, which would rebuild the provider under the data sources already using it.
+     */
     public static class DruidWallFilterPostProcessor implements BeanPostProcessor {
 
+        private static final Logger LOGGER = LoggerFactory.getLogger(DruidWallFilterPostProcessor.class);
+
+        /**
+         * The dir of the dialect and the init state are not taken from the configured wall config
+         */
+        private static final String[] IGNORED_PROPERTIES = {"dir", "inited"};
+
         private final DruidWallFilterProperties properties;
         private final WallFilter wallFilter;
 
         private final WallConfig wallConfig;
 
+        /**
+         * db type -> the wall filter shared by the data sources of the dialect
+         */
+        private final Map<DbType, WallFilter> wallFilters = new ConcurrentHashMap<>();
+
         public DruidWallFilterPostProcessor(DruidWallFilterProperties properties,
                                             WallFilter wallFilter,
                                             WallConfig wallConfig) {
@@ -107,61 +130,79 @@ public class DruidWallFilterAutoConfiguration {
         public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
             if (bean instanceof DruidDataSource) {
                 DruidDataSource dataSource = (DruidDataSource) bean;
+                long start = System.nanoTime();
                 try {
                     List<Filter> proxyFilters = dataSource.getProxyFilters();
                     boolean exists = proxyFilters.stream().anyMatch(filter -> filter instanceof WallFilter);
                     if (!exists) {
-                        WallFilter tempWallFilter = new WallFilter();
-                        boolean enableWarningOnly = properties.isEnableWarningOnly();
-                        if (enableWarningOnly) {
-                            tempWallFilter.setLogViolation(true);
-                            tempWallFilter.setThrowException(false);
-                        } else {
-                            tempWallFilter.setLogViolation(wallFilter.isLogViolation());
-                            tempWallFilter.setThrowException(wallFilter.isThrowException());
+                        DbType dbType = getDbType(dataSource);
+                        if (dbType == null) {
+                            LOGGER.warn("The db type of the druid data source {} is unknown, no wall filter is added.", beanName);
+                            return bean;
                         }
-
-                        tempWallFilter.init(dataSource);
-                        WallConfig originalWallConfig = tempWallFilter.getConfig();
-                        WallConfig targetWallConfig = deepCopyWallConfig(originalWallConfig, wallConfig);
-                        tempWallFilter.setConfig(targetWallConfig);
-                        //init again
-                        tempWallFilter.init(dataSource);
-                        dataSource.setProxyFilters(Collections.singletonList(tempWallFilter));
+                        WallFilter sharedWallFilter = wallFilters.computeIfAbsent(dbType, key -> createWallFilter(key, dataSource));
+                        // appended, so the stat filter and the other filters of the data source stay in place
+                        proxyFilters.add(sharedWallFilter);
+                        LOGGER.info("Added the wall filter of {} to the druid data source {} in {} ms.",
+                                dbType, beanName, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
                     }
                 } catch (Throwable throwable) {
-                    //ignored
+                    LOGGER.warn("Add the wall filter to the druid data source {} error.", beanName, throwable);
                 }
             }
             return bean;
         }
 
-        private WallConfig deepCopyWallConfig(WallConfig originalWallConfig, WallConfig wallConfig) throws NoSuchFieldException, IllegalAccessException {
-            Class<? extends WallConfig> aClass = wallConfig.getClass();
-            //deny
-            getFunctionsProperty(wallConfig, aClass, "denyFunctions", originalWallConfig.getDenyFunctions());
-            getFunctionsProperty(wallConfig, aClass, "denyTables", originalWallConfig.getDenyTables());
-            getFunctionsProperty(wallConfig, aClass, "denySchemas", originalWallConfig.getDenySchemas());
-            getFunctionsProperty(wallConfig, aClass, "denyVariants", originalWallConfig.getDenyVariants());
-            getFunctionsProperty(wallConfig, aClass, "denyObjects", originalWallConfig.getDenyObjects());
-            //permit
-            getFunctionsProperty(wallConfig, aClass, "permitFunctions", originalWallConfig.getPermitFunctions());
-            getFunctionsProperty(wallConfig, aClass, "permitTables", originalWallConfig.getPermitTables());
-            getFunctionsProperty(wallConfig, aClass, "permitSchemas", originalWallConfig.getPermitSchemas());
-            getFunctionsProperty(wallConfig, aClass, "permitVariants", originalWallConfig.getPermitVariants());
-            getFunctionsProperty(wallConfig, aClass, "readOnlyTables", originalWallConfig.getReadOnlyTables());
-
-            wallConfig.setDir(originalWallConfig.getDir());
-            wallConfig.setInited(originalWallConfig.isInited());
-
-            return JsonUtils.readValue(wallConfig, WallConfig.class);
+        @Nullable
+        private DbType getDbType(DruidDataSource dataSource) {
+            String dbType = dataSource.getDbType();
+            return dbType != null ? DbType.of(dbType) : DbTypeUtils.getDbType(dataSource.getRawJdbcUrl());
+        }
+
+        private WallFilter createWallFilter(DbType dbType, DruidDataSource dataSource) {
+            WallFilter sharedWallFilter = new SharedWallFilter();
+            if (properties.isEnableWarningOnly()) {
+                sharedWallFilter.setLogViolation(true);
+                sharedWallFilter.setThrowException(false);
+            } else {
+                sharedWallFilter.setLogViolation(wallFilter.isLogViolation());
+                sharedWallFilter.setThrowException(wallFilter.isThrowException());
+            }
+            sharedWallFilter.setDbType(dbType);
+            sharedWallFilter.setConfig(createWallConfig(dbType));
+            sharedWallFilter.init(dataSource);
+            return sharedWallFilter;
         }
 
-        private void getFunctionsProperty(WallConfig wallConfig, Class<? extends WallConfig> aClass, String fieldName, Set<String> values)
-                throws NoSuchFieldException, IllegalAccessException {
-            Field declaredField = aClass.getDeclaredField(fieldName);
-            declaredField.setAccessible(true);
-            declaredField.set(wallConfig, values);
+        private WallConfig createWallConfig(DbType dbType) {
+            // loads the permit and deny lists of the dialect
+            WallConfig config = new WallConfig(WallProviderFactory.getDefaultConfigDir(dbType));
+            BeanUtils.copyProperties(wallConfig, config, IGNORED_PROPERTIES);
+
+            config.getDenyFunctions().addAll(wallConfig.getDenyFunctions());
+            config.getDenyTables().addAll(wallConfig.getDenyTables());
+            config.getDenySchemas().addAll(wallConfig.getDenySchemas());
+            config.getDenyVariants().addAll(wallConfig.getDenyVariants());
+            config.getDenyObjects().addAll(wallConfig.getDenyObjects());
+            config.getPermitFunctions().addAll(wallConfig.getPermitFunctions());
+            config.getPermitTables().addAll(wallConfig.getPermitTables());
+            config.getPermitSchemas().addAll(wallConfig.getPermitSchemas());
+            config.getPermitVariants().addAll(wallConfig.getPermitVariants());
+            config.getReadOnlyTables().addAll(wallConfig.getReadOnlyTables());
+            return config;
+        }
+    }
+
+    /**
+     * A wall filter shared by the data sources of a dialect, it is initialized once
+     */
+    private static class SharedWallFilter extends WallFilter {
+
+        @Override
+        public synchronized void init(DataSourceProxy dataSource) {
+            if (!isInited()) {
+                super.init(dataSource);
+            }
         }
     }
 
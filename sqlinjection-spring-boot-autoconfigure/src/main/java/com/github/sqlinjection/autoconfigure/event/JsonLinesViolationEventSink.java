@@ -0,0 +1,115 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.event;
+
+import com.github.sqlinjection.autoconfigure.utils.JsonUtils;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Appends the violation events to a file, one json object per line.
+ * <p>
+ * When the file reaches the maximum size it is renamed to {@code file.1}, the older files are shifted to
+ * {@code file.2} ... {@code file.<maxHistory>} and the oldest one is deleted, then a new file is started.
+ * The events are buffered and flushed whenever the event buffer is drained.
+ *
+ * @author sean chen
+ * @date 2026/10/19 12:25 AM
+ */
+public class JsonLinesViolationEventSink implements ViolationEventSink {
+
+    private final Path file;
+    private final long maxFileSize;
+    private final int maxHistory;
+
+    private Writer writer;
+    private long size;
+
+    /**
+     * @param file        The file, it is appended to if it exists
+     * @param maxFileSize The size the file is rotated at
+     * @param maxHistory  The number of rotated files kept
+     * @throws IOException if the file can not be opened
+     */
+    public JsonLinesViolationEventSink(Path file, long maxFileSize, int maxHistory) throws IOException {
+        this.file = file.toAbsolutePath();
+        this.maxFileSize = Math.max(1L, maxFileSize);
+        this.maxHistory = Math.max(0, maxHistory);
+        Files.createDirectories(this.file.getParent());
+        open();
+    }
+
+    @Override
+    public void accept(SqlInjectionViolationEvent event) throws IOException {
+        if (size >= maxFileSize) {
+            rotate();
+        }
+        String line = JsonUtils.writeValueAsString(event) + '\n';
+        writer.write(line);
+        // counted in chars, so a file with non ascii statement ids or messages is rotated a bit later
+        size += line.length();
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        writer.close();
+    }
+
+    private void open() throws IOException {
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        size = Files.size(file);
+    }
+
+    private void rotate() throws IOException {
+        writer.close();
+        if (maxHistory == 0) {
+            Files.delete(file);
+        } else {
+            Files.deleteIfExists(rotated(maxHistory));
+            for (int i = maxHistory - 1; i >= 1; i--) {
+                Path rotated = rotated(i);
+                if (Files.exists(rotated)) {
+                    Files.move(rotated, rotated(i + 1), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+            Files.move(file, rotated(1), StandardCopyOption.REPLACE_EXISTING);
+        }
+        open();
+    }
+
+    private Path rotated(int index) {
+        return file.resolveSibling(file.getFileName() + "." + index);
+    }
+}
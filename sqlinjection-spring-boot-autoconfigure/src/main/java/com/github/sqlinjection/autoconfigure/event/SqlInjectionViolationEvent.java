@@ -0,0 +1,110 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.event;
+
+import com.alibaba.druid.DbType;
+
+/**
+ * A sql which violated the druid wall, as delivered to the {@link ViolationEventSink}s.
+ * <p>
+ * It holds no sql, only its fingerprint, so the events can be kept and shipped without leaking the parameters
+ * substituted into the sql.
+ *
+ * @author sean chen
+ * @date 2026/10/19 12:10 AM
+ */
+public final class SqlInjectionViolationEvent {
+
+    private final long timestamp;
+    private final DbType dbType;
+    private final String statementId;
+    private final int violationCode;
+    private final String message;
+    private final String fingerprint;
+    private final boolean blocked;
+
+    public SqlInjectionViolationEvent(long timestamp, DbType dbType, String statementId, int violationCode,
+                                      String message, String fingerprint, boolean blocked) {
+        this.timestamp = timestamp;
+        this.dbType = dbType;
+        this.statementId = statementId;
+        this.violationCode = violationCode;
+        this.message = message;
+        this.fingerprint = fingerprint;
+        this.blocked = blocked;
+    }
+
+    /**
+     * @return the time of the violation, in milliseconds since the epoch
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    public DbType getDbType() {
+        return dbType;
+    }
+
+    public String getStatementId() {
+        return statementId;
+    }
+
+    /**
+     * @return the error code of the first violation, see {@link com.alibaba.druid.wall.violation.ErrorCode}
+     */
+    public int getViolationCode() {
+        return violationCode;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * @return the fingerprint of the sql in hex, the same for sql of the same shape across restarts and instances
+     */
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    /**
+     * @return whether the sql was rejected, or only reported in the warning only mode
+     */
+    public boolean isBlocked() {
+        return blocked;
+    }
+
+    @Override
+    public String toString() {
+        return "SqlInjectionViolationEvent{" +
+                "timestamp=" + timestamp +
+                ", dbType=" + dbType +
+                ", statementId='" + statementId + '\'' +
+                ", violationCode=" + violationCode +
+                ", message='" + message + '\'' +
+                ", fingerprint='" + fingerprint + '\'' +
+                ", blocked=" + blocked +
+                '}';
+    }
+}
@@ -0,0 +1,253 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.event;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.wall.Violation;
+import com.github.sqlinjection.autoconfigure.cache.SqlFingerprint;
+import com.github.sqlinjection.autoconfigure.metrics.SqlInjectionMetrics;
+import com.github.sqlinjection.autoconfigure.properties.SqlInjectionProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers the violations to the {@link ViolationEventSink}s off the request thread.
+ * <p>
+ * The request thread claims a slot of a bounded ring buffer by a compare-and-set and stores the violation, it
+ * never locks, never blocks and does no I/O. When the buffer is full the violation is dropped and counted, so a
+ * burst of violations can not stall the requests. A single daemon thread drains the buffer, builds the events,
+ * fingerprints their sql and calls the sinks, then flushes them once the buffer is empty.
+ *
+ * @author sean chen
+ * @date 2026/10/19 12:35 AM
+ */
+public class ViolationEventPublisher implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ViolationEventPublisher.class);
+
+    private static final AtomicInteger PUBLISHER_NUMBER = new AtomicInteger();
+
+    /**
+     * How long the drainer parks when the buffer is empty, in case a wake up is missed
+     */
+    private static final long PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+
+    /**
+     * A fixed seed, so the fingerprint of a sql is the same across restarts and instances
+     */
+    private static final SqlFingerprint FINGERPRINT = new SqlFingerprint(0L);
+
+    private final AtomicReferenceArray<Pending> slots;
+    private final int mask;
+    /**
+     * The next slot to claim, advanced by the request threads
+     */
+    private final AtomicLong tail = new AtomicLong();
+    /**
+     * The next slot to drain, only advanced by the drainer
+     */
+    private volatile long head;
+
+    private final List<Sink> sinks = new ArrayList<>();
+    private final SqlInjectionMetrics metrics;
+    private final Thread drainer;
+
+    private volatile boolean waiting;
+    private volatile boolean closed;
+
+    public ViolationEventPublisher(SqlInjectionProperties.Events events, List<? extends ViolationEventSink> sinks,
+                                   SqlInjectionMetrics metrics) {
+        int capacity = Integer.highestOneBit(Math.max(2, Math.min(events.getBufferSize(), 1 << 30)) * 2 - 1);
+        this.slots = new AtomicReferenceArray<>(capacity);
+        this.mask = capacity - 1;
+        for (ViolationEventSink sink : sinks) {
+            this.sinks.add(new Sink(sink));
+        }
+        this.metrics = metrics;
+        this.drainer = new Thread(this::drain, "sql-injection-events-" + PUBLISHER_NUMBER.incrementAndGet());
+        this.drainer.setDaemon(true);
+        this.drainer.start();
+    }
+
+    /**
+     * Publish a violation, never blocks
+     *
+     * @param dbType      The db type
+     * @param statementId The mapped statement id
+     * @param violation   The first violation of the sql
+     * @param sql         The violating sql, it is only fingerprinted
+     * @param blocked     Whether the sql is rejected
+     * @return whether the violation was published, or dropped because the buffer is full or the publisher is closed
+     */
+    public boolean publish(DbType dbType, String statementId, Violation violation, String sql, boolean blocked) {
+        if (closed) {
+            return false;
+        }
+        long claimed;
+        do {
+            claimed = tail.get();
+            if (claimed - head >= slots.length()) {
+                metrics.recordEventDropped();
+                return false;
+            }
+        } while (!tail.compareAndSet(claimed, claimed + 1));
+
+        slots.lazySet((int) claimed & mask, new Pending(System.currentTimeMillis(), dbType, statementId, violation, sql, blocked));
+        if (waiting) {
+            LockSupport.unpark(drainer);
+        }
+        return true;
+    }
+
+    /**
+     * Deliver the events still buffered, then stop the drainer and close the sinks
+     */
+    @Override
+    public void close() {
+        closed = true;
+        LockSupport.unpark(drainer);
+        try {
+            drainer.join(TimeUnit.SECONDS.toMillis(10));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void drain() {
+        while (true) {
+            long next = head;
+            int index = (int) next & mask;
+            Pending pending = slots.get(index);
+            if (pending != null) {
+                slots.lazySet(index, null);
+                head = next + 1;
+                deliver(pending);
+                continue;
+            }
+            if (tail.get() != next) {
+                // the slot is claimed, the violation is being stored
+                Thread.yield();
+                continue;
+            }
+
+            for (Sink sink : sinks) {
+                sink.flush();
+            }
+            if (closed) {
+                break;
+            }
+            waiting = true;
+            if (tail.get() == head && !closed) {
+                LockSupport.parkNanos(this, PARK_NANOS);
+            }
+            waiting = false;
+        }
+
+        for (Sink sink : sinks) {
+            sink.close();
+        }
+    }
+
+    private void deliver(Pending pending) {
+        long fingerprint = FINGERPRINT.of(pending.dbType.name(), pending.statementId, pending.sql);
+        SqlInjectionViolationEvent event = new SqlInjectionViolationEvent(pending.timestamp, pending.dbType,
+                pending.statementId, pending.violation.getErrorCode(), pending.violation.getMessage(),
+                String.format("%016x", fingerprint), pending.blocked);
+        for (Sink sink : sinks) {
+            sink.accept(event);
+        }
+    }
+
+    private static final class Pending {
+
+        private final long timestamp;
+        private final DbType dbType;
+        private final String statementId;
+        private final Violation violation;
+        private final String sql;
+        private final boolean blocked;
+
+        private Pending(long timestamp, DbType dbType, String statementId, Violation violation, String sql, boolean blocked) {
+            this.timestamp = timestamp;
+            this.dbType = dbType;
+            this.statementId = statementId;
+            this.violation = violation;
+            this.sql = sql;
+            this.blocked = blocked;
+        }
+    }
+
+    /**
+     * A sink which logs its first failure, and logs again only after it recovered
+     */
+    private static final class Sink {
+
+        private final ViolationEventSink sink;
+        private boolean failing;
+
+        private Sink(ViolationEventSink sink) {
+            this.sink = sink;
+        }
+
+        private void accept(SqlInjectionViolationEvent event) {
+            try {
+                sink.accept(event);
+                failing = false;
+            } catch (Throwable throwable) {
+                failed("Deliver the violation event to the sink {} error.", throwable);
+            }
+        }
+
+        private void flush() {
+            try {
+                sink.flush();
+            } catch (Throwable throwable) {
+                failed("Flush the violation event sink {} error.", throwable);
+            }
+        }
+
+        private void close() {
+            try {
+                sink.close();
+            } catch (Throwable throwable) {
+                LOGGER.warn("Close the violation event sink {} error.", sink, throwable);
+            }
+        }
+
+        private void failed(String message, Throwable throwable) {
+            if (!failing) {
+                failing = true;
+                LOGGER.warn(message, sink, throwable);
+            }
+        }
+    }
+}
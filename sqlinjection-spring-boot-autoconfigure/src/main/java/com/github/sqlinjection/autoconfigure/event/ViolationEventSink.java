@@ -0,0 +1,62 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.event;
+
+/**
+ * Receives the violation events, e.g. to write an audit trail or to alert.
+ * <p>
+ * The sinks are called on the single thread draining the event buffer, so they need not be thread safe and may
+ * block without slowing down the requests, a slow sink only lets the buffer fill up. Besides the spring beans,
+ * sinks with a public no-arg constructor listed in
+ * {@code META-INF/services/com.github.sqlinjection.autoconfigure.event.ViolationEventSink} are loaded.
+ *
+ * @author sean chen
+ * @date 2026/10/19 12:15 AM
+ */
+public interface ViolationEventSink {
+
+    /**
+     * Receive an event
+     *
+     * @param event The event
+     * @throws Exception if the event can not be delivered, it is logged and the next events are still delivered
+     */
+    void accept(SqlInjectionViolationEvent event) throws Exception;
+
+    /**
+     * Called when the buffer is drained, so a sink can flush the events it buffered
+     *
+     * @throws Exception if the events can not be flushed
+     */
+    default void flush() throws Exception {
+    }
+
+    /**
+     * Called once when the publisher is closed, after the last event
+     *
+     * @throws Exception if the sink can not be closed
+     */
+    default void close() throws Exception {
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.manifest;
+
+import com.alibaba.druid.DbType;
+import com.github.sqlinjection.autoconfigure.utils.DigestUtils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The statements validated at build time by the sqlinjection-maven-plugin.
+ * <p>
+ * The manifest records the dialect and the digest of the wall config it was validated with, and the sha-256
+ * of the sql of every statement which passed. It is a plain text file:
+ * <pre>
+ * # sql injection plugin trusted statements
+ * version=1
+ * dbType=mysql
+ * configDigest=&lt;digest&gt;
+ * &lt;sql digest&gt; &lt;statement id&gt;
+ * ...
+ * </pre>
+ *
+ * @author sean chen
+ * @date 2026/10/18 10:00 PM
+ */
+public final class TrustedStatementManifest {
+
+    /**
+     * The classpath location of the manifest
+     */
+    public static final String LOCATION = "META-INF/sqlinjection/trusted-statements.manifest";
+
+    private static final String HEADER = "# sql injection plugin trusted statements";
+    private static final String VERSION = "version=1";
+    private static final String DB_TYPE = "dbType=";
+    private static final String CONFIG_DIGEST = "configDigest=";
+
+    private final DbType dbType;
+    private final String configDigest;
+    private final Map<String, String> statements;
+
+    /**
+     * @param dbType       The dialect the statements were validated for
+     * @param configDigest The digest of the wall config, see {@link com.github.sqlinjection.autoconfigure.wall.WallConfigDigest}
+     * @param statements   The statement ids and the digests of their sql, see {@link #digest(String)}
+     */
+    public TrustedStatementManifest(DbType dbType, String configDigest, Map<String, String> statements) {
+        this.dbType = dbType;
+        this.configDigest = configDigest;
+        this.statements = Collections.unmodifiableMap(new TreeMap<>(statements));
+    }
+
+    public static String digest(String sql) {
+        return DigestUtils.sha256(sql);
+    }
+
+    public static TrustedStatementManifest read(InputStream in) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        DbType dbType = null;
+        String configDigest = null;
+        boolean versioned = false;
+        Map<String, String> statements = new TreeMap<>();
+
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty() || line.startsWith("#")) {
+                continue;
+            }
+            if (line.equals(VERSION)) {
+                versioned = true;
+            } else if (line.startsWith(DB_TYPE)) {
+                dbType = DbType.of(line.substring(DB_TYPE.length()));
+            } else if (line.startsWith(CONFIG_DIGEST)) {
+                configDigest = line.substring(CONFIG_DIGEST.length());
+            } else {
+                int separator = line.indexOf(' ');
+                if (separator <= 0) {
+                    throw new IOException("Malformed trusted statement: " + line);
+                }
+                statements.put(line.substring(separator + 1), line.substring(0, separator));
+            }
+        }
+
+        if (!versioned || dbType == null || configDigest == null) {
+            throw new IOException("Unsupported trusted statement manifest, the version, dbType or configDigest is missing.");
+        }
+        return new TrustedStatementManifest(dbType, configDigest, statements);
+    }
+
+    public void write(OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        writer.write(HEADER + '\n');
+        writer.write(VERSION + '\n');
+        writer.write(DB_TYPE + dbType.name() + '\n');
+        writer.write(CONFIG_DIGEST + configDigest + '\n');
+        for (Map.Entry<String, String> statement : statements.entrySet()) {
+            writer.write(statement.getValue() + ' ' + statement.getKey() + '\n');
+        }
+        writer.flush();
+    }
+
+    /**
+     * Whether the statement was validated at build time with exactly the given sql
+     *
+     * @param statementId The statement id
+     * @param sql         The sql of the statement at runtime
+     * @return true if it is trusted
+     */
+    public boolean isTrusted(String statementId, String sql) {
+        String digest = statements.get(statementId);
+        return digest != null && digest.equals(digest(sql));
+    }
+
+    public DbType getDbType() {
+        return dbType;
+    }
+
+    public String getConfigDigest() {
+        return configDigest;
+    }
+
+    public Map<String, String> getStatements() {
+        return statements;
+    }
+}
@@ -0,0 +1,235 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.metrics;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.wall.Violation;
+import com.alibaba.druid.wall.WallProvider;
+import io.micrometer.core.instrument.*;
+
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToLongFunction;
+
+/**
+ * Micrometer instrumentation of the check pipeline.
+ * <p>
+ * Meters are looked up once and cached, so recording on the request thread does not allocate.
+ *
+ * @author sean chen
+ * @date 2026/10/18 5:25 PM
+ */
+public class MicrometerSqlInjectionMetrics implements SqlInjectionMetrics {
+
+    public static final String METRIC_PREFIX = "mybatis.sqlinjection";
+
+    private static final String TAG_DB_TYPE = "dbType";
+    private static final String TAG_STATEMENT = "statement";
+
+    private final MeterRegistry registry;
+    private final boolean percentileHistogram;
+    private final StatementCheckStatistics statistics = new StatementCheckStatistics();
+
+    private final Map<DbType, Map<String, Timer>> checkTimers = new ConcurrentHashMap<>();
+    private final Map<DbType, Map<Integer, Counter>> violationCounters = new ConcurrentHashMap<>();
+    private final Map<SkipReason, Counter> skippedCounters = new EnumMap<>(SkipReason.class);
+    private final Counter shadowDroppedCounter;
+    private final Counter eventDroppedCounter;
+    private final Map<DbType, ProviderCounts> providerCounts = new ConcurrentHashMap<>();
+
+    public MicrometerSqlInjectionMetrics(MeterRegistry registry, boolean percentileHistogram) {
+        this.registry = registry;
+        this.percentileHistogram = percentileHistogram;
+        for (SkipReason reason : SkipReason.values()) {
+            skippedCounters.put(reason, Counter.builder(METRIC_PREFIX + ".skipped")
+                    .description("The statements not checked by the druid wall")
+                    .tag("reason", reason.name().toLowerCase())
+                    .register(registry));
+        }
+        this.shadowDroppedCounter = Counter.builder(METRIC_PREFIX + ".shadow.dropped")
+                .description("The sql not checked because the shadow check queue was full")
+                .register(registry);
+        this.eventDroppedCounter = Counter.builder(METRIC_PREFIX + ".events.dropped")
+                .description("The violation events not published because the event buffer was full")
+                .register(registry);
+    }
+
+    @Override
+    public void recordCheck(DbType dbType, String statementId, long nanos) {
+        Map<String, Timer> timers = checkTimers.computeIfAbsent(dbType, key -> new ConcurrentHashMap<>());
+        Timer timer = timers.get(statementId);
+        if (timer == null) {
+            timer = timers.computeIfAbsent(statementId, key -> Timer.builder(METRIC_PREFIX + ".check")
+                    .description("The time the druid wall takes to check a sql")
+                    .tag(TAG_DB_TYPE, dbType.name())
+                    .tag(TAG_STATEMENT, statementId)
+                    .publishPercentileHistogram(percentileHistogram)
+                    .register(registry));
+        }
+        timer.record(nanos, TimeUnit.NANOSECONDS);
+        statistics.record(statementId, nanos);
+    }
+
+    @Override
+    public void recordViolation(DbType dbType, Violation violation) {
+        violationCounters.computeIfAbsent(dbType, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(violation.getErrorCode(), code -> Counter.builder(METRIC_PREFIX + ".violations")
+                        .description("The sql rejected by the druid wall")
+                        .tag(TAG_DB_TYPE, dbType.name())
+                        .tag("code", String.valueOf(code))
+                        .tag("type", violation.getClass().getSimpleName())
+                        .register(registry))
+                .increment();
+    }
+
+    @Override
+    public void recordSkipped(SkipReason reason) {
+        skippedCounters.get(reason).increment();
+    }
+
+    @Override
+    public void bindWallProvider(DbType dbType, WallProvider provider) {
+        ProviderCounts counts = providerCounts.get(dbType);
+        if (counts == null) {
+            ProviderCounts created = new ProviderCounts();
+            counts = providerCounts.putIfAbsent(dbType, created);
+            if (counts == null) {
+                counts = created;
+                for (ProviderStatistic statistic : ProviderStatistic.values()) {
+                    FunctionCounter.builder(METRIC_PREFIX + ".provider." + statistic.name, counts, value -> value.count(statistic))
+                            .description(statistic.description)
+                            .tag(TAG_DB_TYPE, dbType.name())
+                            .register(registry);
+                }
+            }
+        }
+        counts.bind(provider);
+    }
+
+    @Override
+    public void unbindWallProvider(DbType dbType, WallProvider provider) {
+        ProviderCounts counts = providerCounts.get(dbType);
+        if (counts != null) {
+            counts.unbind(provider);
+        }
+    }
+
+    @Override
+    public void bindShadowQueue(String name, Collection<?> queue, int capacity) {
+        Gauge.builder(METRIC_PREFIX + ".shadow.queue.depth", queue, Collection::size)
+                .description("The sql waiting for the shadow check")
+                .tag("executor", name)
+                .register(registry);
+        Gauge.builder(METRIC_PREFIX + ".shadow.queue.capacity", () -> capacity)
+                .description("The capacity of the shadow check queue")
+                .tag("executor", name)
+                .register(registry);
+    }
+
+    @Override
+    public void recordShadowDropped() {
+        shadowDroppedCounter.increment();
+    }
+
+    @Override
+    public void recordEventDropped() {
+        eventDroppedCounter.increment();
+    }
+
+    public StatementCheckStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * The statistics of a druid wall provider which are published as counters
+     */
+    private enum ProviderStatistic {
+
+        CHECK("check", "The sql checked by the druid wall provider", WallProvider::getCheckCount),
+        HARD_CHECK("hard.check", "The sql parsed by the druid wall provider", WallProvider::getHardCheckCount),
+        WHITE_LIST_HIT("white.list.hit", "The white list hits of the druid wall provider", WallProvider::getWhiteListHitCount),
+        BLACK_LIST_HIT("black.list.hit", "The black list hits of the druid wall provider", WallProvider::getBlackListHitCount),
+        SYNTAX_ERROR("syntax.error", "The syntax errors of the druid wall provider", WallProvider::getSyntaxErrorCount),
+        VIOLATION("violation", "The violations of the druid wall provider", WallProvider::getViolationCount);
+
+        private final String name;
+        private final String description;
+        private final ToLongFunction<WallProvider> count;
+
+        ProviderStatistic(String name, String description, ToLongFunction<WallProvider> count) {
+            this.name = name;
+            this.description = description;
+            this.count = count;
+        }
+    }
+
+    /**
+     * The statistics of all live wall providers of a db type plus those of the providers they replaced.
+     * <p>
+     * Several interceptors may bind providers of the same db type, and a shared provider may be bound by
+     * several of them, so the providers are counted by their bindings and retired at the last unbind. They
+     * are weakly held, a provider dropped without an unbind does not leak
+     */
+    private static final class ProviderCounts {
+
+        private final long[] retired = new long[ProviderStatistic.values().length];
+
+        /**
+         * live provider -> the number of its bindings
+         */
+        private final Map<WallProvider, Integer> providers = new WeakHashMap<>();
+
+        private synchronized void bind(WallProvider provider) {
+            providers.merge(provider, 1, Integer::sum);
+        }
+
+        private synchronized void unbind(WallProvider provider) {
+            Integer bindings = providers.get(provider);
+            if (bindings == null) {
+                return;
+            }
+            if (bindings > 1) {
+                providers.put(provider, bindings - 1);
+                return;
+            }
+            providers.remove(provider);
+            // a reloaded provider starts from zero, keep the counters monotonic
+            for (ProviderStatistic statistic : ProviderStatistic.values()) {
+                retired[statistic.ordinal()] += statistic.count.applyAsLong(provider);
+            }
+        }
+
+        private synchronized double count(ProviderStatistic statistic) {
+            long count = retired[statistic.ordinal()];
+            for (WallProvider provider : providers.keySet()) {
+                count += statistic.count.applyAsLong(provider);
+            }
+            return count;
+        }
+    }
+}
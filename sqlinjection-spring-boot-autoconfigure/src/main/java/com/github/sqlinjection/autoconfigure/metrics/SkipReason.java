@@ -0,0 +1,79 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.metrics;
+
+/**
+ * Why a statement was not checked by the druid wall.
+ *
+ * @author sean chen
+ * @date 2026/10/18 5:02 PM
+ */
+public enum SkipReason {
+
+    /**
+     * Stored procedures are not checked
+     */
+    CALLABLE,
+
+    /**
+     * The statement is in the ignored statements
+     */
+    IGNORED,
+
+    /**
+     * The static sql was validated at startup
+     */
+    TRUSTED,
+
+    /**
+     * The statement has no ${} substitution, so its sql can not be changed by the parameters, and the sql already
+     * passed the check
+     */
+    SUBSTITUTION_FREE,
+
+    /**
+     * The sql shape already passed the check
+     */
+    CACHED,
+
+    /**
+     * The sql already passed the check in the current batch of the executor
+     */
+    BATCHED,
+
+    /**
+     * The tokens of the sql passed the pre-scan, so it was not parsed
+     */
+    PRE_SCANNED,
+
+    /**
+     * The statement has a clean history and this execution was not sampled
+     */
+    SAMPLED,
+
+    /**
+     * The wall provider of the db type is not available
+     */
+    PROVIDER_NOT_READY
+}
@@ -0,0 +1,64 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.metrics;
+
+import com.github.sqlinjection.autoconfigure.metrics.StatementCheckStatistics.StatementCheckStat;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.lang.Nullable;
+
+import java.util.List;
+
+/**
+ * Lists the statements which are the most expensive to check, to decide which mappers to whitelist.
+ *
+ * @author sean chen
+ * @date 2026/10/18 5:48 PM
+ */
+@Endpoint(id = "sqlinjection")
+public class SqlInjectionEndpoint {
+
+    private static final int DEFAULT_LIMIT = 20;
+
+    private final StatementCheckStatistics statistics;
+
+    public SqlInjectionEndpoint(StatementCheckStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    /**
+     * @param limit The maximum number of statements listed, 20 if absent, a negative limit lists none
+     * @return the statements, the most expensive first
+     */
+    @ReadOperation
+    public List<StatementCheckStat> mostExpensiveStatements(@Nullable Integer limit) {
+        return statistics.getMostExpensive(limit == null ? DEFAULT_LIMIT : limit);
+    }
+
+    @DeleteOperation
+    public void reset() {
+        statistics.reset();
+    }
+}
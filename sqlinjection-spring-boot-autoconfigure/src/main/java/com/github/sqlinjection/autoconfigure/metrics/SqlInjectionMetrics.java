@@ -0,0 +1,109 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.metrics;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.wall.Violation;
+import com.alibaba.druid.wall.WallProvider;
+
+import java.util.Collection;
+
+/**
+ * Instrumentation of the check pipeline, all methods are called on the request thread and must not block.
+ *
+ * @author sean chen
+ * @date 2026/10/18 5:05 PM
+ */
+public interface SqlInjectionMetrics {
+
+    SqlInjectionMetrics NOOP = new SqlInjectionMetrics() {
+    };
+
+    /**
+     * A sql was checked by the druid wall
+     *
+     * @param dbType      The db type
+     * @param statementId The mapped statement id
+     * @param nanos       The time the check took
+     */
+    default void recordCheck(DbType dbType, String statementId, long nanos) {
+    }
+
+    /**
+     * A sql violated the druid wall
+     *
+     * @param dbType    The db type
+     * @param violation The first violation
+     */
+    default void recordViolation(DbType dbType, Violation violation) {
+    }
+
+    /**
+     * A statement was not checked
+     *
+     * @param reason Why it was skipped
+     */
+    default void recordSkipped(SkipReason reason) {
+    }
+
+    /**
+     * A wall provider was built, its statistics can be exposed
+     *
+     * @param dbType   The db type
+     * @param provider The wall provider
+     */
+    default void bindWallProvider(DbType dbType, WallProvider provider) {
+    }
+
+    /**
+     * A wall provider was replaced on reload, its statistics so far are kept
+     *
+     * @param dbType   The db type
+     * @param provider The replaced wall provider
+     */
+    default void unbindWallProvider(DbType dbType, WallProvider provider) {
+    }
+
+    /**
+     * The queue of the shadow check was created, its depth can be exposed
+     *
+     * @param name     The name of the executor
+     * @param queue    The queue
+     * @param capacity The capacity of the queue
+     */
+    default void bindShadowQueue(String name, Collection<?> queue, int capacity) {
+    }
+
+    /**
+     * A sql was not checked because the shadow check queue was full
+     */
+    default void recordShadowDropped() {
+    }
+
+    /**
+     * A violation event was not published because the event buffer was full
+     */
+    default void recordEventDropped() {
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.metrics;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Accumulates the check time per statement with striped adders, so recording is contention free.
+ *
+ * @author sean chen
+ * @date 2026/10/18 5:12 PM
+ */
+public class StatementCheckStatistics {
+
+    private final Map<String, Stat> stats = new ConcurrentHashMap<>();
+
+    public void record(String statementId, long nanos) {
+        Stat stat = stats.get(statementId);
+        if (stat == null) {
+            stat = stats.computeIfAbsent(statementId, key -> new Stat());
+        }
+        stat.count.increment();
+        stat.totalNanos.add(nanos);
+        stat.maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * Get the statements which cost the most check time in total
+     *
+     * @param limit The maximum number of statements, a negative limit lists none
+     * @return the statements, the most expensive first
+     */
+    public List<StatementCheckStat> getMostExpensive(int limit) {
+        if (limit <= 0) {
+            return new ArrayList<>();
+        }
+        List<StatementCheckStat> result = new ArrayList<>(stats.size());
+        stats.forEach((statementId, stat) -> result.add(new StatementCheckStat(statementId,
+                stat.count.sum(), stat.totalNanos.sum(), stat.maxNanos.get())));
+        result.sort(Comparator.comparingLong(StatementCheckStat::getTotalNanos).reversed());
+        return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    public void reset() {
+        stats.clear();
+    }
+
+    private static final class Stat {
+
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+    }
+
+    public static final class StatementCheckStat {
+
+        private final String statementId;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+
+        StatementCheckStat(String statementId, long count, long totalNanos, long maxNanos) {
+            this.statementId = statementId;
+            this.count = count;
+            this.totalNanos = totalNanos;
+            this.maxNanos = maxNanos;
+        }
+
+        public String getStatementId() {
+            return statementId;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos;
+        }
+
+        public double getTotalMillis() {
+            return totalNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        public double getMeanMicros() {
+            return count == 0 ? 0 : totalNanos / (double) count / TimeUnit.MICROSECONDS.toNanos(1);
+        }
+
+        public double getMaxMicros() {
+            return maxNanos / (double) TimeUnit.MICROSECONDS.toNanos(1);
+        }
+    }
+}
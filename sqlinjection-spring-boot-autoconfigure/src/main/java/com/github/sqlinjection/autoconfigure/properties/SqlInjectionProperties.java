@@ -24,7 +24,9 @@
 package com.github.sqlinjection.autoconfigure.properties;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
 
+import java.time.Duration;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
@@ -56,6 +58,71 @@ public class SqlInjectionProperties {
      */
     private Set<String> ignoredStatements = new LinkedHashSet<>();
 
+    /**
+     * The verdict cache in front of the druid wall provider
+     */
+    private final Cache cache = new Cache();
+
+    /**
+     * The validation of static sql at startup
+     */
+    private final Startup startup = new Startup();
+
+    /**
+     * The micrometer metrics of the check pipeline
+     */
+    private final Metrics metrics = new Metrics();
+
+    /**
+     * The asynchronous check of the warning only mode
+     */
+    private final Shadow shadow = new Shadow();
+
+    /**
+     * The sampling of statements with a clean history
+     */
+    private final Sampling sampling = new Sampling();
+
+    /**
+     * The hot reload of the permit and deny config
+     */
+    private final Reload reload = new Reload();
+
+    /**
+     * The reporting of violations in logs and exceptions
+     */
+    private final Report report = new Report();
+
+    /**
+     * The circuit breaker of the wall provider initialization
+     */
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker();
+
+    /**
+     * The check of the statements prepared by the batch executors
+     */
+    private final Batch batch = new Batch();
+
+    /**
+     * The collapse of the large placeholder lists before the check
+     */
+    private final Collapse collapse = new Collapse();
+
+    /**
+     * The token level pre-scan in front of the druid wall provider
+     */
+    private final PreScan preScan = new PreScan();
+
+    /**
+     * The violation events published off the request thread
+     */
+    private final Events events = new Events();
+
+    /**
+     * The recording of the statements for an offline replay
+     */
+    private final Record record = new Record();
+
 
     public boolean isEnableWarningOnly() {
         return enableWarningOnly;
@@ -80,4 +147,677 @@ public class SqlInjectionProperties {
     public void setIgnoredStatements(Set<String> ignoredStatements) {
         this.ignoredStatements = ignoredStatements;
     }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public Startup getStartup() {
+        return startup;
+    }
+
+    public Metrics getMetrics() {
+        return metrics;
+    }
+
+    public Shadow getShadow() {
+        return shadow;
+    }
+
+    public Sampling getSampling() {
+        return sampling;
+    }
+
+    public Reload getReload() {
+        return reload;
+    }
+
+    public Report getReport() {
+        return report;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+
+    public Batch getBatch() {
+        return batch;
+    }
+
+    public Collapse getCollapse() {
+        return collapse;
+    }
+
+    public PreScan getPreScan() {
+        return preScan;
+    }
+
+    public Events getEvents() {
+        return events;
+    }
+
+    public Record getRecord() {
+        return record;
+    }
+
+    public static class Cache {
+
+        /**
+         * Whether to cache the verdicts of sql which passed the check, the default is true
+         */
+        private boolean enabled = true;
+
+        /**
+         * The maximum number of sql fingerprints kept in the cache, the default is 10000
+         */
+        private int maximumSize = 10000;
+
+        /**
+         * The file of the persistent verdict store, which keeps the verdicts across restarts, the default is none.
+         * The interceptors of all sql session factories configured with the same file share one store.
+         * It holds the seed of the fingerprints, so it must only be readable and writable by the application
+         */
+        private String persistentFile;
+
+        /**
+         * The number of slots of the persistent verdict store, rounded up to a power of two, the default is 262144.
+         * Each slot takes 8 bytes of the file
+         */
+        private int persistentMaximumSize = 1 << 18;
+
+        /**
+         * The maximum number of violating sql fingerprints kept to reject their repeats before the check, 0 disables
+         * it, the default is 1024. It is cleared when the wall config is reloaded
+         */
+        private int violationMaximumSize = 1024;
+
+        /**
+         * Whether the interceptors of all sql session factories share the wall provider, with its druid sql caches,
+         * of the same db type and wall config, the default is true
+         */
+        private boolean sharedProviders = true;
+
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(int maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+
+        public String getPersistentFile() {
+            return persistentFile;
+        }
+
+        public void setPersistentFile(String persistentFile) {
+            this.persistentFile = persistentFile;
+        }
+
+        public int getPersistentMaximumSize() {
+            return persistentMaximumSize;
+        }
+
+        public void setPersistentMaximumSize(int persistentMaximumSize) {
+            this.persistentMaximumSize = persistentMaximumSize;
+        }
+
+        public int getViolationMaximumSize() {
+            return violationMaximumSize;
+        }
+
+        public void setViolationMaximumSize(int violationMaximumSize) {
+            this.violationMaximumSize = violationMaximumSize;
+        }
+
+        public boolean isSharedProviders() {
+            return sharedProviders;
+        }
+
+        public void setSharedProviders(boolean sharedProviders) {
+            this.sharedProviders = sharedProviders;
+        }
+    }
+
+    public static class Startup {
+
+        /**
+         * Whether to validate the static sql of all mapped statements at startup, the default is true.
+         * Statements which pass are trusted and skip the check at runtime
+         */
+        private boolean validationEnabled = true;
+
+        /**
+         * The parallelism of the startup validation, the default is the number of available processors
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Whether to classify the statements at startup, the sql of a statement without ${} substitutions or sql
+         * providers is checked once and trusted afterwards, the default is true. Set it to false to check the sql of
+         * all statements every time
+         */
+        private boolean classificationEnabled = true;
+
+        /**
+         * Whether to trust the statements of the manifests written by the sqlinjection-maven-plugin at build time,
+         * the default is true. A manifest only applies if its dialect and wall config match the runtime ones
+         */
+        private boolean manifestEnabled = true;
+
+
+        public boolean isValidationEnabled() {
+            return validationEnabled;
+        }
+
+        public void setValidationEnabled(boolean validationEnabled) {
+            this.validationEnabled = validationEnabled;
+        }
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public boolean isClassificationEnabled() {
+            return classificationEnabled;
+        }
+
+        public void setClassificationEnabled(boolean classificationEnabled) {
+            this.classificationEnabled = classificationEnabled;
+        }
+
+        public boolean isManifestEnabled() {
+            return manifestEnabled;
+        }
+
+        public void setManifestEnabled(boolean manifestEnabled) {
+            this.manifestEnabled = manifestEnabled;
+        }
+    }
+
+    public static class Metrics {
+
+        /**
+         * Whether to record micrometer metrics when micrometer is present, the default is true
+         */
+        private boolean enabled = true;
+
+        /**
+         * Whether to publish a percentile histogram of the check time per statement, the default is false
+         */
+        private boolean percentileHistogram = false;
+
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public boolean isPercentileHistogram() {
+            return percentileHistogram;
+        }
+
+        public void setPercentileHistogram(boolean percentileHistogram) {
+            this.percentileHistogram = percentileHistogram;
+        }
+    }
+
+    public static class Shadow {
+
+        /**
+         * Whether to check the sql on a background thread when enableWarningOnly is true, the default is false
+         */
+        private boolean enabled = false;
+
+        /**
+         * The number of background threads, the default is 1
+         */
+        private int threads = 1;
+
+        /**
+         * The maximum number of sql waiting to be checked, the default is 1024
+         */
+        private int queueCapacity = 1024;
+
+        /**
+         * Whether to drop the sql when the queue is full, the default is true.
+         * Otherwise the sql is checked on the request thread
+         */
+        private boolean dropOnOverflow = true;
+
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getThreads() {
+            return threads;
+        }
+
+        public void setThreads(int threads) {
+            this.threads = threads;
+        }
+
+        public int getQueueCapacity() {
+            return queueCapacity;
+        }
+
+        public void setQueueCapacity(int queueCapacity) {
+            this.queueCapacity = queueCapacity;
+        }
+
+        public boolean isDropOnOverflow() {
+            return dropOnOverflow;
+        }
+
+        public void setDropOnOverflow(boolean dropOnOverflow) {
+            this.dropOnOverflow = dropOnOverflow;
+        }
+    }
+
+    public static class Sampling {
+
+        /**
+         * Whether to check only a fraction of the executions of statements with a clean history, the default is false.
+         * Statements with ${} substitutions or built by sql providers are always checked. The sql of the other statements
+         * which already passed is trusted before sampling while the startup classification is enabled
+         */
+        private boolean enabled = false;
+
+        /**
+         * The number of consecutive passed checks before a statement is sampled, the default is 1000
+         */
+        private int consecutivePasses = 1000;
+
+        /**
+         * The fraction of the executions of a sampled statement which are checked, the default is 0.1
+         */
+        private double rate = 0.1;
+
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getConsecutivePasses() {
+            return consecutivePasses;
+        }
+
+        public void setConsecutivePasses(int consecutivePasses) {
+            this.consecutivePasses = consecutivePasses;
+        }
+
+        public double getRate() {
+            return rate;
+        }
+
+        public void setRate(double rate) {
+            this.rate = rate;
+        }
+    }
+
+    public static class Reload {
+
+        /**
+         * Whether to rebind the permit and deny config from the environment when it changes, the default is false.
+         * The environment change event of spring cloud and the watched file trigger a reload
+         */
+        private boolean enabled = false;
+
+        /**
+         * A properties or yaml file watched for the permit and deny config, in the same format as the environment
+         */
+        private String file;
+
+        /**
+         * How often the watched file is checked for changes, the default is 5 seconds
+         */
+        private Duration interval = Duration.ofSeconds(5);
+
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public Duration getInterval() {
+            return interval;
+        }
+
+        public void setInterval(Duration interval) {
+            this.interval = interval;
+        }
+    }
+
+    public static class Report {
+
+        /**
+         * How often the repeated violations of a statement are summarized in the log, the default is 1 minute.
+         * Only the first violation of each statement and violation type is logged in full
+         */
+        private Duration summaryInterval = Duration.ofMinutes(1);
+
+        /**
+         * The maximum length of the sql in violation logs and exception messages, the default is 1000.
+         * Zero or less keeps the whole sql
+         */
+        private int maxSqlLength = 1000;
+
+
+        public Duration getSummaryInterval() {
+            return summaryInterval;
+        }
+
+        public void setSummaryInterval(Duration summaryInterval) {
+            this.summaryInterval = summaryInterval;
+        }
+
+        public int getMaxSqlLength() {
+            return maxSqlLength;
+        }
+
+        public void setMaxSqlLength(int maxSqlLength) {
+            this.maxSqlLength = maxSqlLength;
+        }
+    }
+
+    public static class CircuitBreaker {
+
+        /**
+         * The number of consecutive failures to resolve the db type or build the wall provider which open the
+         * circuit breaker, the default is 10. The statements are not checked while it is open
+         */
+        private int failureThreshold = 10;
+
+        /**
+         * How long the circuit breaker stays open before the initialization is tried again, the default is 1 second
+         */
+        private Duration initialBackoff = Duration.ofSeconds(1);
+
+        /**
+         * The maximum time the circuit breaker stays open, the default is 5 minutes
+         */
+        private Duration maxBackoff = Duration.ofMinutes(5);
+
+        /**
+         * The factor the backoff grows by after each failed retry, the default is 2
+         */
+        private double multiplier = 2.0;
+
+
+        public int getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        public void setFailureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        public Duration getInitialBackoff() {
+            return initialBackoff;
+        }
+
+        public void setInitialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+        }
+
+        public Duration getMaxBackoff() {
+            return maxBackoff;
+        }
+
+        public void setMaxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+        }
+
+        public double getMultiplier() {
+            return multiplier;
+        }
+
+        public void setMultiplier(double multiplier) {
+            this.multiplier = multiplier;
+        }
+    }
+
+    public static class Batch {
+
+        /**
+         * Whether to check each distinct sql only once per batch of the batch executors, until the executor
+         * flushes, commits, rolls back or closes. It only saves the verdict cache lookups of the batches which
+         * alternate statements, and every executor is proxied when it is enabled, the default is false
+         */
+        private boolean enabled = false;
+
+        /**
+         * The maximum number of distinct sql remembered per batch, the default is 64
+         */
+        private int maximumSize = 64;
+
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(int maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+    }
+
+    public static class Collapse {
+
+        /**
+         * Whether to collapse the IN lists of placeholders and the repeated VALUES tuples of a large sql to their
+         * first element before the check, the default is true
+         */
+        private boolean enabled = true;
+
+        /**
+         * The minimum length of the sql which is collapsed, the default is 1024
+         */
+        private int threshold = 1024;
+
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(int threshold) {
+            this.threshold = threshold;
+        }
+    }
+
+    public static class PreScan {
+
+        /**
+         * Whether to pass the plain sql by its tokens without parsing it, a sql with anything the druid wall may
+         * reject is still checked by the wall, the default is true
+         */
+        private boolean enabled = true;
+
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+    }
+
+    public static class Events {
+
+        /**
+         * Whether to publish an event of every violation to the sinks, off the request thread, the default is true
+         */
+        private boolean enabled = true;
+
+        /**
+         * The number of events waiting for the sinks, rounded up to a power of two, the default is 4096.
+         * The events of a burst beyond it are dropped and counted
+         */
+        private int bufferSize = 4096;
+
+        /**
+         * Whether to publish the events as spring application events, the default is true
+         */
+        private boolean applicationEventEnabled = true;
+
+        /**
+         * The json lines file the events are appended to, the default is none
+         */
+        private String file;
+
+        /**
+         * The size the events file is rotated at, the default is 10MB
+         */
+        private DataSize maxFileSize = DataSize.ofMegabytes(10);
+
+        /**
+         * The number of rotated events files kept, the default is 5
+         */
+        private int maxHistory = 5;
+
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getBufferSize() {
+            return bufferSize;
+        }
+
+        public void setBufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+        }
+
+        public boolean isApplicationEventEnabled() {
+            return applicationEventEnabled;
+        }
+
+        public void setApplicationEventEnabled(boolean applicationEventEnabled) {
+            this.applicationEventEnabled = applicationEventEnabled;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public DataSize getMaxFileSize() {
+            return maxFileSize;
+        }
+
+        public void setMaxFileSize(DataSize maxFileSize) {
+            this.maxFileSize = maxFileSize;
+        }
+
+        public int getMaxHistory() {
+            return maxHistory;
+        }
+
+        public void setMaxHistory(int maxHistory) {
+            this.maxHistory = maxHistory;
+        }
+    }
+
+    public static class Record {
+
+        /**
+         * Whether to record the distinct statements to a file, which the replay tool checks against another wall
+         * config, the default is false. The sql is recorded with the substituted parameters, so the file must only be
+         * readable by the application
+         */
+        private boolean enabled = false;
+
+        /**
+         * The recording file, the statements are appended if it exists
+         */
+        private String file;
+
+        /**
+         * The maximum number of distinct statements recorded, the default is 100000
+         */
+        private int maximumSize = 100000;
+
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getFile() {
+            return file;
+        }
+
+        public void setFile(String file) {
+            this.file = file;
+        }
+
+        public int getMaximumSize() {
+            return maximumSize;
+        }
+
+        public void setMaximumSize(int maximumSize) {
+            this.maximumSize = maximumSize;
+        }
+    }
 }
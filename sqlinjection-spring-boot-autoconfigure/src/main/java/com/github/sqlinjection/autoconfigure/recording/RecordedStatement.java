@@ -0,0 +1,130 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.recording;
+
+import com.alibaba.druid.DbType;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * A statement recorded by the {@link StatementRecorder}, and the format of the recording file.
+ * <p>
+ * The file is gzip compressed, each start of the recorder appends a gzip member beginning with a header of the
+ * format version, followed by one record per statement: the db type, the statement id and the utf-8 bytes of the sql.
+ * A file cut off by a crash is read up to its last complete record.
+ *
+ * @author sean chen
+ * @date 2026/10/19 1:00 AM
+ */
+public final class RecordedStatement {
+
+    static final int VERSION = 1;
+
+    private static final byte HEADER = 1;
+    private static final byte STATEMENT = 2;
+
+    private final DbType dbType;
+    private final String statementId;
+    private final String sql;
+
+    public RecordedStatement(DbType dbType, String statementId, String sql) {
+        this.dbType = dbType;
+        this.statementId = statementId;
+        this.sql = sql;
+    }
+
+    public DbType getDbType() {
+        return dbType;
+    }
+
+    public String getStatementId() {
+        return statementId;
+    }
+
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * Read the statements of a recording file, in the recorded order
+     *
+     * @param file The recording file
+     * @return the statements
+     * @throws IOException if the file can not be read or is not a recording
+     */
+    public static List<RecordedStatement> read(Path file) throws IOException {
+        List<RecordedStatement> statements = new ArrayList<>();
+        try (InputStream input = Files.newInputStream(file);
+             DataInputStream data = new DataInputStream(new BufferedInputStream(new GZIPInputStream(input)))) {
+            while (true) {
+                int tag = data.read();
+                if (tag == -1) {
+                    break;
+                }
+                if (tag == HEADER) {
+                    int version = data.readInt();
+                    if (version != VERSION) {
+                        throw new IOException("Unsupported recording version " + version + " in " + file);
+                    }
+                } else if (tag == STATEMENT) {
+                    DbType dbType = DbType.valueOf(data.readUTF());
+                    String statementId = data.readUTF();
+                    byte[] sql = new byte[data.readInt()];
+                    data.readFully(sql);
+                    statements.add(new RecordedStatement(dbType, statementId, new String(sql, StandardCharsets.UTF_8)));
+                } else {
+                    throw new IOException("Not a recording file: " + file);
+                }
+            }
+        } catch (EOFException e) {
+            // the recorder did not finish the last record
+        }
+        return statements;
+    }
+
+    static void writeHeader(DataOutputStream output) throws IOException {
+        output.writeByte(HEADER);
+        output.writeInt(VERSION);
+    }
+
+    void writeTo(DataOutputStream output) throws IOException {
+        byte[] bytes = sql.getBytes(StandardCharsets.UTF_8);
+        output.writeByte(STATEMENT);
+        output.writeUTF(dbType.name());
+        output.writeUTF(statementId);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.recording;
+
+import com.alibaba.druid.DbType;
+import com.github.sqlinjection.autoconfigure.cache.SqlFingerprint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Records the distinct statements the interceptor sees to a file, so they can be replayed offline against another
+ * wall config, see {@link RecordedStatement} for the format.
+ * <p>
+ * A statement is distinct by its fingerprint, so the sql of the same shape is recorded once. The request thread
+ * only fingerprints the sql and hands a new one over to a daemon thread writing the file, when the queue is full
+ * the statement is recorded by a later call. Once the maximum number of statements is recorded the recorder stops.
+ * The interceptors of all sql session factories recording to the same file share one recorder.
+ *
+ * @author sean chen
+ * @date 2026/10/19 1:10 AM
+ */
+public class StatementRecorder implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StatementRecorder.class);
+
+    private static final int QUEUE_CAPACITY = 1024;
+
+    private static final RecordedStatement END = new RecordedStatement(DbType.other, "", "");
+
+    /**
+     * file -> the recorder writing it
+     */
+    private static final Map<Path, StatementRecorder> RECORDERS = new HashMap<>();
+
+    private static final ReentrantLock RECORDERS_LOCK = new ReentrantLock();
+
+    private final Path file;
+    private final int maximumSize;
+    private final SqlFingerprint sqlFingerprint = new SqlFingerprint();
+    private final Set<Long> recorded = ConcurrentHashMap.newKeySet();
+    private final BlockingQueue<RecordedStatement> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final DataOutputStream output;
+    private final Thread writer;
+
+    private volatile boolean closed;
+
+    /**
+     * The number of interceptors using the recorder, guarded by {@link #RECORDERS_LOCK}
+     */
+    private int references;
+
+    private StatementRecorder(Path file, int maximumSize, DataOutputStream output) {
+        this.file = file;
+        this.maximumSize = maximumSize;
+        this.output = output;
+        this.writer = new Thread(this::write, "sql-injection-recorder");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Open the recording file, the statements are appended if it exists. The recorder already writing the file
+     * is shared, each open must be followed by a {@link #close()}
+     *
+     * @param file        The file
+     * @param maximumSize The maximum number of statements recorded
+     * @return the recorder
+     * @throws IOException if the file can not be opened
+     */
+    public static StatementRecorder open(Path file, int maximumSize) throws IOException {
+        Path absolute = file.toAbsolutePath().normalize();
+        RECORDERS_LOCK.lock();
+        try {
+            StatementRecorder recorder = RECORDERS.get(absolute);
+            if (recorder == null) {
+                recorder = create(absolute, maximumSize);
+                RECORDERS.put(absolute, recorder);
+            }
+            recorder.references++;
+            return recorder;
+        } finally {
+            RECORDERS_LOCK.unlock();
+        }
+    }
+
+    private static StatementRecorder create(Path file, int maximumSize) throws IOException {
+        Files.createDirectories(file.getParent());
+        // sync flush, so the records written so far can be read while the application runs
+        DataOutputStream output = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(
+                Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND), true)));
+        try {
+            RecordedStatement.writeHeader(output);
+        } catch (IOException e) {
+            output.close();
+            throw e;
+        }
+        return new StatementRecorder(file, Math.max(0, maximumSize), output);
+    }
+
+    /**
+     * Record a statement unless one of the same shape is already recorded, never blocks
+     *
+     * @param dbType      The db type
+     * @param statementId The mapped statement id
+     * @param sql         The sql
+     */
+    public void record(DbType dbType, String statementId, String sql) {
+        if (closed || recorded.size() >= maximumSize) {
+            return;
+        }
+        Long fingerprint = sqlFingerprint.of(dbType.name(), statementId, sql);
+        if (recorded.contains(fingerprint) || !recorded.add(fingerprint)) {
+            return;
+        }
+        if (!queue.offer(new RecordedStatement(dbType, statementId, sql))) {
+            recorded.remove(fingerprint);
+        }
+    }
+
+    /**
+     * Write the statements still queued and close the file, once no interceptor uses the recorder any more
+     */
+    @Override
+    public void close() {
+        RECORDERS_LOCK.lock();
+        try {
+            if (--references > 0) {
+                return;
+            }
+            RECORDERS.remove(file, this);
+        } finally {
+            RECORDERS_LOCK.unlock();
+        }
+        closed = true;
+        try {
+            // the writer may have stopped on an error with the queue full
+            if (queue.offer(END, 10, TimeUnit.SECONDS)) {
+                writer.join(TimeUnit.SECONDS.toMillis(10));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void write() {
+        int written = 0;
+        try {
+            while (true) {
+                RecordedStatement statement = queue.poll();
+                if (statement == null) {
+                    output.flush();
+                    statement = queue.take();
+                }
+                if (statement == END) {
+                    break;
+                }
+                statement.writeTo(output);
+                written++;
+            }
+        } catch (IOException e) {
+            closed = true;
+            LOGGER.warn("Write the recording file {} error, the statements are not recorded any more.", file, e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                output.close();
+            } catch (IOException e) {
+                LOGGER.warn("Close the recording file {} error.", file, e);
+            }
+            LOGGER.info("Recorded {} statements to {}.", written, file);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.reload;
+
+import com.github.sqlinjection.autoconfigure.PermitAndDenyCustomizer;
+import com.github.sqlinjection.autoconfigure.StartupSqlInjectionPlugin;
+import com.github.sqlinjection.autoconfigure.properties.SqlInjectionProperties;
+import com.github.sqlinjection.autoconfigure.utils.PermitAndDenyCustomizerUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.event.GenericApplicationListener;
+import org.springframework.core.ResolvableType;
+import org.springframework.core.env.Environment;
+import org.springframework.lang.Nullable;
+
+import java.io.File;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Rebinds the {@link PermitAndDenyCustomizer} and reloads the wall providers when the config changes.
+ * <p>
+ * The environment change event of spring cloud, e.g. after a refresh, rebinds it from the environment, and a
+ * watched properties or yaml file is polled on a background thread. A config which can not be bound or built
+ * is logged and the current one stays in place.
+ *
+ * @author sean chen
+ * @date 2026/10/18 9:20 PM
+ */
+public class PermitAndDenyCustomizerReloader implements GenericApplicationListener, DisposableBean {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(PermitAndDenyCustomizerReloader.class);
+
+    private static final String ENVIRONMENT_CHANGE_EVENT = "org.springframework.cloud.context.environment.EnvironmentChangeEvent";
+
+    private final StartupSqlInjectionPlugin plugin;
+
+    private final Environment environment;
+
+    @Nullable
+    private final ScheduledExecutorService watcher;
+
+    private long lastModified;
+
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    public PermitAndDenyCustomizerReloader(StartupSqlInjectionPlugin plugin, Environment environment,
+                                           SqlInjectionProperties.Reload reload) {
+        this.plugin = plugin;
+        this.environment = environment;
+
+        if (reload.getFile() == null) {
+            this.watcher = null;
+            return;
+        }
+
+        File file = new File(reload.getFile());
+        this.lastModified = file.lastModified();
+        this.watcher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "sql-injection-config-watcher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = Math.max(1L, reload.getInterval().toMillis());
+        watcher.scheduleWithFixedDelay(() -> watch(file), interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public boolean supportsEventType(ResolvableType eventType) {
+        Class<?> type = eventType.getRawClass();
+        return type != null && ENVIRONMENT_CHANGE_EVENT.equals(type.getName());
+    }
+
+    @Override
+    public void onApplicationEvent(ApplicationEvent event) {
+        reload(() -> PermitAndDenyCustomizerUtils.bind(Binder.get(environment)), "environment");
+    }
+
+    @Override
+    public void destroy() {
+        if (watcher != null) {
+            watcher.shutdownNow();
+        }
+    }
+
+    private void watch(File file) {
+        long modified = file.lastModified();
+        if (modified == lastModified) {
+            return;
+        }
+        lastModified = modified;
+
+        if (modified == 0L) {
+            LOGGER.warn("The watched config file of sql injection plugin is missing: {}", file);
+            return;
+        }
+
+        PermitAndDenyCustomizer customizer;
+        try {
+            customizer = PermitAndDenyCustomizerUtils.load(file);
+        } catch (Exception e) {
+            LOGGER.error("Load the config file of sql injection plugin error: {}", file, e);
+            return;
+        }
+        reload(() -> customizer, file.getPath());
+    }
+
+    private void reload(Supplier<PermitAndDenyCustomizer> binder, String source) {
+        reloadLock.lock();
+        try {
+            PermitAndDenyCustomizer customizer = binder.get();
+            LOGGER.info("Reload the wall config of sql injection plugin from the {}.", source);
+            plugin.reload(customizer);
+        } catch (Exception e) {
+            LOGGER.error("Reload the wall config of sql injection plugin from the {} error, the current config is kept.", source, e);
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+}
@@ -0,0 +1,161 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.report;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.wall.Violation;
+import com.github.sqlinjection.autoconfigure.properties.SqlInjectionProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Logs the violations of the warning only mode without flooding the log under an attack.
+ * <p>
+ * Violations are aggregated by statement id and violation error code. The first one of each is logged in
+ * full, the repeated ones are counted and summarized at most once per interval, when the next one arrives
+ * or the reporter is flushed. The statement ids and error codes come from the application and druid, so
+ * the number of aggregates is bounded whatever sql is sent. The sql is truncated in logs and exceptions.
+ *
+ * @author sean chen
+ * @date 2026/10/18 11:00 PM
+ */
+public class ViolationReporter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ViolationReporter.class);
+
+    private final long summaryIntervalNanos;
+    private final int maxSqlLength;
+    private final Map<Key, Aggregate> aggregates = new ConcurrentHashMap<>();
+
+    public ViolationReporter(SqlInjectionProperties.Report report) {
+        this.summaryIntervalNanos = Math.max(0L, report.getSummaryInterval().toNanos());
+        this.maxSqlLength = report.getMaxSqlLength();
+    }
+
+    /**
+     * Log a violation, in full if it is the first of its statement and type, otherwise in a periodic summary
+     *
+     * @param dbType      The db type
+     * @param statementId The mapped statement id
+     * @param violation   The first violation of the sql
+     * @param sql         The violating sql
+     */
+    public void report(DbType dbType, String statementId, Violation violation, String sql) {
+        Key key = new Key(statementId, violation.getErrorCode());
+        long now = System.nanoTime();
+
+        Aggregate aggregate = aggregates.get(key);
+        if (aggregate == null) {
+            Aggregate created = new Aggregate(now + summaryIntervalNanos);
+            aggregate = aggregates.putIfAbsent(key, created);
+            if (aggregate == null) {
+                LOGGER.warn("sql injection violation, dbType {}, {}, {} : {}", dbType, statementId, violation.getMessage(), truncate(sql));
+                return;
+            }
+        }
+
+        aggregate.repeated.increment();
+        long summaryAt = aggregate.summaryAt.get();
+        // only the thread winning the window logs the summary, the others just count
+        if (now - summaryAt >= 0 && aggregate.summaryAt.compareAndSet(summaryAt, now + summaryIntervalNanos)) {
+            long repeated = aggregate.repeated.sumThenReset();
+            if (repeated > 0) {
+                LOGGER.warn("sql injection violation repeated {} times in the last {} ms, dbType {}, {}, {}, the last sql: {}",
+                        repeated, TimeUnit.NANOSECONDS.toMillis(now - summaryAt + summaryIntervalNanos), dbType,
+                        statementId, violation.getMessage(), truncate(sql));
+            }
+        }
+    }
+
+    /**
+     * Log the summaries of the violations counted since their last summary
+     */
+    public void flush() {
+        for (Map.Entry<Key, Aggregate> entry : aggregates.entrySet()) {
+            long repeated = entry.getValue().repeated.sumThenReset();
+            if (repeated > 0) {
+                LOGGER.warn("sql injection violation repeated {} times, {}, error code {}.",
+                        repeated, entry.getKey().statementId, entry.getKey().errorCode);
+            }
+        }
+    }
+
+    /**
+     * Truncate the sql to the maximum length of the reports
+     *
+     * @param sql The sql
+     * @return the sql, or its head and the number of chars cut off
+     */
+    public String truncate(String sql) {
+        if (maxSqlLength <= 0 || sql.length() <= maxSqlLength) {
+            return sql;
+        }
+        int end = Character.isHighSurrogate(sql.charAt(maxSqlLength - 1)) ? maxSqlLength - 1 : maxSqlLength;
+        return sql.substring(0, end) + "... (" + (sql.length() - end) + " more chars)";
+    }
+
+    private static final class Aggregate {
+
+        private final AtomicLong summaryAt;
+        private final LongAdder repeated = new LongAdder();
+
+        private Aggregate(long summaryAt) {
+            this.summaryAt = new AtomicLong(summaryAt);
+        }
+    }
+
+    private static final class Key {
+
+        private final String statementId;
+        private final int errorCode;
+
+        private Key(String statementId, int errorCode) {
+            this.statementId = statementId;
+            this.errorCode = errorCode;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return errorCode == key.errorCode && statementId.equals(key.statementId);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * statementId.hashCode() + errorCode;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.sampling;
+
+import com.github.sqlinjection.autoconfigure.properties.SqlInjectionProperties;
+import com.github.sqlinjection.autoconfigure.utils.SqlSourceUtils;
+import org.apache.ibatis.mapping.MappedStatement;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Decides which executions of a statement are checked.
+ * <p>
+ * A statement is sampled only after it passed the configured number of consecutive checks. Statements
+ * which are not substitution free, see {@link SqlSourceUtils#isSubstitutionFree}, and statements which
+ * ever violated are always checked.
+ * <p>
+ * The interceptor asks the sampler after the trusted statements. With the startup classification enabled, the
+ * sql a substitution free statement already passed is trusted before it gets here, so the sampling only saves the
+ * checks of the sql variants not trusted yet, e.g. beyond the number of variants trusted per statement. It saves
+ * the most with the classification disabled.
+ *
+ * @author sean chen
+ * @date 2026/10/18 6:55 PM
+ */
+public class StatementSampler {
+
+    private final int consecutivePasses;
+    private final double rate;
+    private final Map<String, StatementHistory> histories = new ConcurrentHashMap<>();
+
+    public StatementSampler(SqlInjectionProperties.Sampling sampling) {
+        this.consecutivePasses = Math.max(0, sampling.getConsecutivePasses());
+        this.rate = sampling.getRate();
+    }
+
+    /**
+     * Whether this execution of the statement must be checked
+     *
+     * @param mappedStatement The mapped statement
+     * @return true if the sql must be checked
+     */
+    public boolean shouldCheck(MappedStatement mappedStatement) {
+        StatementHistory history = histories.get(mappedStatement.getId());
+        if (history == null) {
+            history = histories.computeIfAbsent(mappedStatement.getId(),
+                    key -> new StatementHistory(SqlSourceUtils.isSubstitutionFree(mappedStatement.getSqlSource())));
+        }
+        if (!history.sampleable || history.violated || history.passes.get() < consecutivePasses) {
+            return true;
+        }
+        return ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    /**
+     * The statement passed a check
+     *
+     * @param statementId The mapped statement id
+     */
+    public void recordPass(String statementId) {
+        StatementHistory history = histories.get(statementId);
+        // the count may overshoot by the concurrent passes, which is harmless
+        if (history != null && history.passes.get() < consecutivePasses) {
+            history.passes.incrementAndGet();
+        }
+    }
+
+    /**
+     * The statement violated a check, it is always checked from now on
+     *
+     * @param statementId The mapped statement id
+     */
+    public void recordViolation(String statementId) {
+        StatementHistory history = histories.get(statementId);
+        if (history != null) {
+            history.violated = true;
+        }
+    }
+
+    /**
+     * Forget the history of all statements, e.g. when the wall config changed
+     */
+    public void reset() {
+        histories.clear();
+    }
+
+    private static final class StatementHistory {
+
+        private final boolean sampleable;
+        private final AtomicLong passes = new AtomicLong();
+        private volatile boolean violated;
+
+        private StatementHistory(boolean sampleable) {
+            this.sampleable = sampleable;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.shadow;
+
+import com.github.sqlinjection.autoconfigure.metrics.SqlInjectionMetrics;
+import com.github.sqlinjection.autoconfigure.properties.SqlInjectionProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs the druid wall check of the warning only mode off the request thread.
+ * <p>
+ * The queue is bounded, when it is full the check is either dropped or run on the caller thread.
+ *
+ * @author sean chen
+ * @date 2026/10/18 6:10 PM
+ */
+public class ShadowCheckExecutor implements AutoCloseable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ShadowCheckExecutor.class);
+
+    private static final AtomicInteger POOL_NUMBER = new AtomicInteger();
+
+    /**
+     * How long the close waits for the checks already running
+     */
+    private static final long TERMINATION_MILLIS = TimeUnit.SECONDS.toMillis(5);
+
+    private final ThreadPoolExecutor executor;
+    private final SqlInjectionMetrics metrics;
+
+    public ShadowCheckExecutor(SqlInjectionProperties.Shadow shadow, SqlInjectionMetrics metrics) {
+        this.metrics = metrics;
+        String name = "sql-injection-shadow-" + POOL_NUMBER.incrementAndGet();
+        int capacity = Math.max(1, shadow.getQueueCapacity());
+        int threads = Math.max(1, shadow.getThreads());
+        BlockingQueue<Runnable> queue = new ArrayBlockingQueue<>(capacity);
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS, queue,
+                new ShadowThreadFactory(name), shadow.isDropOnOverflow() ? new DropPolicy() : new ThreadPoolExecutor.CallerRunsPolicy());
+        metrics.bindShadowQueue(name, queue, capacity);
+    }
+
+    /**
+     * Submit a check, never blocks unless the queue is full and dropping is disabled
+     *
+     * @param check The check
+     */
+    public void execute(Runnable check) {
+        executor.execute(check);
+    }
+
+    /**
+     * Drop the checks still queued, they are counted as dropped, and wait a bounded time for the running ones
+     */
+    @Override
+    public void close() {
+        int queued = executor.shutdownNow().size();
+        for (int i = 0; i < queued; i++) {
+            metrics.recordShadowDropped();
+        }
+        try {
+            if (!executor.awaitTermination(TERMINATION_MILLIS, TimeUnit.MILLISECONDS)) {
+                LOGGER.warn("The shadow checks did not stop in {} ms, their verdicts may be lost.", TERMINATION_MILLIS);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private final class DropPolicy implements RejectedExecutionHandler {
+
+        @Override
+        public void rejectedExecution(Runnable r, ThreadPoolExecutor e) {
+            metrics.recordShadowDropped();
+            if (LOGGER.isDebugEnabled()) {
+                LOGGER.debug("The shadow check queue is full, a sql is not checked");
+            }
+        }
+    }
+
+    private static final class ShadowThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger threadNumber = new AtomicInteger();
+
+        private ShadowThreadFactory(String name) {
+            this.prefix = name + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
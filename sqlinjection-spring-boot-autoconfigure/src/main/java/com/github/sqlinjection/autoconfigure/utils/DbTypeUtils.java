@@ -0,0 +1,117 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.utils;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.util.JdbcUtils;
+import org.springframework.lang.Nullable;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Method;
+import java.util.Locale;
+
+/**
+ * Resolve the db type of a data source without borrowing a connection from the pool.
+ *
+ * @author sean chen
+ * @date 2026/10/18 1:05 PM
+ */
+public class DbTypeUtils {
+
+    /**
+     * Hikari, c3p0 / Druid, Tomcat, DBCP2 / vendor data sources such as PGSimpleDataSource
+     */
+    private static final String[] URL_GETTERS = {"getJdbcUrl", "getUrl", "getURL"};
+
+    /**
+     * Spring's DelegatingDataSource and its subclasses
+     */
+    private static final String TARGET_DATA_SOURCE_GETTER = "getTargetDataSource";
+
+    private DbTypeUtils() {
+    }
+
+    /**
+     * Get the jdbc url from the metadata of the connection pool
+     *
+     * @param dataSource The data source
+     * @return the jdbc url, or {@code null} if the pool does not expose it
+     */
+    @Nullable
+    public static String getUrl(DataSource dataSource) {
+        DataSource current = dataSource;
+        for (int depth = 0; current != null && depth < 8; depth++) {
+            for (String getter : URL_GETTERS) {
+                Object url = invokeGetter(current, getter);
+                if (url instanceof String && !((String) url).isEmpty()) {
+                    return (String) url;
+                }
+            }
+            Object target = invokeGetter(current, TARGET_DATA_SOURCE_GETTER);
+            current = target instanceof DataSource && target != current ? (DataSource) target : null;
+        }
+        return null;
+    }
+
+    /**
+     * Get the db type of the jdbc url
+     *
+     * @param url The jdbc url
+     * @return the db type, or {@code null} if the url is not supported
+     */
+    @Nullable
+    public static DbType getDbType(@Nullable String url) {
+        if (url == null) {
+            return null;
+        }
+        return DbType.of(JdbcUtils.getDbType(url, null));
+    }
+
+    /**
+     * Get the db type of the mybatis database id, e.g. mysql, oracle or postgresql
+     *
+     * @param databaseId The database id of the mybatis configuration
+     * @return the db type, or {@code null} if the database id is not a db type
+     */
+    @Nullable
+    public static DbType getDbTypeOfDatabaseId(@Nullable String databaseId) {
+        if (databaseId == null) {
+            return null;
+        }
+        return DbType.of(databaseId.toLowerCase(Locale.ROOT));
+    }
+
+    @Nullable
+    private static Object invokeGetter(Object target, String name) {
+        try {
+            Method method = target.getClass().getMethod(name);
+            if (method.getParameterCount() != 0) {
+                return null;
+            }
+            return method.invoke(target);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+}
@@ -47,6 +47,14 @@ public class JsonUtils {
         return MAPPER.convertValue(fromValue, toValueType);
     }
 
+    public static String writeValueAsString(Object value) {
+        try {
+            return MAPPER.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     public static <T> T readValue(Object content, Class<T> valueType) {
         try {
             return MAPPER.readValue(MAPPER.writeValueAsString(content), valueType);
@@ -0,0 +1,83 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.utils;
+
+import com.github.sqlinjection.autoconfigure.PermitAndDenyCustomizer;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.ConfigurationPropertySources;
+import org.springframework.boot.env.PropertiesPropertySourceLoader;
+import org.springframework.boot.env.PropertySourceLoader;
+import org.springframework.boot.env.YamlPropertySourceLoader;
+import org.springframework.core.env.PropertySource;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+
+import static com.github.sqlinjection.autoconfigure.properties.SqlInjectionProperties.SQL_INJECTION_PREFIX;
+
+/**
+ * Binds the {@link PermitAndDenyCustomizer} outside of the application context, e.g. from a watched file.
+ *
+ * @author sean chen
+ * @date 2026/10/18 10:05 PM
+ */
+public class PermitAndDenyCustomizerUtils {
+
+    private static final String CONFIG_PREFIX = SQL_INJECTION_PREFIX + ".config";
+
+    private PermitAndDenyCustomizerUtils() {
+    }
+
+    /**
+     * Bind the customizer under {@code mybatis.plugin.sqlinjection.wall.config}
+     *
+     * @param binder The binder
+     * @return the customizer, a default one if nothing is bound
+     */
+    public static PermitAndDenyCustomizer bind(Binder binder) {
+        return binder.bind(CONFIG_PREFIX, Bindable.of(PermitAndDenyCustomizer.class))
+                .orElseGet(PermitAndDenyCustomizer::new);
+    }
+
+    /**
+     * Bind the customizer from a properties or yaml file
+     *
+     * @param file The file
+     * @return the customizer, a default one if nothing is bound
+     * @throws IOException if the file can not be loaded
+     */
+    public static PermitAndDenyCustomizer load(File file) throws IOException {
+        PropertySourceLoader loader = isYaml(file) ? new YamlPropertySourceLoader() : new PropertiesPropertySourceLoader();
+        List<PropertySource<?>> sources = loader.load(file.getName(), new FileSystemResource(file));
+        return bind(new Binder(ConfigurationPropertySources.from(sources)));
+    }
+
+    private static boolean isYaml(File file) {
+        String name = file.getName();
+        return name.endsWith(".yml") || name.endsWith(".yaml");
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.utils;
+
+import org.springframework.lang.Nullable;
+
+import javax.sql.DataSource;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolve the target data sources of spring's {@code AbstractRoutingDataSource}, without a
+ * compile time dependency on spring-jdbc.
+ *
+ * @author sean chen
+ * @date 2026/10/18 2:35 PM
+ */
+public class RoutingDataSourceUtils {
+
+    private static final String ROUTING_DATA_SOURCE_CLASS = "org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource";
+
+    @Nullable
+    private static final Class<?> ROUTING_DATA_SOURCE = loadRoutingDataSource();
+
+    @Nullable
+    private static final MethodHandle DETERMINE_TARGET_DATA_SOURCE = routingHandle("determineTargetDataSource");
+
+    @Nullable
+    private static final MethodHandle GET_RESOLVED_DATA_SOURCES = routingHandle("getResolvedDataSources");
+
+    private RoutingDataSourceUtils() {
+    }
+
+    public static boolean isRoutingDataSource(@Nullable DataSource dataSource) {
+        return ROUTING_DATA_SOURCE != null && ROUTING_DATA_SOURCE.isInstance(dataSource);
+    }
+
+    /**
+     * Determine the data source the current statement is routed to
+     *
+     * @param dataSource The data source of the mybatis environment
+     * @return the current target data source, or the data source itself if it does not route
+     */
+    public static DataSource determineTargetDataSource(DataSource dataSource) {
+        if (DETERMINE_TARGET_DATA_SOURCE == null || !isRoutingDataSource(dataSource)) {
+            return dataSource;
+        }
+        try {
+            return (DataSource) DETERMINE_TARGET_DATA_SOURCE.invoke(dataSource);
+        } catch (Throwable throwable) {
+            return dataSource;
+        }
+    }
+
+    /**
+     * Get all the data sources a routing data source may route to
+     *
+     * @param dataSource The data source of the mybatis environment
+     * @return the target data sources, or the data source itself if it does not route
+     */
+    public static Collection<DataSource> getTargetDataSources(DataSource dataSource) {
+        if (GET_RESOLVED_DATA_SOURCES == null || !isRoutingDataSource(dataSource)) {
+            return Collections.singletonList(dataSource);
+        }
+        try {
+            Map<?, ?> resolved = (Map<?, ?>) GET_RESOLVED_DATA_SOURCES.invoke(dataSource);
+            List<DataSource> targets = new ArrayList<>(resolved.size());
+            for (Object target : resolved.values()) {
+                if (target instanceof DataSource) {
+                    targets.add((DataSource) target);
+                }
+            }
+            return targets;
+        } catch (Throwable throwable) {
+            return Collections.singletonList(dataSource);
+        }
+    }
+
+    @Nullable
+    private static Class<?> loadRoutingDataSource() {
+        try {
+            return Class.forName(ROUTING_DATA_SOURCE_CLASS, false, RoutingDataSourceUtils.class.getClassLoader());
+        } catch (Throwable throwable) {
+            return null;
+        }
+    }
+
+    @Nullable
+    private static MethodHandle routingHandle(String methodName) {
+        if (ROUTING_DATA_SOURCE == null) {
+            return null;
+        }
+        try {
+            Method method = ROUTING_DATA_SOURCE.getDeclaredMethod(methodName);
+            method.setAccessible(true);
+            return MethodHandles.lookup()
+                    .unreflect(method)
+                    .asType(MethodType.methodType(Object.class, Object.class));
+        } catch (Throwable throwable) {
+            return null;
+        }
+    }
+}
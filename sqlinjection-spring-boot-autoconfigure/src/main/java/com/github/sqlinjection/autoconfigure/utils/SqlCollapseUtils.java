@@ -0,0 +1,328 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.utils;
+
+import org.springframework.util.Assert;
+
+/**
+ * Collapses the large placeholder lists of a sql before it is checked by the druid wall.
+ * <p>
+ * An {@code IN} list of placeholders keeps its first placeholder, the tuples of an {@code IN} list of placeholder
+ * tuples and the tuples of {@code VALUES} which repeat the shape of the first one are dropped, so
+ * <pre>
+ * where id in (?, ?, ?) and (a, b) in ((?, ?), (?, ?))   -&gt;   where id in (?) and (a, b) in ((?, ?))
+ * values (?, 1, null), (?, 2, null), (?, 3, null)      -&gt;   values (?, 1, null)
+ * </pre>
+ * and the druid wall parses a sql whose size no longer grows with the number of parameters. The constants of
+ * {@code IN} lists are kept, since the wall evaluates constant conditions. Only placeholders, numbers and the
+ * {@code NULL}, {@code TRUE}, {@code FALSE} and {@code DEFAULT} keywords are dropped, never quotes, comments or other
+ * keywords, and a dropped line break is kept, so whatever the dialect lexes as string literals and comments is
+ * unchanged. Lists inside quotes and comments are left as they are.
+ *
+ * @author sean chen
+ * @date 2026/10/18 6:05 PM
+ */
+public class SqlCollapseUtils {
+
+    private static final int NONE = -1;
+
+    private static final int PLACEHOLDER = 0;
+    private static final int NUMBER = 1;
+    private static final String[] KEYWORDS = {"null", "true", "false", "default"};
+
+    private SqlCollapseUtils() {
+    }
+
+    /**
+     * Collapse the placeholder lists and the repeated value tuples of the sql
+     *
+     * @param sql The sql
+     * @return the collapsed sql, or the given sql if nothing is collapsed
+     */
+    public static String collapse(String sql) {
+        Assert.notNull(sql, "Sql must not be null.");
+        int length = sql.length();
+        StringBuilder collapsed = null;
+        // the sql before copied is already appended to collapsed
+        int copied = 0;
+        int i = 0;
+        while (i < length) {
+            char c = sql.charAt(i);
+            if (c == '\'' || c == '"' || c == '`') {
+                i = skipQuoted(sql, i, c);
+            } else if (c == '#' || (c == '-' && startsWith(sql, i, "--"))) {
+                i = skipLine(sql, i);
+            } else if (c == '/' && startsWith(sql, i, "/*")) {
+                i = skipBlockComment(sql, i);
+            } else if (isWordPart(c)) {
+                int wordEnd = wordEnd(sql, i);
+                int open = skipWhitespace(sql, wordEnd);
+                boolean in = isKeyword(sql, i, wordEnd, "in");
+                if (open < length && sql.charAt(open) == '('
+                        && (in || isKeyword(sql, i, wordEnd, "values") || isKeyword(sql, i, wordEnd, "value"))) {
+                    int tupleOpen = in ? skipWhitespace(sql, open + 1) : open;
+                    if (tupleOpen < length && sql.charAt(tupleOpen) == '(') {
+                        int firstEnd = listEnd(sql, tupleOpen, in);
+                        int lastEnd = firstEnd == NONE ? NONE : repeatedTuplesEnd(sql, tupleOpen, firstEnd, in);
+                        if (lastEnd != NONE) {
+                            collapsed = append(collapsed, sql, copied, firstEnd, lastEnd);
+                            copied = lastEnd;
+                            i = lastEnd;
+                            continue;
+                        }
+                    } else if (in) {
+                        int close = listEnd(sql, open, true) - 1;
+                        int firstEnd = close < 0 ? NONE : elementEnd(sql, skipWhitespace(sql, open + 1), true);
+                        if (firstEnd != NONE && skipWhitespace(sql, firstEnd) < close) {
+                            collapsed = append(collapsed, sql, copied, firstEnd, close);
+                            copied = close;
+                            i = close;
+                            continue;
+                        }
+                    }
+                }
+                i = wordEnd;
+            } else {
+                i++;
+            }
+        }
+        if (collapsed == null) {
+            return sql;
+        }
+        return collapsed.append(sql, copied, length).toString();
+    }
+
+    /**
+     * Append the sql before {@code from} and skip the sql before {@code to}, keeping a line break of the skipped sql
+     */
+    private static StringBuilder append(StringBuilder collapsed, String sql, int copied, int from, int to) {
+        StringBuilder builder = collapsed != null ? collapsed : new StringBuilder(Math.min(sql.length(), 256));
+        builder.append(sql, copied, from);
+        for (int i = from; i < to; i++) {
+            char c = sql.charAt(i);
+            if (c == '\n' || c == '\r') {
+                builder.append('\n');
+                break;
+            }
+        }
+        return builder;
+    }
+
+    /**
+     * @param open             The {@code (} of the first tuple
+     * @param firstEnd         The end of the first tuple
+     * @param placeholdersOnly Whether the tuples may only have placeholders
+     * @return the end of the last tuple with the shape of the first one, or none if the first one is not repeated
+     */
+    private static int repeatedTuplesEnd(String sql, int open, int firstEnd, boolean placeholdersOnly) {
+        int lastEnd = NONE;
+        int end = firstEnd;
+        while (true) {
+            int comma = skipWhitespace(sql, end);
+            if (comma >= sql.length() || sql.charAt(comma) != ',') {
+                return lastEnd;
+            }
+            int next = skipWhitespace(sql, comma + 1);
+            if (next >= sql.length() || sql.charAt(next) != '(') {
+                return lastEnd;
+            }
+            int nextEnd = listEnd(sql, next, placeholdersOnly);
+            if (nextEnd == NONE || !isSameShape(sql, open, next)) {
+                return lastEnd;
+            }
+            lastEnd = nextEnd;
+            end = nextEnd;
+        }
+    }
+
+    /**
+     * @param open             The {@code (} of the list
+     * @param placeholdersOnly Whether the list may only have placeholders
+     * @return the end of a list of placeholders, numbers and keywords after its {@code )}, or none if it is not one
+     */
+    private static int listEnd(String sql, int open, boolean placeholdersOnly) {
+        int i = open + 1;
+        while (true) {
+            int end = elementEnd(sql, skipWhitespace(sql, i), placeholdersOnly);
+            if (end == NONE) {
+                return NONE;
+            }
+            i = skipWhitespace(sql, end);
+            if (i >= sql.length()) {
+                return NONE;
+            }
+            char c = sql.charAt(i);
+            if (c == ')') {
+                return i + 1;
+            }
+            if (c != ',') {
+                return NONE;
+            }
+            i++;
+        }
+    }
+
+    private static boolean isSameShape(String sql, int open, int otherOpen) {
+        int i = skipWhitespace(sql, open + 1);
+        int j = skipWhitespace(sql, otherOpen + 1);
+        while (true) {
+            int end = elementEnd(sql, i, false);
+            int otherEnd = elementEnd(sql, j, false);
+            if (elementKind(sql, i, end) != elementKind(sql, j, otherEnd)) {
+                return false;
+            }
+            i = skipWhitespace(sql, end);
+            j = skipWhitespace(sql, otherEnd);
+            char c = sql.charAt(i);
+            if (c != sql.charAt(j)) {
+                return false;
+            }
+            if (c == ')') {
+                return true;
+            }
+            i = skipWhitespace(sql, i + 1);
+            j = skipWhitespace(sql, j + 1);
+        }
+    }
+
+    /**
+     * @return the end of the placeholder, number or keyword at the index, or none if there is none
+     */
+    private static int elementEnd(String sql, int start, boolean placeholdersOnly) {
+        int length = sql.length();
+        if (start >= length) {
+            return NONE;
+        }
+        char c = sql.charAt(start);
+        if (c == '?') {
+            return start + 1;
+        }
+        if (placeholdersOnly) {
+            return NONE;
+        }
+        if (isDigit(c)) {
+            int i = start + 1;
+            while (i < length && isDigit(sql.charAt(i))) {
+                i++;
+            }
+            if (i + 1 < length && sql.charAt(i) == '.' && isDigit(sql.charAt(i + 1))) {
+                i += 2;
+                while (i < length && isDigit(sql.charAt(i))) {
+                    i++;
+                }
+            }
+            return i < length && isWordPart(sql.charAt(i)) ? NONE : i;
+        }
+        int end = wordEnd(sql, start);
+        for (int k = 0; k < KEYWORDS.length; k++) {
+            if (isKeyword(sql, start, end, KEYWORDS[k])) {
+                return end;
+            }
+        }
+        return NONE;
+    }
+
+    private static int elementKind(String sql, int start, int end) {
+        char c = sql.charAt(start);
+        if (c == '?') {
+            return PLACEHOLDER;
+        }
+        if (isDigit(c)) {
+            return NUMBER;
+        }
+        for (int k = 0; k < KEYWORDS.length; k++) {
+            if (isKeyword(sql, start, end, KEYWORDS[k])) {
+                return NUMBER + 1 + k;
+            }
+        }
+        throw new IllegalStateException("Not an element: " + sql.substring(start, end));
+    }
+
+    private static boolean isKeyword(String sql, int start, int end, String keyword) {
+        return end - start == keyword.length()
+                && sql.regionMatches(true, start, keyword, 0, keyword.length())
+                && (start == 0 || (!isWordPart(sql.charAt(start - 1)) && sql.charAt(start - 1) != '.'));
+    }
+
+    private static int skipQuoted(String sql, int start, char quote) {
+        int i = start + 1;
+        int length = sql.length();
+        while (i < length) {
+            if (sql.charAt(i++) == quote) {
+                // a doubled quote is an escaped quote
+                if (i < length && sql.charAt(i) == quote) {
+                    i++;
+                } else {
+                    return i;
+                }
+            }
+        }
+        return length;
+    }
+
+    private static int skipLine(String sql, int start) {
+        int i = start;
+        while (i < sql.length() && sql.charAt(i) != '\n' && sql.charAt(i) != '\r') {
+            i++;
+        }
+        return i;
+    }
+
+    private static int skipBlockComment(String sql, int start) {
+        int end = sql.indexOf("*/", start + 2);
+        return end < 0 ? sql.length() : end + 2;
+    }
+
+    private static int skipWhitespace(String sql, int start) {
+        int i = start;
+        while (i < sql.length() && isWhitespace(sql.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static int wordEnd(String sql, int start) {
+        int i = start;
+        while (i < sql.length() && isWordPart(sql.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private static boolean startsWith(String sql, int start, String prefix) {
+        return sql.startsWith(prefix, start);
+    }
+
+    private static boolean isWordPart(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '\f';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
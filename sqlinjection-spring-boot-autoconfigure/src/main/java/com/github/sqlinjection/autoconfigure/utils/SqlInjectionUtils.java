@@ -23,28 +23,45 @@
  */
 package com.github.sqlinjection.autoconfigure.utils;
 
+import java.util.Locale;
 import java.util.Objects;
-import java.util.regex.Pattern;
 
 
 /**
+ * Detects sql injection risk in user supplied strings.
+ * <p>
+ * The input is scanned once, in linear time and without copying it, for the rules of the former regex
+ * (case insensitive, matched against the lower cased input)
+ * <pre>
+ * \b(and|or)\b.{1,6}?(=|&gt;|&lt;|\bin\b|\blike\b)
+ * /\*.+?\*&#47;
+ * &lt;\s*script\b
+ * \bexec\b
+ * union.+?select
+ * update.+?set
+ * insert\s+into.+?values
+ * (select|delete).+?from
+ * (create|alter|drop|truncate)\s+(table|database)
+ * \b(alert\(|confirm\(|expression\(|prompt\(|benchmark\s*?\(.*\)|sleep\s*?\(.*\)|load_file\s*?\()
+ * \b(updatexml\s*?\(.*\)|extractvalue\s*?\(.*\)|floor\s*?\(.*\))
+ * </pre>
+ * with the exact semantics of {@link java.util.regex.Pattern}: {@code .} matches a code point except line terminators,
+ * {@code \s} matches ascii whitespace and {@code \b} treats letters, digits, {@code _} and non spacing marks with a base
+ * character as word characters. Lower casing which changes the length of the input, that is {@code U+0130} and the
+ * turkish, azerbaijani and lithuanian locales, falls back to scanning a lower cased copy.
+ *
  * @author sean chen
  * @date 2023/9/3 10:22 PM
  */
 @SuppressWarnings("unused")
 public class SqlInjectionUtils {
 
-    private static final String SQL_INJECTION_REGEX = "\\b(and|or)\\b.{1,6}?(=|>|<|\\bin\\b|\\blike\\b)"
-            + "|/\\*.+?\\*/"
-            + "|<\\s*script\\b"
-            + "|\\bEXEC\\b"
-            + "|UNION.+?SELECT"
-            + "|UPDATE.+?SET"
-            + "|INSERT\\s+INTO.+?VALUES"
-            + "|(SELECT|DELETE).+?FROM|(CREATE|ALTER|DROP|TRUNCATE)\\s+(TABLE|DATABASE)"
-            + "|\\b(alert\\(|confirm\\(|expression\\(|prompt\\(|benchmark\\s*?\\(.*\\)|sleep\\s*?\\(.*\\)|load_file\\s*?\\()"
-            + "|\\b(updatexml\\s*?\\(.*\\)|extractvalue\\s*?\\(.*\\)|floor\\s*?\\(.*\\))";
-    private static final Pattern SQL_INJECTION_PATTERN = Pattern.compile(SQL_INJECTION_REGEX, Pattern.CASE_INSENSITIVE);
+    private static final int NONE = -1;
+
+    /**
+     * The {@code .{1,6}} between a logical operator and a comparison
+     */
+    private static final int MAX_LOGICAL_GAP = 6;
 
     private SqlInjectionUtils() {
     }
@@ -56,8 +73,376 @@ public class SqlInjectionUtils {
      * @return {@code true} if the sql is safe
      */
     public static boolean isValidSql(String sql) {
+        return isValidSql((CharSequence) sql);
+    }
+
+    /**
+     * Check if the given sql has sql injection risk
+     *
+     * @param sql The input sql
+     * @return {@code true} if the sql is safe
+     */
+    public static boolean isValidSql(CharSequence sql) {
         Objects.requireNonNull(sql, "Sql must not be null.");
-        String sqlToCheck = sql.toLowerCase();
-        return !SQL_INJECTION_PATTERN.matcher(sqlToCheck).find();
+        if (isLowerCaseLengthSensitive(sql)) {
+            return !containsInjection(sql.toString().toLowerCase(), false);
+        }
+        return !containsInjection(sql, true);
+    }
+
+    private static boolean isLowerCaseLengthSensitive(CharSequence sql) {
+        String language = Locale.getDefault().getLanguage();
+        if ("tr".equals(language) || "az".equals(language) || "lt".equals(language)) {
+            return true;
+        }
+        for (int i = 0, length = sql.length(); i < length; i++) {
+            // LATIN CAPITAL LETTER I WITH DOT ABOVE lower cases to two chars
+            if (sql.charAt(i) == '\u0130') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsInjection(CharSequence sql, boolean lowerCase) {
+        int length = sql.length();
+
+        // the end of the earliest left side of "x.+?y" on the current line
+        int commentEnd = NONE;
+        int unionEnd = NONE;
+        int updateEnd = NONE;
+        int insertIntoEnd = NONE;
+        int selectOrDeleteEnd = NONE;
+        int functionCallEnd = NONE;
+        // the ends of the two latest "and" / "or" on the current line and their code point positions
+        int logicalEnd = NONE;
+        int logicalEndCodePoint = 0;
+        int previousLogicalEnd = NONE;
+        int previousLogicalEndCodePoint = 0;
+        // the end of the latest function name and whether the call must be closed by )
+        int functionEnd = NONE;
+        boolean functionCallMustClose = false;
+        int lessThanEnd = NONE;
+
+        int whitespaceStart = 0;
+        int codePoint = 0;
+        boolean wordBefore = false;
+        boolean baseCharacterBefore = false;
+        char previous = 0;
+
+        for (int i = 0; i < length; i++) {
+            char c = charAt(sql, i, lowerCase);
+
+            switch (c) {
+                case '=':
+                case '>':
+                    if (isLogicalComparison(i, codePoint, logicalEnd, logicalEndCodePoint, previousLogicalEnd, previousLogicalEndCodePoint)) {
+                        return true;
+                    }
+                    break;
+                case '<':
+                    if (isLogicalComparison(i, codePoint, logicalEnd, logicalEndCodePoint, previousLogicalEnd, previousLogicalEndCodePoint)) {
+                        return true;
+                    }
+                    lessThanEnd = i + 1;
+                    break;
+                case '/':
+                    if (commentEnd == NONE && regionMatches(sql, lowerCase, i, "/*")) {
+                        commentEnd = i + 2;
+                    }
+                    break;
+                case '*':
+                    if (commentEnd != NONE && commentEnd < i && regionMatches(sql, lowerCase, i, "*/")) {
+                        return true;
+                    }
+                    break;
+                case '(':
+                    if (functionEnd != NONE && functionEnd == whitespaceStart) {
+                        if (!functionCallMustClose) {
+                            return true;
+                        }
+                        if (functionCallEnd == NONE) {
+                            functionCallEnd = i + 1;
+                        }
+                    }
+                    break;
+                case ')':
+                    if (functionCallEnd != NONE && functionCallEnd <= i) {
+                        return true;
+                    }
+                    break;
+                case 'a':
+                    if (!wordBefore) {
+                        if (isWord(sql, lowerCase, i, "and")) {
+                            previousLogicalEnd = logicalEnd;
+                            previousLogicalEndCodePoint = logicalEndCodePoint;
+                            logicalEnd = i + 3;
+                            logicalEndCodePoint = codePoint + 3;
+                        } else if (regionMatches(sql, lowerCase, i, "alert(")) {
+                            return true;
+                        }
+                    }
+                    break;
+                case 'b':
+                    if (!wordBefore && regionMatches(sql, lowerCase, i, "benchmark")) {
+                        functionEnd = i + 9;
+                        functionCallMustClose = true;
+                    }
+                    break;
+                case 'c':
+                    if (!wordBefore && regionMatches(sql, lowerCase, i, "confirm(")) {
+                        return true;
+                    }
+                    break;
+                case 'd':
+                    if (regionMatches(sql, lowerCase, i, "delete")) {
+                        if (selectOrDeleteEnd == NONE) {
+                            selectOrDeleteEnd = i + 6;
+                        }
+                    } else if (regionMatches(sql, lowerCase, i, "database") && isAfterDdl(sql, lowerCase, whitespaceStart, i)) {
+                        return true;
+                    }
+                    break;
+                case 'e':
+                    if (!wordBefore) {
+                        if (isWord(sql, lowerCase, i, "exec") || regionMatches(sql, lowerCase, i, "expression(")) {
+                            return true;
+                        }
+                        if (regionMatches(sql, lowerCase, i, "extractvalue")) {
+                            functionEnd = i + 12;
+                            functionCallMustClose = true;
+                        }
+                    }
+                    break;
+                case 'f':
+                    if (selectOrDeleteEnd != NONE && selectOrDeleteEnd < i && regionMatches(sql, lowerCase, i, "from")) {
+                        return true;
+                    }
+                    if (!wordBefore && regionMatches(sql, lowerCase, i, "floor")) {
+                        functionEnd = i + 5;
+                        functionCallMustClose = true;
+                    }
+                    break;
+                case 'i':
+                    if (!wordBefore && isWord(sql, lowerCase, i, "in")
+                            && isLogicalComparison(i, codePoint, logicalEnd, logicalEndCodePoint, previousLogicalEnd, previousLogicalEndCodePoint)) {
+                        return true;
+                    }
+                    if (insertIntoEnd == NONE && whitespaceStart < i && regionMatches(sql, lowerCase, i, "into")
+                            && regionMatches(sql, lowerCase, whitespaceStart - 6, "insert")) {
+                        insertIntoEnd = i + 4;
+                    }
+                    break;
+                case 'l':
+                    if (!wordBefore) {
+                        if (isWord(sql, lowerCase, i, "like")
+                                && isLogicalComparison(i, codePoint, logicalEnd, logicalEndCodePoint, previousLogicalEnd, previousLogicalEndCodePoint)) {
+                            return true;
+                        }
+                        if (regionMatches(sql, lowerCase, i, "load_file")) {
+                            functionEnd = i + 9;
+                            functionCallMustClose = false;
+                        }
+                    }
+                    break;
+                case 'o':
+                    if (!wordBefore && isWord(sql, lowerCase, i, "or")) {
+                        previousLogicalEnd = logicalEnd;
+                        previousLogicalEndCodePoint = logicalEndCodePoint;
+                        logicalEnd = i + 2;
+                        logicalEndCodePoint = codePoint + 2;
+                    }
+                    break;
+                case 'p':
+                    if (!wordBefore && regionMatches(sql, lowerCase, i, "prompt(")) {
+                        return true;
+                    }
+                    break;
+                case 's':
+                    if (regionMatches(sql, lowerCase, i, "select")) {
+                        if (unionEnd != NONE && unionEnd < i) {
+                            return true;
+                        }
+                        if (selectOrDeleteEnd == NONE) {
+                            selectOrDeleteEnd = i + 6;
+                        }
+                    } else if (regionMatches(sql, lowerCase, i, "set")) {
+                        if (updateEnd != NONE && updateEnd < i) {
+                            return true;
+                        }
+                    } else if (regionMatches(sql, lowerCase, i, "script")) {
+                        if (lessThanEnd != NONE && lessThanEnd == whitespaceStart && !isWordAfterLetter(sql, lowerCase, i + 6)) {
+                            return true;
+                        }
+                    } else if (!wordBefore && regionMatches(sql, lowerCase, i, "sleep")) {
+                        functionEnd = i + 5;
+                        functionCallMustClose = true;
+                    }
+                    break;
+                case 't':
+                    if (regionMatches(sql, lowerCase, i, "table") && isAfterDdl(sql, lowerCase, whitespaceStart, i)) {
+                        return true;
+                    }
+                    break;
+                case 'u':
+                    if (regionMatches(sql, lowerCase, i, "union")) {
+                        if (unionEnd == NONE) {
+                            unionEnd = i + 5;
+                        }
+                    } else if (regionMatches(sql, lowerCase, i, "update")) {
+                        if (updateEnd == NONE) {
+                            updateEnd = i + 6;
+                        }
+                        if (!wordBefore && regionMatches(sql, lowerCase, i + 6, "xml")) {
+                            functionEnd = i + 9;
+                            functionCallMustClose = true;
+                        }
+                    }
+                    break;
+                case 'v':
+                    if (insertIntoEnd != NONE && insertIntoEnd < i && regionMatches(sql, lowerCase, i, "values")) {
+                        return true;
+                    }
+                    break;
+                case '\n':
+                case '\r':
+                case '\u0085':
+                case '\u2028':
+                case '\u2029':
+                    // . does not match line terminators
+                    commentEnd = NONE;
+                    unionEnd = NONE;
+                    updateEnd = NONE;
+                    insertIntoEnd = NONE;
+                    selectOrDeleteEnd = NONE;
+                    functionCallEnd = NONE;
+                    logicalEnd = NONE;
+                    previousLogicalEnd = NONE;
+                    break;
+                default:
+                    break;
+            }
+
+            if (!isWhitespace(c)) {
+                whitespaceStart = i + 1;
+            }
+
+            // the code points and word boundaries are resolved like Character.codePointAt / codePointBefore do
+            boolean pairedLowSurrogate = Character.isLowSurrogate(c) && Character.isHighSurrogate(previous);
+            if (!pairedLowSurrogate) {
+                codePoint++;
+            }
+            int codePointAt = c;
+            if (Character.isHighSurrogate(c) && i + 1 < length) {
+                char next = charAt(sql, i + 1, lowerCase);
+                if (Character.isLowSurrogate(next)) {
+                    codePointAt = Character.toCodePoint(c, next);
+                }
+            }
+            int codePointBefore = pairedLowSurrogate ? Character.toCodePoint(previous, c) : c;
+            baseCharacterBefore = Character.isLetterOrDigit(codePointAt) || (isNonSpacingMark(codePointAt) && baseCharacterBefore);
+            wordBefore = isWordCharacter(codePointBefore) || (isNonSpacingMark(codePointBefore) && baseCharacterBefore);
+            previous = c;
+        }
+        return false;
+    }
+
+    /**
+     * {@code \b(and|or)\b.{1,6}?} ends at the given position
+     */
+    private static boolean isLogicalComparison(int index, int codePoint, int logicalEnd, int logicalEndCodePoint,
+                                               int previousLogicalEnd, int previousLogicalEndCodePoint) {
+        if (logicalEnd != NONE && logicalEnd < index) {
+            return codePoint - logicalEndCodePoint <= MAX_LOGICAL_GAP;
+        }
+        // the latest operator ends right here, so the one before it is the nearest
+        return previousLogicalEnd != NONE && codePoint - previousLogicalEndCodePoint <= MAX_LOGICAL_GAP;
+    }
+
+    /**
+     * {@code (create|alter|drop|truncate)\s+} ends at the given position
+     */
+    private static boolean isAfterDdl(CharSequence sql, boolean lowerCase, int whitespaceStart, int index) {
+        return whitespaceStart < index
+                && (regionMatches(sql, lowerCase, whitespaceStart - 6, "create")
+                || regionMatches(sql, lowerCase, whitespaceStart - 5, "alter")
+                || regionMatches(sql, lowerCase, whitespaceStart - 4, "drop")
+                || regionMatches(sql, lowerCase, whitespaceStart - 8, "truncate"));
+    }
+
+    /**
+     * The literal is followed by a word boundary, the word boundary before it is checked by the caller
+     */
+    private static boolean isWord(CharSequence sql, boolean lowerCase, int index, String literal) {
+        return regionMatches(sql, lowerCase, index, literal) && !isWordAfterLetter(sql, lowerCase, index + literal.length());
+    }
+
+    /**
+     * Whether the code point at the given position is a word character, given that a letter precedes it,
+     * so a non spacing mark always has a base character
+     */
+    private static boolean isWordAfterLetter(CharSequence sql, boolean lowerCase, int index) {
+        if (index >= sql.length()) {
+            return false;
+        }
+        int codePoint = charAt(sql, index, lowerCase);
+        if (Character.isHighSurrogate((char) codePoint) && index + 1 < sql.length()) {
+            char next = charAt(sql, index + 1, lowerCase);
+            if (Character.isLowSurrogate(next)) {
+                codePoint = Character.toCodePoint((char) codePoint, next);
+            }
+        }
+        return isWordCharacter(codePoint) || isNonSpacingMark(codePoint);
+    }
+
+    private static boolean regionMatches(CharSequence sql, boolean lowerCase, int index, String literal) {
+        int length = literal.length();
+        if (index < 0 || index + length > sql.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (charAt(sql, index + i, lowerCase) != literal.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The char of the lower cased input, lower casing surrogate pairs as a whole
+     */
+    private static char charAt(CharSequence sql, int index, boolean lowerCase) {
+        char c = sql.charAt(index);
+        if (!lowerCase) {
+            return c;
+        }
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        if (Character.isHighSurrogate(c)) {
+            if (index + 1 < sql.length() && Character.isLowSurrogate(sql.charAt(index + 1))) {
+                return Character.highSurrogate(Character.toLowerCase(Character.toCodePoint(c, sql.charAt(index + 1))));
+            }
+            return c;
+        }
+        if (Character.isLowSurrogate(c)) {
+            if (index > 0 && Character.isHighSurrogate(sql.charAt(index - 1))) {
+                return Character.lowSurrogate(Character.toLowerCase(Character.toCodePoint(sql.charAt(index - 1), c)));
+            }
+            return c;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isWordCharacter(int codePoint) {
+        return codePoint == '_' || Character.isLetterOrDigit(codePoint);
+    }
+
+    private static boolean isNonSpacingMark(int codePoint) {
+        return Character.getType(codePoint) == Character.NON_SPACING_MARK;
     }
 }
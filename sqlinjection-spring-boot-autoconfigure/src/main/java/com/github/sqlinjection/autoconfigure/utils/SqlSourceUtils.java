@@ -0,0 +1,118 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.utils;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.SqlSource;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.apache.ibatis.scripting.defaults.RawSqlSource;
+import org.apache.ibatis.scripting.xmltags.*;
+
+import java.util.List;
+
+/**
+ * Analysis of the mybatis sql sources.
+ * <p>
+ * {@code #{}} parameters are bound by the jdbc driver and can not change the sql, only {@code ${}}
+ * substitutions, which mybatis parses into {@link TextSqlNode}s, and sql built by code can.
+ *
+ * @author sean chen
+ * @date 2026/10/18 6:40 PM
+ */
+public class SqlSourceUtils {
+
+    private static final String ROOT_SQL_NODE = "rootSqlNode";
+    private static final String CONTENTS = "contents";
+    private static final String IF_SQL_NODES = "ifSqlNodes";
+    private static final String DEFAULT_SQL_NODE = "defaultSqlNode";
+
+    private SqlSourceUtils() {
+    }
+
+    /**
+     * Whether the sql of the sql source is fully known without the parameters, so it can be validated ahead
+     *
+     * @param sqlSource The sql source of a mapped statement
+     * @return true if the sql source is static
+     */
+    public static boolean isStatic(SqlSource sqlSource) {
+        return sqlSource instanceof StaticSqlSource || sqlSource instanceof RawSqlSource;
+    }
+
+    /**
+     * Whether the sql of the sql source can not be changed by the parameters, that is, it contains no
+     * {@code ${}} substitution. Sql providers and unknown sql sources or sql nodes are never substitution free
+     *
+     * @param sqlSource The sql source of a mapped statement
+     * @return true if the sql source is substitution free
+     */
+    public static boolean isSubstitutionFree(SqlSource sqlSource) {
+        if (isStatic(sqlSource)) {
+            return true;
+        }
+        if (sqlSource instanceof DynamicSqlSource) {
+            try {
+                return isSubstitutionFreeNode((SqlNode) SystemMetaObject.forObject(sqlSource).getValue(ROOT_SQL_NODE));
+            } catch (RuntimeException e) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean isSubstitutionFreeNode(SqlNode sqlNode) {
+        if (sqlNode == null || sqlNode instanceof StaticTextSqlNode || sqlNode instanceof VarDeclSqlNode) {
+            return true;
+        }
+        if (sqlNode instanceof TextSqlNode) {
+            return !((TextSqlNode) sqlNode).isDynamic();
+        }
+
+        MetaObject metaObject = SystemMetaObject.forObject(sqlNode);
+        if (sqlNode instanceof MixedSqlNode) {
+            return isSubstitutionFreeNodes((List<SqlNode>) metaObject.getValue(CONTENTS));
+        }
+        if (sqlNode instanceof IfSqlNode || sqlNode instanceof TrimSqlNode || sqlNode instanceof ForEachSqlNode) {
+            return isSubstitutionFreeNode((SqlNode) metaObject.getValue(CONTENTS));
+        }
+        if (sqlNode instanceof ChooseSqlNode) {
+            return isSubstitutionFreeNodes((List<SqlNode>) metaObject.getValue(IF_SQL_NODES))
+                    && isSubstitutionFreeNode((SqlNode) metaObject.getValue(DEFAULT_SQL_NODE));
+        }
+        return false;
+    }
+
+    private static boolean isSubstitutionFreeNodes(List<SqlNode> sqlNodes) {
+        if (sqlNodes != null) {
+            for (SqlNode sqlNode : sqlNodes) {
+                if (!isSubstitutionFreeNode(sqlNode)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
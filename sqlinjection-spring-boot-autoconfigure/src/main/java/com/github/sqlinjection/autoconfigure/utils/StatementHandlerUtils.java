@@ -0,0 +1,161 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.utils;
+
+import org.apache.ibatis.executor.Executor;
+import org.apache.ibatis.executor.statement.BaseStatementHandler;
+import org.apache.ibatis.executor.statement.RoutingStatementHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Plugin;
+import org.apache.ibatis.reflection.MetaObject;
+import org.apache.ibatis.reflection.SystemMetaObject;
+import org.springframework.lang.Nullable;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+
+/**
+ * Direct accessors of the mybatis statement handler internals.
+ * <p>
+ * The private fields are resolved once into {@link MethodHandle}s, so the intercept path neither
+ * creates a {@link MetaObject} nor allocates. Unknown statement handlers fall back to {@link MetaObject}.
+ *
+ * @author sean chen
+ * @date 2026/10/18 11:20 AM
+ */
+public class StatementHandlerUtils {
+
+    private static final String STATEMENT_HANDLER_DELEGATE_MAPPED_STATEMENT = "delegate.mappedStatement";
+    private static final String STATEMENT_HANDLER_MAPPED_STATEMENT = "mappedStatement";
+
+    private static final MethodHandle PLUGIN_TARGET = getter(Plugin.class, "target", Object.class);
+    private static final MethodHandle ROUTING_DELEGATE = getter(RoutingStatementHandler.class, "delegate", StatementHandler.class);
+    private static final MethodHandle BASE_MAPPED_STATEMENT = getter(BaseStatementHandler.class, "mappedStatement", MappedStatement.class);
+    private static final MethodHandle BASE_EXECUTOR = getter(BaseStatementHandler.class, "executor", Executor.class);
+
+    private StatementHandlerUtils() {
+    }
+
+    /**
+     * Unwrap the target of nested mybatis plugin proxies
+     *
+     * @param target The intercepted target
+     * @return the statement handler
+     */
+    public static StatementHandler getTarget(Object target) {
+        Object current = target;
+        while (current instanceof Proxy) {
+            InvocationHandler handler = Proxy.getInvocationHandler(current);
+            if (!(handler instanceof Plugin)) {
+                break;
+            }
+            current = getPluginTarget((Plugin) handler);
+        }
+        return (StatementHandler) current;
+    }
+
+    /**
+     * Get the mapped statement of the statement handler
+     *
+     * @param statementHandler The statement handler
+     * @return the mapped statement
+     */
+    public static MappedStatement getMappedStatement(StatementHandler statementHandler) {
+        StatementHandler handler = statementHandler;
+        if (handler instanceof RoutingStatementHandler) {
+            handler = getDelegate((RoutingStatementHandler) handler);
+        }
+        if (handler instanceof BaseStatementHandler) {
+            return getMappedStatement((BaseStatementHandler) handler);
+        }
+
+        MetaObject metaObject = SystemMetaObject.forObject(statementHandler);
+        return (MappedStatement) (metaObject.hasGetter(STATEMENT_HANDLER_DELEGATE_MAPPED_STATEMENT)
+                ? metaObject.getValue(STATEMENT_HANDLER_DELEGATE_MAPPED_STATEMENT)
+                : metaObject.getValue(STATEMENT_HANDLER_MAPPED_STATEMENT));
+    }
+
+    /**
+     * Get the executor which prepares the statement of the statement handler
+     *
+     * @param statementHandler The statement handler
+     * @return the executor, or null if the statement handler is unknown
+     */
+    @Nullable
+    public static Executor getExecutor(StatementHandler statementHandler) {
+        StatementHandler handler = statementHandler;
+        if (handler instanceof RoutingStatementHandler) {
+            handler = getDelegate((RoutingStatementHandler) handler);
+        }
+        if (!(handler instanceof BaseStatementHandler)) {
+            return null;
+        }
+        try {
+            return (Executor) BASE_EXECUTOR.invokeExact((BaseStatementHandler) handler);
+        } catch (Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+    }
+
+    private static Object getPluginTarget(Plugin plugin) {
+        try {
+            return (Object) PLUGIN_TARGET.invokeExact(plugin);
+        } catch (Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+    }
+
+    private static StatementHandler getDelegate(RoutingStatementHandler handler) {
+        try {
+            return (StatementHandler) ROUTING_DELEGATE.invokeExact(handler);
+        } catch (Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+    }
+
+    private static MappedStatement getMappedStatement(BaseStatementHandler handler) {
+        try {
+            return (MappedStatement) BASE_MAPPED_STATEMENT.invokeExact(handler);
+        } catch (Throwable throwable) {
+            throw new IllegalStateException(throwable);
+        }
+    }
+
+    private static MethodHandle getter(Class<?> type, String fieldName, Class<?> fieldType) {
+        try {
+            Field field = type.getDeclaredField(fieldName);
+            field.setAccessible(true);
+            return MethodHandles.lookup()
+                    .unreflectGetter(field)
+                    .asType(MethodType.methodType(fieldType, type));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+}
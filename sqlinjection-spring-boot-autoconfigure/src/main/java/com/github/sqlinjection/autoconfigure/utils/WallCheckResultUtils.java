@@ -0,0 +1,95 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.utils;
+
+import com.alibaba.druid.wall.WallCheckResult;
+
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Extracts the objects a sql touched from the druid wall check result.
+ *
+ * @author sean chen
+ * @date 2026/10/18 8:50 PM
+ */
+public class WallCheckResultUtils {
+
+    private static final String[] NO_NAMES = new String[0];
+
+    private WallCheckResultUtils() {
+    }
+
+    /**
+     * Get the normalized names of the tables and functions the sql touched. Druid reports tables
+     * without their schema, so schemas are not included
+     *
+     * @param result The check result
+     * @return the names
+     */
+    public static String[] getObjectNames(WallCheckResult result) {
+        Map<String, ?> tables = result.getTableStats();
+        Map<String, ?> functions = result.getFunctionStats();
+        int size = (tables == null ? 0 : tables.size()) + (functions == null ? 0 : functions.size());
+        if (size == 0) {
+            return NO_NAMES;
+        }
+
+        String[] names = new String[size];
+        int i = 0;
+        if (tables != null) {
+            for (String table : tables.keySet()) {
+                names[i++] = normalize(table);
+            }
+        }
+        if (functions != null) {
+            for (String function : functions.keySet()) {
+                names[i++] = normalize(function);
+            }
+        }
+        return names;
+    }
+
+    /**
+     * Strip the quotes of a table or function name and lower case it
+     *
+     * @param name The name
+     * @return the normalized name
+     */
+    public static String normalize(String name) {
+        int start = 0;
+        int end = name.length();
+        while (start < end && isQuote(name.charAt(start))) {
+            start++;
+        }
+        while (end > start && isQuote(name.charAt(end - 1))) {
+            end--;
+        }
+        return name.substring(start, end).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isQuote(char c) {
+        return c == '`' || c == '"' || c == '[' || c == ']';
+    }
+}
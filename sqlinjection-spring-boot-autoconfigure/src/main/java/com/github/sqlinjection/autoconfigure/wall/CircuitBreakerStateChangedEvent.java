@@ -0,0 +1,60 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.wall;
+
+import org.springframework.context.ApplicationEvent;
+
+/**
+ * Published when the circuit breaker of the wall provider initialization changes its state.
+ *
+ * @author sean chen
+ * @date 2026/10/18 11:25 PM
+ */
+public class CircuitBreakerStateChangedEvent extends ApplicationEvent {
+
+    private static final long serialVersionUID = 1L;
+
+    private final ProviderCircuitBreaker.State previous;
+
+    private final ProviderCircuitBreaker.State current;
+
+    public CircuitBreakerStateChangedEvent(ProviderCircuitBreaker breaker, ProviderCircuitBreaker.State previous,
+                                           ProviderCircuitBreaker.State current) {
+        super(breaker);
+        this.previous = previous;
+        this.current = current;
+    }
+
+    public ProviderCircuitBreaker getBreaker() {
+        return (ProviderCircuitBreaker) getSource();
+    }
+
+    public ProviderCircuitBreaker.State getPrevious() {
+        return previous;
+    }
+
+    public ProviderCircuitBreaker.State getCurrent() {
+        return current;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.wall;
+
+import com.github.sqlinjection.autoconfigure.properties.SqlInjectionProperties;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.LongSupplier;
+
+/**
+ * Guards the initialization of the wall providers: resolving the db type, which may borrow a connection,
+ * and building the provider.
+ * <p>
+ * After {@code failureThreshold} consecutive failures the breaker opens and the initialization is not tried
+ * until the backoff elapsed. Then a single trial is let through, half open: a success closes the breaker,
+ * a failure opens it again with the backoff multiplied, up to the maximum backoff. So a transient outage
+ * never disables the plugin for good, and failing attempts do not pile onto the connection pool.
+ * <p>
+ * The state is one immutable snapshot swapped by compare-and-set.
+ *
+ * @author sean chen
+ * @date 2026/10/18 11:20 PM
+ */
+public class ProviderCircuitBreaker {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ProviderCircuitBreaker.class);
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    /**
+     * Notified on every state change, on the thread causing it
+     */
+    @FunctionalInterface
+    public interface Listener {
+
+        Listener NOOP = (breaker, previous, current) -> {
+        };
+
+        void onStateChange(ProviderCircuitBreaker breaker, State previous, State current);
+    }
+
+    private static final Snapshot CLOSED = new Snapshot(State.CLOSED, 0, 0L, 0L);
+
+    private final int failureThreshold;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final double multiplier;
+    private final Listener listener;
+    private final LongSupplier nanoTime;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(CLOSED);
+
+    public ProviderCircuitBreaker(SqlInjectionProperties.CircuitBreaker properties, Listener listener) {
+        this(properties, listener, System::nanoTime);
+    }
+
+    /**
+     * @param nanoTime The clock of the backoff, {@link System#nanoTime()} unless a test drives it
+     */
+    ProviderCircuitBreaker(SqlInjectionProperties.CircuitBreaker properties, Listener listener, LongSupplier nanoTime) {
+        this.failureThreshold = Math.max(1, properties.getFailureThreshold());
+        this.initialBackoffNanos = Math.max(1L, properties.getInitialBackoff().toNanos());
+        this.maxBackoffNanos = Math.max(initialBackoffNanos, properties.getMaxBackoff().toNanos());
+        this.multiplier = Math.max(1.0, properties.getMultiplier());
+        this.listener = listener;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Whether an initialization may be tried now. A caller which got true must report the outcome by
+     * {@link #onSuccess()} or {@link #onFailure()}
+     *
+     * @return false while the breaker is open, or half open with a trial in flight
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            Snapshot current = snapshot.get();
+            if (current.state == State.CLOSED) {
+                return true;
+            }
+            long now = nanoTime.getAsLong();
+            // a half open trial which never reported is given up after one backoff
+            long wait = current.state == State.OPEN ? current.retryAt - now : current.retryAt + current.backoff - now;
+            if (wait > 0) {
+                return false;
+            }
+            Snapshot trial = new Snapshot(State.HALF_OPEN, current.failures, current.backoff, now);
+            if (snapshot.compareAndSet(current, trial)) {
+                changed(current.state, State.HALF_OPEN);
+                return true;
+            }
+        }
+    }
+
+    public void onSuccess() {
+        while (true) {
+            Snapshot current = snapshot.get();
+            if (current == CLOSED) {
+                return;
+            }
+            if (snapshot.compareAndSet(current, CLOSED)) {
+                if (current.state != State.CLOSED) {
+                    LOGGER.info("The initialization of the sql injection plugin recovered.");
+                    changed(current.state, State.CLOSED);
+                }
+                return;
+            }
+        }
+    }
+
+    public void onFailure() {
+        while (true) {
+            Snapshot current = snapshot.get();
+            Snapshot next;
+            if (current.state == State.CLOSED) {
+                int failures = current.failures + 1;
+                next = failures < failureThreshold
+                        ? new Snapshot(State.CLOSED, failures, 0L, 0L)
+                        : open(failures, initialBackoffNanos);
+            } else if (current.state == State.HALF_OPEN) {
+                next = open(current.failures + 1, (long) Math.min(maxBackoffNanos, current.backoff * multiplier));
+            } else {
+                // acquired before the breaker opened
+                return;
+            }
+            if (snapshot.compareAndSet(current, next)) {
+                if (next.state == State.OPEN) {
+                    LOGGER.warn("The initialization of the sql injection plugin failed {} times, retry in {} ms.",
+                            next.failures, Duration.ofNanos(next.backoff).toMillis());
+                    changed(current.state, State.OPEN);
+                }
+                return;
+            }
+        }
+    }
+
+    public State getState() {
+        return snapshot.get().state;
+    }
+
+    /**
+     * @return how long the breaker stays open after its last failure, zero when closed
+     */
+    public Duration getBackoff() {
+        return Duration.ofNanos(snapshot.get().backoff);
+    }
+
+    private Snapshot open(int failures, long backoff) {
+        return new Snapshot(State.OPEN, failures, backoff, nanoTime.getAsLong() + backoff);
+    }
+
+    private void changed(State previous, State current) {
+        try {
+            listener.onStateChange(this, previous, current);
+        } catch (RuntimeException e) {
+            LOGGER.warn("Notify the state change of the circuit breaker error.", e);
+        }
+    }
+
+    private static final class Snapshot {
+
+        private final State state;
+        private final int failures;
+        private final long backoff;
+        /**
+         * When the breaker may be tried again if open, when the trial started if half open
+         */
+        private final long retryAt;
+
+        private Snapshot(State state, int failures, long backoff, long retryAt) {
+            this.state = state;
+            this.failures = failures;
+            this.backoff = backoff;
+            this.retryAt = retryAt;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.wall;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.wall.WallProvider;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The wall providers shared by all interceptors of the process, keyed by the db type and the digest of the
+ * customizer, which together decide the effective wall config.
+ * <p>
+ * An application with many sql session factories builds the wall config of a dialect once, and all their
+ * interceptors check with one provider and its warm druid sql caches. A provider is held weakly, so it is
+ * dropped once no interceptor uses it any more, e.g. after a reload. Customizers with callbacks can not be
+ * digested, their providers are never shared.
+ *
+ * @author sean chen
+ * @date 2026/10/18 11:40 PM
+ */
+public final class SharedWallProviders {
+
+    /**
+     * db type and customizer digest -> the provider
+     */
+    private static final ConcurrentMap<String, WeakReference<WallProvider>> PROVIDERS = new ConcurrentHashMap<>();
+
+    private SharedWallProviders() {
+    }
+
+    /**
+     * Get the shared wall provider of the db type and the wall config of the factory, it is built on the first call.
+     * Concurrent first calls may both build one, only the first one stored is shared
+     *
+     * @param factory The factory of the wall config
+     * @param dbType  The db type
+     * @return the wall provider
+     * @throws IllegalStateException if the db type is not supported
+     */
+    public static WallProvider getWallProvider(WallProviderFactory factory, DbType dbType) {
+        String digest = factory.getDigest();
+        if (digest == null) {
+            return factory.createWallProvider(dbType);
+        }
+        String key = dbType.name() + ':' + digest;
+        WeakReference<WallProvider> reference = PROVIDERS.get(key);
+        WallProvider provider = reference != null ? reference.get() : null;
+        if (provider != null) {
+            return provider;
+        }
+
+        WallProvider created = factory.createWallProvider(dbType);
+        // the providers nobody uses any more
+        PROVIDERS.values().removeIf(stale -> stale.get() == null);
+        while (true) {
+            reference = PROVIDERS.putIfAbsent(key, new WeakReference<>(created));
+            if (reference == null) {
+                return created;
+            }
+            provider = reference.get();
+            if (provider != null) {
+                return provider;
+            }
+            if (PROVIDERS.replace(key, reference, new WeakReference<>(created))) {
+                return created;
+            }
+        }
+    }
+
+    /**
+     * Get the number of shared wall providers still in use
+     *
+     * @return the number of providers
+     */
+    public static int size() {
+        int size = 0;
+        for (WeakReference<WallProvider> reference : PROVIDERS.values()) {
+            if (reference.get() != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+}
@@ -0,0 +1,150 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.wall;
+
+import com.alibaba.druid.wall.WallConfig;
+import com.github.sqlinjection.autoconfigure.utils.JsonUtils;
+import com.github.sqlinjection.autoconfigure.utils.WallCheckResultUtils;
+
+import java.util.*;
+
+/**
+ * What changed between two wall configs, so cached verdicts can be invalidated selectively.
+ * <p>
+ * Changed permit / deny / read only tables and functions only affect the sql which touched them. Any other
+ * change, including schemas, variants and objects which the check result does not report, affects all sql.
+ *
+ * @author sean chen
+ * @date 2026/10/18 9:00 PM
+ */
+public final class WallConfigDiff {
+
+    public static final WallConfigDiff NONE = new WallConfigDiff(false, Collections.emptySet());
+
+    private static final WallConfigDiff GLOBAL = new WallConfigDiff(true, Collections.emptySet());
+
+    private static final Set<String> SET_PROPERTIES = new HashSet<>(Arrays.asList(
+            "denyFunctions", "denyTables", "denySchemas", "denyVariants", "denyObjects",
+            "permitFunctions", "permitTables", "permitSchemas", "permitVariants", "readOnlyTables",
+            "tenantCallBack", "updateCheckHandler"));
+
+    private final boolean global;
+    private final Set<String> objectNames;
+
+    private WallConfigDiff(boolean global, Set<String> objectNames) {
+        this.global = global;
+        this.objectNames = objectNames;
+    }
+
+    public static WallConfigDiff between(WallConfig previous, WallConfig current) {
+        if (!previous.getDenySchemas().equals(current.getDenySchemas())
+                || !previous.getPermitSchemas().equals(current.getPermitSchemas())
+                || !previous.getDenyVariants().equals(current.getDenyVariants())
+                || !previous.getPermitVariants().equals(current.getPermitVariants())
+                || !previous.getDenyObjects().equals(current.getDenyObjects())
+                || previous.getTenantCallBack() != current.getTenantCallBack()
+                || previous.getUpdateCheckHandler() != current.getUpdateCheckHandler()
+                || !getSettings(previous).equals(getSettings(current))) {
+            return GLOBAL;
+        }
+
+        Set<String> objectNames = new HashSet<>();
+        addChanged(objectNames, previous.getDenyTables(), current.getDenyTables());
+        addChanged(objectNames, previous.getPermitTables(), current.getPermitTables());
+        addChanged(objectNames, previous.getReadOnlyTables(), current.getReadOnlyTables());
+        addChanged(objectNames, previous.getDenyFunctions(), current.getDenyFunctions());
+        addChanged(objectNames, previous.getPermitFunctions(), current.getPermitFunctions());
+        return objectNames.isEmpty() ? NONE : new WallConfigDiff(false, objectNames);
+    }
+
+    public WallConfigDiff merge(WallConfigDiff other) {
+        if (global || other.global) {
+            return GLOBAL;
+        }
+        if (other.objectNames.isEmpty()) {
+            return this;
+        }
+        if (objectNames.isEmpty()) {
+            return other;
+        }
+        Set<String> merged = new HashSet<>(objectNames);
+        merged.addAll(other.objectNames);
+        return new WallConfigDiff(false, merged);
+    }
+
+    public boolean isEmpty() {
+        return !global && objectNames.isEmpty();
+    }
+
+    public boolean isGlobal() {
+        return global;
+    }
+
+    /**
+     * Whether the verdict of sql which touched the given objects may have changed
+     *
+     * @param names The normalized names of the tables and functions
+     * @return true if the verdict must be invalidated
+     */
+    public boolean affects(String[] names) {
+        if (global) {
+            return true;
+        }
+        for (String name : names) {
+            if (objectNames.contains(name)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public String toString() {
+        return global ? "all" : objectNames.toString();
+    }
+
+    private static void addChanged(Set<String> objectNames, Set<String> previous, Set<String> current) {
+        for (String name : previous) {
+            if (!current.contains(name)) {
+                objectNames.add(WallCheckResultUtils.normalize(name));
+            }
+        }
+        for (String name : current) {
+            if (!previous.contains(name)) {
+                objectNames.add(WallCheckResultUtils.normalize(name));
+            }
+        }
+    }
+
+    private static Map<?, ?> getSettings(WallConfig config) {
+        try {
+            Map<?, ?> settings = JsonUtils.convertValue(config, Map.class);
+            settings.keySet().removeAll(SET_PROPERTIES);
+            return settings;
+        } catch (RuntimeException e) {
+            // not comparable, so treated as changed
+            return Collections.singletonMap(config, config);
+        }
+    }
+}
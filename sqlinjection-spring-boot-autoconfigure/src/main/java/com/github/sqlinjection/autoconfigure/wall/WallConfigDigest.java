@@ -0,0 +1,92 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.wall;
+
+import com.alibaba.druid.wall.WallConfig;
+import com.github.sqlinjection.autoconfigure.utils.DigestUtils;
+import com.github.sqlinjection.autoconfigure.utils.JsonUtils;
+import org.springframework.lang.Nullable;
+
+import java.util.*;
+
+/**
+ * A digest of the effective settings of a wall config, so a config built at build time can be matched
+ * against the one built at runtime.
+ *
+ * @author sean chen
+ * @date 2026/10/18 9:55 PM
+ */
+public final class WallConfigDigest {
+
+    private WallConfigDigest() {
+    }
+
+    /**
+     * Digest the settings and the permit and deny sets of the wall config, independent of the set order
+     *
+     * @param config The wall config
+     * @return the digest, or {@code null} if the config has callbacks, which are code and can not be digested
+     */
+    @Nullable
+    public static String of(WallConfig config) {
+        if (config.getTenantCallBack() != null || config.getUpdateCheckHandler() != null) {
+            return null;
+        }
+        StringBuilder canonical = new StringBuilder(4096);
+        append(canonical, JsonUtils.convertValue(config, Map.class));
+        return DigestUtils.sha256(canonical.toString());
+    }
+
+    private static void append(StringBuilder canonical, @Nullable Object value) {
+        if (value instanceof Map) {
+            Map<String, Object> sorted = new TreeMap<>();
+            for (Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet()) {
+                sorted.put(String.valueOf(entry.getKey()), entry.getValue());
+            }
+            canonical.append('{');
+            for (Map.Entry<String, Object> entry : sorted.entrySet()) {
+                canonical.append(entry.getKey()).append('=');
+                append(canonical, entry.getValue());
+                canonical.append(';');
+            }
+            canonical.append('}');
+        } else if (value instanceof Collection) {
+            List<String> sorted = new ArrayList<>();
+            for (Object element : (Collection<?>) value) {
+                StringBuilder builder = new StringBuilder();
+                append(builder, element);
+                sorted.add(builder.toString());
+            }
+            Collections.sort(sorted);
+            canonical.append('[');
+            for (String element : sorted) {
+                canonical.append(element.length()).append(':').append(element).append(',');
+            }
+            canonical.append(']');
+        } else {
+            String string = String.valueOf(value);
+            canonical.append(string.length()).append(':').append(string);
+        }
+    }
+}
@@ -0,0 +1,903 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.wall;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.sql.parser.Lexer;
+import com.alibaba.druid.sql.parser.SQLParserUtils;
+import com.alibaba.druid.sql.parser.Token;
+import com.alibaba.druid.wall.WallConfig;
+import com.github.sqlinjection.autoconfigure.utils.WallCheckResultUtils;
+import org.springframework.lang.Nullable;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * A token level pre-scan which passes the plain sql without parsing it by the druid wall.
+ * <p>
+ * The sql is lexed by the druid lexer of the dialect of the wall provider, and passes only if every token fits a small
+ * grammar the wall never rejects: a select, insert, update or delete of columns and placeholders, with comparisons,
+ * {@code AND}, {@code OR}, {@code NOT}, {@code IN}, {@code IS NULL}, {@code BETWEEN}, {@code LIKE}, joins, groups,
+ * orders, limits and subqueries. Everything else is left to the wall provider, in particular
+ * <ul>
+ * <li>comments, hints, variants, function calls, operators, {@code ;}, {@code UNION} and every other keyword</li>
+ * <li>every name in the denied functions, tables, schemas, variants and objects or the read only tables of the wall
+ * config, and {@code true}, {@code false} and {@code unknown}</li>
+ * <li>constants anywhere but on the right of the comparison of a column, in the bounds of a {@code BETWEEN}, in
+ * {@code VALUES} and in {@code LIMIT}, so no condition is constant</li>
+ * <li>comparisons of a column with itself, such as {@code a = a}, {@code ? = ?} and the constants of {@code LIKE}</li>
+ * <li>{@code SELECT *}, {@code LIMIT 0} and updates or deletes without {@code WHERE} if the wall config denies them</li>
+ * </ul>
+ * A wall config with tenants, an update check handler or mandatory parameters is never pre-scanned. The pre-scan does
+ * not check the syntax, a malformed sql which the wall rejects as a syntax error may pass and fails in the database.
+ *
+ * @author sean chen
+ * @date 2026/10/18 7:20 PM
+ */
+public final class WallPreScanner {
+
+    private static final Set<String> CONSTANT_NAMES = new HashSet<>(Arrays.asList("true", "false", "unknown"));
+
+    /**
+     * The dialect of the lexer, {@code null} if the wall config is never pre-scanned
+     */
+    @Nullable
+    private final DbType dialect;
+    private final Set<String> deniedNames = new HashSet<>(CONSTANT_NAMES);
+    private final boolean selectAllow;
+    private final boolean insertAllow;
+    private final boolean updateAllow;
+    private final boolean deleteAllow;
+    private final boolean selectAllColumnAllow;
+    private final boolean limitZeroAllow;
+    private final boolean updateWhereNoneCheck;
+    private final boolean deleteWhereNoneCheck;
+
+    /**
+     * @param dbType The db type of the wall provider
+     * @param config The wall config of the wall provider
+     */
+    public WallPreScanner(DbType dbType, WallConfig config) {
+        boolean supported = config.getTenantTablePattern() == null
+                && config.getTenantCallBack() == null
+                && config.getUpdateCheckHandler() == null
+                && !config.isMustParameterized();
+        this.dialect = supported ? WallProviderFactory.getDialect(dbType) : null;
+        addDeniedNames(config.getDenyFunctions());
+        addDeniedNames(config.getDenyTables());
+        addDeniedNames(config.getDenySchemas());
+        addDeniedNames(config.getDenyVariants());
+        addDeniedNames(config.getDenyObjects());
+        addDeniedNames(config.getReadOnlyTables());
+        this.selectAllow = config.isSelectAllow();
+        this.insertAllow = config.isInsertAllow();
+        this.updateAllow = config.isUpdateAllow();
+        this.deleteAllow = config.isDeleteAllow();
+        this.selectAllColumnAllow = config.isSelectAllColumnAllow();
+        this.limitZeroAllow = config.isLimitZeroAllow();
+        this.updateWhereNoneCheck = config.isUpdateWhereNoneCheck();
+        this.deleteWhereNoneCheck = config.isDeleteWhereNoneCheck();
+    }
+
+    /**
+     * Pre-scan the sql
+     *
+     * @param sql The sql
+     * @return the normalized names of the sql if it passes, or {@code null} if it must be checked by the wall provider
+     */
+    @Nullable
+    public String[] scan(String sql) {
+        // the dialects lex the comments differently, only the wall decides on them
+        if (dialect == null || sql.indexOf('#') >= 0 || sql.contains("--") || sql.contains("/*")) {
+            return null;
+        }
+
+        List<Token> tokens = new ArrayList<>();
+        List<String> texts = new ArrayList<>();
+        try {
+            Lexer lexer = SQLParserUtils.createLexer(sql, dialect);
+            for (lexer.nextToken(); lexer.token() != Token.EOF; lexer.nextToken()) {
+                Token token = lexer.token();
+                String text = null;
+                if (token == Token.IDENTIFIER) {
+                    text = WallCheckResultUtils.normalize(lexer.stringVal());
+                } else if (token == Token.LITERAL_INT) {
+                    text = lexer.numberString();
+                }
+                // give up at the first token the grammar rejects anyway, before lexing the rest
+                if (!isKnown(token) || deniedNames.contains(text) || (token == Token.LPAREN && isFunctionCall(tokens))) {
+                    return null;
+                }
+                tokens.add(token);
+                texts.add(text);
+            }
+        } catch (RuntimeException e) {
+            // the wall rejects what the lexer does not understand
+            return null;
+        }
+        return tokens.isEmpty() ? null : scan(tokens, texts);
+    }
+
+    @Nullable
+    private String[] scan(List<Token> tokens, List<String> texts) {
+        Token statement = tokens.get(0);
+        if (!isAllowed(statement)) {
+            return null;
+        }
+
+        List<String> names = new ArrayList<>();
+        int depth = 0;
+        // the clause at each depth, which decides whether a name may follow another one
+        Token[] clauses = new Token[tokens.size() + 1];
+        clauses[0] = statement;
+        boolean where = false;
+        boolean values = false;
+        for (int i = 0; i < tokens.size(); i++) {
+            Token token = tokens.get(i);
+            Token previous = i > 0 ? tokens.get(i - 1) : null;
+            Token next = i + 1 < tokens.size() ? tokens.get(i + 1) : null;
+
+            if (values) {
+                // only the tuples of constants and placeholders follow the values
+                if (!isValue(token, previous, depth)) {
+                    return null;
+                }
+                depth += token == Token.LPAREN ? 1 : token == Token.RPAREN ? -1 : 0;
+                if (depth < 0) {
+                    return null;
+                }
+                continue;
+            }
+
+            // some dialects start another statement where a token can not continue the current one
+            if (i > 0 && (!isPrecededBy(tokens, i, clauses[depth]) || !isInOrder(token, clauses[depth]))) {
+                return null;
+            }
+            if (!isFollowedBy(token, next)) {
+                return null;
+            }
+
+            switch (token) {
+                case IDENTIFIER:
+                    names.add(texts.get(i));
+                    break;
+                case QUES:
+                case COMMA:
+                case AND:
+                case OR:
+                case NOT:
+                case AS:
+                case FROM:
+                case JOIN:
+                case INNER:
+                case LEFT:
+                case RIGHT:
+                case OUTER:
+                case CROSS:
+                case GROUP:
+                case ORDER:
+                case BY:
+                case ASC:
+                case DESC:
+                case HAVING:
+                case DISTINCT:
+                case LIMIT:
+                case OFFSET:
+                    break;
+                case LPAREN:
+                    depth++;
+                    clauses[depth] = clauses[depth - 1];
+                    break;
+                case RPAREN:
+                    if (--depth < 0) {
+                        return null;
+                    }
+                    break;
+                case DOT:
+                    if (previous != Token.IDENTIFIER || (next != Token.IDENTIFIER && next != Token.STAR)) {
+                        return null;
+                    }
+                    break;
+                case SELECT:
+                    if (i != 0 && previous != Token.LPAREN) {
+                        return null;
+                    }
+                    break;
+                case INSERT:
+                case UPDATE:
+                case DELETE:
+                    if (i != 0) {
+                        return null;
+                    }
+                    break;
+                case INTO:
+                    if (statement != Token.INSERT || i != 1) {
+                        return null;
+                    }
+                    break;
+                case VALUES:
+                    if (statement != Token.INSERT || depth != 0) {
+                        return null;
+                    }
+                    values = true;
+                    break;
+                case SET:
+                    if (statement != Token.UPDATE || depth != 0) {
+                        return null;
+                    }
+                    break;
+                case ON:
+                    if (!isJoinCondition(tokens, i + 1)) {
+                        return null;
+                    }
+                    break;
+                case WHERE:
+                    where |= depth == 0;
+                    break;
+                case STAR:
+                    if (!selectAllColumnAllow
+                            || (previous != Token.SELECT && previous != Token.DISTINCT && previous != Token.COMMA && previous != Token.DOT)
+                            || (next != Token.FROM && next != Token.COMMA)) {
+                        return null;
+                    }
+                    break;
+                case EQ:
+                case LT:
+                case GT:
+                case LTEQ:
+                case GTEQ:
+                case LTGT:
+                case BANGEQ:
+                case LIKE:
+                    if (!isComparison(tokens, texts, i)) {
+                        return null;
+                    }
+                    break;
+                case IN:
+                    if (!isColumnOperand(tokens, i) || !isInList(tokens, i + 1)) {
+                        return null;
+                    }
+                    break;
+                case BETWEEN:
+                    if (!isColumnOperand(tokens, i) || i + 3 >= tokens.size() || !isBound(tokens.get(i + 1))
+                            || tokens.get(i + 2) != Token.AND || !isBound(tokens.get(i + 3))) {
+                        return null;
+                    }
+                    break;
+                case IS:
+                    if (previous != Token.IDENTIFIER
+                            || !(next == Token.NULL || (next == Token.NOT && i + 2 < tokens.size() && tokens.get(i + 2) == Token.NULL))) {
+                        return null;
+                    }
+                    break;
+                case NULL:
+                    if (previous != Token.IS && !(previous == Token.NOT && tokens.get(i - 2) == Token.IS)) {
+                        return null;
+                    }
+                    break;
+                case LITERAL_INT:
+                case LITERAL_FLOAT:
+                case LITERAL_CHARS:
+                case LITERAL_NCHARS:
+                    if (!isConstantAllowed(tokens, texts, i)) {
+                        return null;
+                    }
+                    break;
+                case LITERAL_ALIAS:
+                    if (previous != Token.AS) {
+                        return null;
+                    }
+                    break;
+                default:
+                    return null;
+            }
+            if (isClause(token)) {
+                clauses[depth] = token;
+            }
+        }
+
+        if (depth != 0) {
+            return null;
+        }
+        if (!where && ((statement == Token.UPDATE && updateWhereNoneCheck) || (statement == Token.DELETE && deleteWhereNoneCheck))) {
+            return null;
+        }
+        return names.toArray(new String[0]);
+    }
+
+    private boolean isAllowed(Token statement) {
+        switch (statement) {
+            case SELECT:
+                return selectAllow;
+            case INSERT:
+                return insertAllow;
+            case UPDATE:
+                return updateAllow;
+            case DELETE:
+                return deleteAllow;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isClause(Token token) {
+        switch (token) {
+            case SELECT:
+            case FROM:
+            case JOIN:
+            case WHERE:
+            case ON:
+            case HAVING:
+            case SET:
+            case GROUP:
+            case ORDER:
+            case LIMIT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return whether the keyword may be followed by the next token, so a keyword never stands for a name
+     */
+    private static boolean isFollowedBy(Token token, @Nullable Token next) {
+        switch (token) {
+            case FROM:
+            case JOIN:
+            case INTO:
+            case UPDATE:
+                return next == Token.IDENTIFIER || next == Token.LPAREN;
+            case DELETE:
+                return next == Token.FROM;
+            case GROUP:
+            case ORDER:
+                return next == Token.BY;
+            case BY:
+                return next == Token.IDENTIFIER;
+            case WHERE:
+            case ON:
+            case HAVING:
+            case SET:
+            case AND:
+            case OR:
+            case NOT:
+                return next == Token.IDENTIFIER || next == Token.QUES || next == Token.LPAREN || next == Token.NOT
+                        || next == Token.NULL || next == Token.IN || next == Token.LIKE || next == Token.BETWEEN
+                        || (next != null && isConstant(next));
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * @return whether the token at the index may follow the token before it
+     */
+    private static boolean isPrecededBy(List<Token> tokens, int i, Token clause) {
+        Token token = tokens.get(i);
+        Token previous = tokens.get(i - 1);
+        switch (token) {
+            case IDENTIFIER:
+                return expectsOperand(previous) || isAlias(tokens, i, clause);
+            case LPAREN:
+                // the columns of an insert or a function call, which is checked by the name
+                return expectsOperand(previous) || previous == Token.IDENTIFIER;
+            case QUES:
+            case LITERAL_INT:
+            case LITERAL_FLOAT:
+            case LITERAL_CHARS:
+            case LITERAL_NCHARS:
+                return expectsOperand(previous);
+            case LIMIT:
+            case OFFSET:
+            case RPAREN:
+                return isOperandEnd(previous) || previous == Token.ASC || previous == Token.DESC;
+            case AND:
+            case OR:
+            case WHERE:
+            case GROUP:
+            case ORDER:
+            case HAVING:
+            case ON:
+            case ASC:
+            case DESC:
+            case LEFT:
+            case RIGHT:
+            case INNER:
+            case CROSS:
+            case SET:
+            case AS:
+            case VALUES:
+            case IN:
+            case LIKE:
+            case BETWEEN:
+            case IS:
+                return isOperandEnd(previous) || (token == Token.IN || token == Token.LIKE || token == Token.BETWEEN) && previous == Token.NOT;
+            case FROM:
+                return isOperandEnd(previous) || previous == Token.STAR || previous == Token.DELETE;
+            case COMMA:
+                return isOperandEnd(previous) || previous == Token.STAR || previous == Token.ASC || previous == Token.DESC;
+            case JOIN:
+                return isOperandEnd(previous) || previous == Token.LEFT || previous == Token.RIGHT || previous == Token.INNER
+                        || previous == Token.OUTER || previous == Token.CROSS;
+            case OUTER:
+                return previous == Token.LEFT || previous == Token.RIGHT;
+            case NOT:
+                if (previous == Token.IDENTIFIER) {
+                    Token next = i + 1 < tokens.size() ? tokens.get(i + 1) : null;
+                    return next == Token.IN || next == Token.LIKE || next == Token.BETWEEN;
+                }
+                return previous == Token.IS || previous == Token.WHERE || previous == Token.ON || previous == Token.HAVING
+                        || previous == Token.AND || previous == Token.OR || previous == Token.NOT || previous == Token.LPAREN;
+            case DISTINCT:
+                return previous == Token.SELECT;
+            case BY:
+                return previous == Token.GROUP || previous == Token.ORDER;
+            default:
+                // checked by the token
+                return true;
+        }
+    }
+
+    /**
+     * @return whether the clause may follow the current clause, so every clause is written once and in order
+     */
+    private static boolean isInOrder(Token token, Token clause) {
+        switch (token) {
+            case FROM:
+                return clause == Token.SELECT || clause == Token.DELETE;
+            case JOIN:
+                return clause == Token.FROM || clause == Token.ON;
+            case ON:
+                return clause == Token.JOIN;
+            case SET:
+                return clause == Token.UPDATE;
+            case WHERE:
+                return clause == Token.FROM || clause == Token.ON || clause == Token.SET;
+            case GROUP:
+                return clause == Token.FROM || clause == Token.ON || clause == Token.WHERE;
+            case HAVING:
+                return clause == Token.GROUP;
+            case ORDER:
+                return clause == Token.FROM || clause == Token.ON || clause == Token.WHERE || clause == Token.GROUP
+                        || clause == Token.HAVING;
+            case LIMIT:
+                return clause == Token.FROM || clause == Token.ON || clause == Token.WHERE || clause == Token.GROUP
+                        || clause == Token.HAVING || clause == Token.ORDER;
+            case OFFSET:
+                return clause == Token.FROM || clause == Token.ON || clause == Token.WHERE || clause == Token.GROUP
+                        || clause == Token.HAVING || clause == Token.ORDER || clause == Token.LIMIT;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * @return whether an operand may follow the token
+     */
+    private static boolean expectsOperand(Token token) {
+        switch (token) {
+            case EQ:
+            case LT:
+            case GT:
+            case LTEQ:
+            case GTEQ:
+            case LTGT:
+            case BANGEQ:
+            case LIKE:
+            case AND:
+            case OR:
+            case NOT:
+            case WHERE:
+            case ON:
+            case HAVING:
+            case SET:
+            case SELECT:
+            case DISTINCT:
+            case FROM:
+            case JOIN:
+            case BY:
+            case COMMA:
+            case LPAREN:
+            case IN:
+            case BETWEEN:
+            case LIMIT:
+            case OFFSET:
+            case AS:
+            case INTO:
+            case UPDATE:
+            case DOT:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private static boolean isOperandEnd(Token token) {
+        return token == Token.IDENTIFIER || token == Token.QUES || token == Token.NULL || token == Token.RPAREN
+                || token == Token.LITERAL_ALIAS || isConstant(token);
+    }
+
+    /**
+     * @return whether the name at the index is the alias of the column, table or subquery before it
+     */
+    private static boolean isAlias(List<Token> tokens, int i, Token clause) {
+        if (clause != Token.SELECT && clause != Token.FROM && clause != Token.JOIN && clause != Token.UPDATE) {
+            return false;
+        }
+        Token previous = tokens.get(i - 1);
+        if (previous == Token.RPAREN) {
+            return true;
+        }
+        // a name, but not the alias of an alias
+        return previous == Token.IDENTIFIER && i >= 2 && tokens.get(i - 2) != Token.IDENTIFIER
+                && tokens.get(i - 2) != Token.RPAREN && tokens.get(i - 2) != Token.AS;
+    }
+
+    /**
+     * @return whether the ( after the lexed tokens calls a function, rather than opens the columns of an insert,
+     * {@code insert into t (a, b)}
+     */
+    private static boolean isFunctionCall(List<Token> tokens) {
+        int size = tokens.size();
+        if (size == 0 || tokens.get(size - 1) != Token.IDENTIFIER) {
+            return false;
+        }
+        boolean columns = tokens.get(0) == Token.INSERT && tokens.get(1) == Token.INTO
+                && (size == 3 || (size == 5 && tokens.get(3) == Token.DOT));
+        return !columns;
+    }
+
+    /**
+     * @return whether the token is in the grammar of the pre-scan
+     */
+    private static boolean isKnown(Token token) {
+        switch (token) {
+            case IDENTIFIER:
+            case QUES:
+            case COMMA:
+            case DOT:
+            case STAR:
+            case LPAREN:
+            case RPAREN:
+            case SELECT:
+            case INSERT:
+            case UPDATE:
+            case DELETE:
+            case INTO:
+            case VALUES:
+            case SET:
+            case FROM:
+            case JOIN:
+            case INNER:
+            case LEFT:
+            case RIGHT:
+            case OUTER:
+            case CROSS:
+            case ON:
+            case WHERE:
+            case GROUP:
+            case ORDER:
+            case BY:
+            case ASC:
+            case DESC:
+            case HAVING:
+            case DISTINCT:
+            case LIMIT:
+            case OFFSET:
+            case AS:
+            case AND:
+            case OR:
+            case NOT:
+            case IN:
+            case IS:
+            case NULL:
+            case BETWEEN:
+            case LIKE:
+            case EQ:
+            case LT:
+            case GT:
+            case LTEQ:
+            case GTEQ:
+            case LTGT:
+            case BANGEQ:
+            case LITERAL_INT:
+            case LITERAL_FLOAT:
+            case LITERAL_CHARS:
+            case LITERAL_NCHARS:
+            case LITERAL_ALIAS:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return whether the token is a constant or a placeholder of a tuple after {@code VALUES}
+     */
+    private static boolean isValue(Token token, Token previous, int depth) {
+        switch (token) {
+            case LPAREN:
+                return depth == 0 && (previous == Token.VALUES || previous == Token.COMMA);
+            case RPAREN:
+                return depth == 1 && previous != Token.COMMA && previous != Token.LPAREN;
+            case COMMA:
+                return previous != Token.COMMA && previous != Token.LPAREN;
+            case QUES:
+            case NULL:
+            case LITERAL_INT:
+            case LITERAL_FLOAT:
+            case LITERAL_CHARS:
+            case LITERAL_NCHARS:
+                return depth == 1 && (previous == Token.LPAREN || previous == Token.COMMA);
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * A comparison passes if its left is a column or a placeholder, and its right is a placeholder, another column,
+     * a subquery or, after a column, a constant
+     */
+    private static boolean isComparison(List<Token> tokens, List<String> texts, int i) {
+        Token operator = tokens.get(i);
+        int left = i - 1;
+        if (operator == Token.LIKE && left >= 0 && tokens.get(left) == Token.NOT) {
+            left--;
+        }
+        if (left < 0 || i + 1 >= tokens.size()) {
+            return false;
+        }
+
+        Token leftToken = tokens.get(left);
+        Token right = tokens.get(i + 1);
+        if (leftToken == Token.QUES) {
+            return right == Token.IDENTIFIER;
+        }
+        if (leftToken != Token.IDENTIFIER) {
+            return false;
+        }
+        switch (right) {
+            case QUES:
+                return true;
+            case IDENTIFIER:
+                return !isSameColumn(tokens, texts, left, i + 1);
+            case LPAREN:
+                return i + 2 < tokens.size() && tokens.get(i + 2) == Token.SELECT;
+            case LITERAL_INT:
+            case LITERAL_FLOAT:
+            case LITERAL_CHARS:
+            case LITERAL_NCHARS:
+                return operator != Token.LIKE;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * The columns of both sides are the same if their names are, or if one of them is not qualified and their last
+     * names are
+     *
+     * @param end   The index of the last name of the left side
+     * @param start The index of the first name of the right side
+     */
+    private static boolean isSameColumn(List<Token> tokens, List<String> texts, int end, int start) {
+        int leftStart = end;
+        while (leftStart >= 2 && tokens.get(leftStart - 1) == Token.DOT && tokens.get(leftStart - 2) == Token.IDENTIFIER) {
+            leftStart -= 2;
+        }
+        int rightEnd = start;
+        while (rightEnd + 2 < tokens.size() && tokens.get(rightEnd + 1) == Token.DOT && tokens.get(rightEnd + 2) == Token.IDENTIFIER) {
+            rightEnd += 2;
+        }
+        if (!texts.get(end).equals(texts.get(rightEnd))) {
+            return false;
+        }
+        if (leftStart == end || rightEnd == start) {
+            return true;
+        }
+        return texts.subList(leftStart, end + 1).equals(texts.subList(start, rightEnd + 1));
+    }
+
+    /**
+     * The wall only takes comparisons of columns joined by {@code AND} as a join condition
+     *
+     * @param start The index of the first token after {@code ON}
+     */
+    private static boolean isJoinCondition(List<Token> tokens, int start) {
+        int i = start;
+        while (true) {
+            i = skipName(tokens, i);
+            if (i < 0 || i >= tokens.size() || !isColumnComparison(tokens.get(i))) {
+                return false;
+            }
+            int right = i + 1;
+            i = right < tokens.size() && tokens.get(right) == Token.QUES ? right + 1 : skipName(tokens, right);
+            if (i < 0) {
+                return false;
+            }
+            if (i >= tokens.size()) {
+                return true;
+            }
+            switch (tokens.get(i)) {
+                case AND:
+                    i++;
+                    break;
+                case JOIN:
+                case LEFT:
+                case RIGHT:
+                case INNER:
+                case CROSS:
+                case WHERE:
+                case GROUP:
+                case ORDER:
+                case LIMIT:
+                case RPAREN:
+                    return true;
+                default:
+                    return false;
+            }
+        }
+    }
+
+    /**
+     * @return the index after the qualified name at the index, or -1 if there is none
+     */
+    private static int skipName(List<Token> tokens, int i) {
+        if (i >= tokens.size() || tokens.get(i) != Token.IDENTIFIER) {
+            return -1;
+        }
+        while (i + 2 < tokens.size() && tokens.get(i + 1) == Token.DOT && tokens.get(i + 2) == Token.IDENTIFIER) {
+            i += 2;
+        }
+        return i + 1;
+    }
+
+    private static boolean isColumnComparison(Token token) {
+        switch (token) {
+            case EQ:
+            case LT:
+            case GT:
+            case LTEQ:
+            case GTEQ:
+            case LTGT:
+            case BANGEQ:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return whether the operator at the index, or the {@code NOT} before it, follows a column
+     */
+    private static boolean isColumnOperand(List<Token> tokens, int i) {
+        int left = i - 1;
+        if (left >= 0 && tokens.get(left) == Token.NOT) {
+            left--;
+        }
+        return left >= 0 && tokens.get(left) == Token.IDENTIFIER;
+    }
+
+    /**
+     * @return whether a subquery or a list of placeholders starts at the index
+     */
+    private static boolean isInList(List<Token> tokens, int start) {
+        if (start + 1 >= tokens.size() || tokens.get(start) != Token.LPAREN) {
+            return false;
+        }
+        if (tokens.get(start + 1) == Token.SELECT) {
+            return true;
+        }
+        for (int i = start + 1; i < tokens.size(); i += 2) {
+            if (tokens.get(i) != Token.QUES || i + 1 >= tokens.size()) {
+                return false;
+            }
+            if (tokens.get(i + 1) == Token.RPAREN) {
+                return true;
+            }
+            if (tokens.get(i + 1) != Token.COMMA) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isBound(Token token) {
+        return token == Token.QUES || isConstant(token);
+    }
+
+    private static boolean isConstant(Token token) {
+        return token == Token.LITERAL_INT || token == Token.LITERAL_FLOAT
+                || token == Token.LITERAL_CHARS || token == Token.LITERAL_NCHARS;
+    }
+
+    /**
+     * A constant passes on the right of the comparison of a column, in the bounds of a {@code BETWEEN} and as an
+     * integer of {@code LIMIT}, the tuples of {@code VALUES} are checked by {@link #isValue}
+     */
+    private boolean isConstantAllowed(List<Token> tokens, List<String> texts, int i) {
+        Token previous = i > 0 ? tokens.get(i - 1) : null;
+        if (previous == null) {
+            return false;
+        }
+        switch (previous) {
+            case EQ:
+            case LT:
+            case GT:
+            case LTEQ:
+            case GTEQ:
+            case LTGT:
+            case BANGEQ:
+                // checked by the comparison
+                return true;
+            case BETWEEN:
+                return true;
+            case AND:
+                return i >= 3 && tokens.get(i - 3) == Token.BETWEEN;
+            case LIMIT:
+            case OFFSET:
+            case COMMA:
+                return isLimit(tokens, i) && tokens.get(i) == Token.LITERAL_INT && (limitZeroAllow || !isZero(texts.get(i)));
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return whether the integer at the index is the row count or the offset of a {@code LIMIT}
+     */
+    private static boolean isLimit(List<Token> tokens, int i) {
+        Token previous = tokens.get(i - 1);
+        if (previous == Token.LIMIT || previous == Token.OFFSET) {
+            return true;
+        }
+        // limit offset, count
+        return i >= 3 && tokens.get(i - 2) == Token.LITERAL_INT && tokens.get(i - 3) == Token.LIMIT;
+    }
+
+    private static boolean isZero(String number) {
+        for (int i = 0; i < number.length(); i++) {
+            char c = number.charAt(i);
+            if (c != '0' && c != '.') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void addDeniedNames(Collection<String> names) {
+        for (String name : names) {
+            // a qualified name is denied if any of its names is
+            for (String part : name.split("\\.")) {
+                deniedNames.add(WallCheckResultUtils.normalize(part));
+            }
+        }
+    }
+}
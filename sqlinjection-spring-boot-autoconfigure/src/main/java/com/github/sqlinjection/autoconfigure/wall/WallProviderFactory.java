@@ -0,0 +1,286 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.wall;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.wall.WallConfig;
+import com.alibaba.druid.wall.WallProvider;
+import com.alibaba.druid.wall.spi.*;
+import com.github.sqlinjection.autoconfigure.PermitAndDenyCustomizer;
+import com.github.sqlinjection.autoconfigure.utils.JsonUtils;
+import org.springframework.lang.Nullable;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static com.github.sqlinjection.autoconfigure.PermitAndDenyCustomizer.DEFAULT_MYSQL_DENY_FUNCTIONS;
+
+/**
+ * Creates the druid wall providers of each dialect from the {@link PermitAndDenyCustomizer}.
+ *
+ * @author sean chen
+ * @date 2026/10/18 2:10 PM
+ */
+public class WallProviderFactory {
+
+    private final PermitAndDenyCustomizer customizer;
+
+    /**
+     * The digest of the customizer, {@code null} if it can not be digested
+     */
+    @Nullable
+    private final String digest;
+
+    public WallProviderFactory(PermitAndDenyCustomizer customizer) {
+        this.customizer = customizer;
+        this.digest = WallConfigDigest.of(customizer);
+    }
+
+    /**
+     * Get the digest of the customizer, the wall configs built from customizers of the same digest are the same
+     *
+     * @return the digest, or {@code null} if the customizer has callbacks, see {@link WallConfigDigest#of(WallConfig)}
+     */
+    @Nullable
+    public String getDigest() {
+        return digest;
+    }
+
+    /**
+     * Create the wall provider of the given db type
+     *
+     * @param dbType The db type
+     * @return the wall provider
+     * @throws IllegalStateException if the db type is not supported
+     */
+    public WallProvider createWallProvider(DbType dbType) {
+        String configDir = getDefaultConfigDir(dbType);
+        WallConfig config = getWallConfig(dbType, configDir);
+
+        switch (configDir) {
+            case MySqlWallProvider.DEFAULT_CONFIG_DIR:
+                return new MySqlWallProvider(config);
+            case OracleWallProvider.DEFAULT_CONFIG_DIR:
+                return new OracleWallProvider(config);
+            case SQLServerWallProvider.DEFAULT_CONFIG_DIR:
+                return new SQLServerWallProvider(config);
+            case PGWallProvider.DEFAULT_CONFIG_DIR:
+                return new PGWallProvider(config);
+            case DB2WallProvider.DEFAULT_CONFIG_DIR:
+                return new DB2WallProvider(config);
+            case SQLiteWallProvider.DEFAULT_CONFIG_DIR:
+                return new SQLiteWallProvider(config);
+            case ClickhouseWallProvider.DEFAULT_CONFIG_DIR:
+                return new ClickhouseWallProvider(config);
+            default:
+                throw new IllegalStateException("dbType not support : " + dbType);
+        }
+    }
+
+    /**
+     * Get the druid config dir of the dialect of the given db type, which also decides the wall provider
+     *
+     * @param dbType The db type
+     * @return the config dir
+     * @throws IllegalStateException if the db type is not supported
+     */
+    public static String getDefaultConfigDir(DbType dbType) {
+        switch (dbType) {
+            case mysql:
+            case oceanbase:
+            case drds:
+            case mariadb:
+            case tidb:
+            case h2:
+            case presto:
+            case trino:
+                return MySqlWallProvider.DEFAULT_CONFIG_DIR;
+            case oracle:
+            case ali_oracle:
+            case oceanbase_oracle:
+                //case dm:
+                return OracleWallProvider.DEFAULT_CONFIG_DIR;
+            case sqlserver:
+            case jtds:
+                return SQLServerWallProvider.DEFAULT_CONFIG_DIR;
+            case postgresql:
+            case edb:
+            case polardb:
+            case greenplum:
+            case gaussdb:
+                return PGWallProvider.DEFAULT_CONFIG_DIR;
+            case db2:
+                return DB2WallProvider.DEFAULT_CONFIG_DIR;
+            case sqlite:
+                return SQLiteWallProvider.DEFAULT_CONFIG_DIR;
+            case clickhouse:
+                return ClickhouseWallProvider.DEFAULT_CONFIG_DIR;
+            default:
+                throw new IllegalStateException("dbType not support : " + dbType);
+        }
+    }
+
+    /**
+     * Get the dialect the wall provider of the given db type parses the sql in
+     *
+     * @param dbType The db type
+     * @return the dialect
+     * @throws IllegalStateException if the db type is not supported
+     */
+    public static DbType getDialect(DbType dbType) {
+        switch (getDefaultConfigDir(dbType)) {
+            case MySqlWallProvider.DEFAULT_CONFIG_DIR:
+                return DbType.mysql;
+            case OracleWallProvider.DEFAULT_CONFIG_DIR:
+                return DbType.oracle;
+            case SQLServerWallProvider.DEFAULT_CONFIG_DIR:
+                return DbType.sqlserver;
+            case PGWallProvider.DEFAULT_CONFIG_DIR:
+                return DbType.postgresql;
+            case DB2WallProvider.DEFAULT_CONFIG_DIR:
+                return DbType.db2;
+            case SQLiteWallProvider.DEFAULT_CONFIG_DIR:
+                return DbType.sqlite;
+            case ClickhouseWallProvider.DEFAULT_CONFIG_DIR:
+                return DbType.clickhouse;
+            default:
+                throw new IllegalStateException("dbType not support : " + dbType);
+        }
+    }
+
+    /**
+     * Build the effective wall config of the given db type
+     *
+     * @param dbType           The db type
+     * @param defaultConfigDir The druid config dir of the dialect
+     * @return the wall config
+     */
+    public WallConfig getWallConfig(DbType dbType, String defaultConfigDir) {
+        WallConfig wallConfig = JsonUtils.convertValue(customizer, WallConfig.class);
+
+        clearWallConfig(wallConfig);
+
+        wallConfig.setDir(defaultConfigDir);
+
+        wallConfig.init();
+
+        applyCustomizerFunctions(wallConfig, customizer, dbType);
+
+        return wallConfig;
+    }
+
+
+    private void clearWallConfig(WallConfig config) {
+        config.getDenyFunctions().clear();
+        config.getDenyTables().clear();
+        config.getDenySchemas().clear();
+        config.getDenyVariants().clear();
+        config.getDenyObjects().clear();
+        config.getPermitFunctions().clear();
+        config.getPermitTables().clear();
+        config.getPermitSchemas().clear();
+        config.getPermitVariants().clear();
+        config.getReadOnlyTables().clear();
+    }
+
+
+    private void applyCustomizerFunctions(WallConfig wallConfig, PermitAndDenyCustomizer customizer, DbType dbType) {
+        applyFunctions(wallConfig, customizer, dbType);
+        applyTables(wallConfig, customizer, dbType);
+        applySchemas(wallConfig, customizer, dbType);
+        applyVariants(wallConfig, customizer, dbType);
+        applyDenyObjects(wallConfig, customizer, dbType);
+        applyReadOnlyTables(wallConfig, customizer, dbType);
+        wallConfig.setTenantCallBack(customizer.getTenantCallBack());
+        wallConfig.setUpdateCheckHandler(customizer.getUpdateCheckHandler());
+    }
+
+
+    private void applyFunctions(WallConfig wallConfig, PermitAndDenyCustomizer customizer, DbType dbType) {
+        Set<String> denyFunctions = wallConfig.getDenyFunctions();
+        Set<String> permitFunctions = wallConfig.getPermitFunctions();
+        //default deny functions
+        dataOperator(DEFAULT_MYSQL_DENY_FUNCTIONS, dbType, dataConsumer(denyFunctions, permitFunctions));
+        //custom permit and deny functions
+        dataOperator(customizer.getDatabase2PermitFunctions(), dbType, dataConsumer(permitFunctions, denyFunctions));
+        dataOperator(customizer.getDatabase2DenyFunctions(), dbType, dataConsumer(denyFunctions, permitFunctions));
+    }
+
+    private void applyTables(WallConfig wallConfig, PermitAndDenyCustomizer customizer, DbType dbType) {
+        Set<String> permitTables = wallConfig.getPermitTables();
+        Set<String> denyTables = wallConfig.getDenyTables();
+        //permit
+        dataOperator(customizer.getDatabase2PermitTables(), dbType, dataConsumer(permitTables, denyTables));
+        //deny
+        dataOperator(customizer.getDatabase2DenyTables(), dbType, dataConsumer(denyTables, permitTables));
+    }
+
+    private void applySchemas(WallConfig wallConfig, PermitAndDenyCustomizer customizer, DbType dbType) {
+        Set<String> permitSchemas = wallConfig.getPermitSchemas();
+        Set<String> denySchemas = wallConfig.getDenySchemas();
+        //permit
+        dataOperator(customizer.getDatabase2PermitSchemas(), dbType, dataConsumer(permitSchemas, denySchemas));
+        //deny
+        dataOperator(customizer.getDatabase2DenySchemas(), dbType, dataConsumer(denySchemas, permitSchemas));
+    }
+
+    private void applyVariants(WallConfig wallConfig, PermitAndDenyCustomizer customizer, DbType dbType) {
+        Set<String> permitVariants = wallConfig.getPermitVariants();
+        Set<String> denyVariants = wallConfig.getDenyVariants();
+        //permit
+        dataOperator(customizer.getDatabase2PermitVariants(), dbType, dataConsumer(permitVariants, denyVariants));
+        //deny
+        dataOperator(customizer.getDatabase2DenyVariants(), dbType, dataConsumer(denyVariants, permitVariants));
+    }
+
+    private void applyDenyObjects(WallConfig wallConfig, PermitAndDenyCustomizer customizer, DbType dbType) {
+        Set<String> denyObjects = wallConfig.getDenyObjects();
+        //deny objects
+        dataOperator(customizer.getDatabase2DenyObjects(), dbType, dataConsumer(denyObjects, null));
+    }
+
+    private void applyReadOnlyTables(WallConfig wallConfig, PermitAndDenyCustomizer customizer, DbType dbType) {
+        Set<String> readOnlyTables = wallConfig.getReadOnlyTables();
+        //read only tables
+        dataOperator(customizer.getDatabase2ReadOnlyTables(), dbType, dataConsumer(readOnlyTables, null));
+    }
+
+    private void dataOperator(Map<String, Set<String>> customMap, DbType type, Consumer<Set<String>> consumer) {
+        Optional.ofNullable(customMap)
+                .map(map -> map.get(type.name()))
+                .ifPresent(consumer);
+    }
+
+    private Consumer<Set<String>> dataConsumer(Set<String> addAllSet, @Nullable Set<String> removeAllSet) {
+        return data -> {
+            addAllSet.addAll(data);
+
+            if (removeAllSet != null) {
+                removeAllSet.removeAll(data);
+            }
+        };
+    }
+}
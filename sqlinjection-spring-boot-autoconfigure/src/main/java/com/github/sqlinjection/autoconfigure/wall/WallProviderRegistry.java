@@ -0,0 +1,342 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.wall;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.wall.WallProvider;
+import com.github.sqlinjection.autoconfigure.metrics.SqlInjectionMetrics;
+import com.github.sqlinjection.autoconfigure.utils.DbTypeUtils;
+import com.github.sqlinjection.autoconfigure.utils.RoutingDataSourceUtils;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.lang.Nullable;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * The wall providers of one interceptor, one per dialect.
+ * <p>
+ * The db type of a statement is resolved from its database id, or from the data source it is
+ * routed to, and cached per key. So routing data sources spanning several dialects check every
+ * statement with the provider of the right dialect. The providers are swapped as a whole on reload,
+ * so requests never wait for a reload.
+ *
+ * @author sean chen
+ * @date 2026/10/18 2:50 PM
+ */
+public class WallProviderRegistry {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(WallProviderRegistry.class);
+
+    /**
+     * Marks keys whose db type is resolved but not supported
+     */
+    private static final DbType UNSUPPORTED = DbType.other;
+
+    private final SqlInjectionMetrics metrics;
+
+    private volatile Providers providers;
+
+    /**
+     * database id / target data source -> db type
+     */
+    private final Map<Object, DbType> dbTypes = new ConcurrentHashMap<>();
+
+    /**
+     * data source of the mybatis environment -> db types of all its targets
+     */
+    private final Map<DataSource, Set<DbType>> dialects = new ConcurrentHashMap<>();
+
+    private final ProviderCircuitBreaker circuitBreaker;
+
+    private final ReentrantLock reloadLock = new ReentrantLock();
+
+    /**
+     * Whether the providers are shared with the other registries of the process, see {@link SharedWallProviders}
+     */
+    private final boolean shared;
+
+    public WallProviderRegistry(WallProviderFactory factory, SqlInjectionMetrics metrics, ProviderCircuitBreaker circuitBreaker) {
+        this(factory, metrics, circuitBreaker, false);
+    }
+
+    public WallProviderRegistry(WallProviderFactory factory, SqlInjectionMetrics metrics,
+                                ProviderCircuitBreaker circuitBreaker, boolean shared) {
+        this.providers = new Providers(factory);
+        this.metrics = metrics;
+        this.circuitBreaker = circuitBreaker;
+        this.shared = shared;
+    }
+
+    /**
+     * Resolve the db types of the configuration and build their providers eagerly
+     *
+     * @param configuration The mybatis configuration
+     */
+    public void init(Configuration configuration) {
+        DataSource dataSource = configuration.getEnvironment().getDataSource();
+
+        Set<DbType> resolved = EnumSet.noneOf(DbType.class);
+        for (DataSource target : RoutingDataSourceUtils.getTargetDataSources(dataSource)) {
+            DbType dbType = getDbType(target, configuration.getDatabaseId(), null, true);
+            if (dbType != null && getWallProvider(dbType) != null) {
+                resolved.add(dbType);
+            }
+        }
+        dialects.put(dataSource, Collections.unmodifiableSet(resolved));
+    }
+
+    /**
+     * Get the db types a statement may be executed against
+     *
+     * @param mappedStatement The mapped statement
+     * @return the db types, empty if unknown
+     */
+    public Set<DbType> getDbTypes(MappedStatement mappedStatement) {
+        DbType dbType = getDbTypeOfDatabaseId(mappedStatement.getDatabaseId());
+        if (dbType != null) {
+            return Collections.singleton(dbType);
+        }
+        DataSource dataSource = mappedStatement.getConfiguration().getEnvironment().getDataSource();
+        return dialects.getOrDefault(dataSource, Collections.emptySet());
+    }
+
+    /**
+     * Resolve the db type of the statement being prepared
+     *
+     * @param mappedStatement The mapped statement
+     * @param connection      The connection the statement is prepared on
+     * @return the db type, or {@code null} if it is not supported
+     */
+    @Nullable
+    public DbType getDbType(MappedStatement mappedStatement, @Nullable Connection connection) {
+        DbType dbType = getDbTypeOfDatabaseId(mappedStatement.getDatabaseId());
+        if (dbType != null) {
+            return dbType;
+        }
+
+        Configuration configuration = mappedStatement.getConfiguration();
+        DataSource dataSource = RoutingDataSourceUtils.determineTargetDataSource(configuration.getEnvironment().getDataSource());
+        return getDbType(dataSource, configuration.getDatabaseId(), connection, false);
+    }
+
+    /**
+     * Get the wall provider of the db type, it is built once and reused.
+     * <p>
+     * The first caller builds it, the others wait for its future. Nothing is built inside a monitor, so
+     * virtual threads waiting for a slow build park instead of pinning their carrier threads
+     *
+     * @param dbType The db type
+     * @return the wall provider, or {@code null} if it can not be built or the circuit breaker is open
+     */
+    @Nullable
+    public WallProvider getWallProvider(DbType dbType) {
+        Providers current = this.providers;
+        WallProvider provider = current.providers.get(dbType);
+        if (provider != null) {
+            return provider;
+        }
+
+        if (!circuitBreaker.tryAcquire()) {
+            return null;
+        }
+
+        CompletableFuture<WallProvider> creation = new CompletableFuture<>();
+        CompletableFuture<WallProvider> pending = current.creations.putIfAbsent(dbType, creation);
+        if (pending != null) {
+            try {
+                provider = pending.join();
+            } catch (CompletionException | CancellationException e) {
+                // logged and counted by the caller building it
+                return null;
+            }
+            circuitBreaker.onSuccess();
+            return provider;
+        }
+
+        try {
+            provider = createWallProvider(current.factory, dbType);
+            metrics.bindWallProvider(dbType, provider);
+        } catch (Throwable throwable) {
+            LOGGER.error("Init druid wall provider error, dbType {}.", dbType, throwable);
+            // the next caller tries again
+            current.creations.remove(dbType, creation);
+            creation.completeExceptionally(throwable);
+            circuitBreaker.onFailure();
+            return null;
+        }
+        current.providers.put(dbType, provider);
+        creation.complete(provider);
+        circuitBreaker.onSuccess();
+        return provider;
+    }
+
+    /**
+     * Get the pre-scanner of the wall provider, it is built once and reused until the providers are reloaded
+     *
+     * @param dbType   The db type
+     * @param provider The wall provider of the db type
+     * @return the pre-scanner
+     */
+    public WallPreScanner getPreScanner(DbType dbType, WallProvider provider) {
+        return providers.preScanners.computeIfAbsent(provider, key -> new WallPreScanner(dbType, key.getConfig()));
+    }
+
+    /**
+     * Get the wall providers built so far
+     *
+     * @return the wall providers
+     */
+    public Collection<WallProvider> getWallProviders() {
+        return Collections.unmodifiableCollection(providers.providers.values());
+    }
+
+    /**
+     * Rebuild the wall providers of all dialects built so far with the given factory, then swap them in at once.
+     * The current providers keep serving requests until then, and stay in place if a provider can not be built
+     *
+     * @param factory The factory of the new wall config
+     * @return what changed in the wall configs
+     */
+    public WallConfigDiff reload(WallProviderFactory factory) {
+        reloadLock.lock();
+        try {
+            Providers previous = this.providers;
+            Providers reloaded = new Providers(factory);
+            WallConfigDiff diff = WallConfigDiff.NONE;
+            for (Map.Entry<DbType, WallProvider> entry : previous.providers.entrySet()) {
+                WallProvider provider = createWallProvider(factory, entry.getKey());
+                reloaded.providers.put(entry.getKey(), provider);
+                reloaded.creations.put(entry.getKey(), CompletableFuture.completedFuture(provider));
+                diff = diff.merge(WallConfigDiff.between(entry.getValue().getConfig(), provider.getConfig()));
+            }
+
+            this.providers = reloaded;
+            // bound before the previous ones are unbound, so a provider in both is not retired
+            reloaded.providers.forEach(metrics::bindWallProvider);
+            previous.providers.forEach(metrics::unbindWallProvider);
+            return diff;
+        } finally {
+            reloadLock.unlock();
+        }
+    }
+
+    private WallProvider createWallProvider(WallProviderFactory factory, DbType dbType) {
+        return shared ? SharedWallProviders.getWallProvider(factory, dbType) : factory.createWallProvider(dbType);
+    }
+
+    @Nullable
+    private DbType getDbTypeOfDatabaseId(@Nullable String databaseId) {
+        if (databaseId == null) {
+            return null;
+        }
+        DbType dbType = dbTypes.computeIfAbsent(databaseId, key -> {
+            DbType resolved = DbTypeUtils.getDbTypeOfDatabaseId(databaseId);
+            return resolved == null ? UNSUPPORTED : resolved;
+        });
+        return dbType == UNSUPPORTED ? null : dbType;
+    }
+
+    @Nullable
+    private DbType getDbType(DataSource dataSource, @Nullable String databaseId,
+                             @Nullable Connection connection, boolean borrowConnection) {
+        DbType dbType = dbTypes.get(dataSource);
+        if (dbType != null) {
+            return dbType == UNSUPPORTED ? null : dbType;
+        }
+
+        if (!circuitBreaker.tryAcquire()) {
+            return null;
+        }
+
+        String url = DbTypeUtils.getUrl(dataSource);
+        dbType = DbTypeUtils.getDbType(url);
+
+        if (dbType == null) {
+            dbType = DbTypeUtils.getDbTypeOfDatabaseId(databaseId);
+        }
+
+        if (dbType == null && (connection != null || borrowConnection)) {
+            // the pool does not expose its url, use the connection being prepared or borrow one at startup
+            try {
+                url = connection != null ? connection.getMetaData().getURL() : getUrl(dataSource);
+                dbType = DbTypeUtils.getDbType(url);
+            } catch (Throwable throwable) {
+                LOGGER.error("Resolve the db type error.", throwable);
+                circuitBreaker.onFailure();
+                return null;
+            }
+        }
+        circuitBreaker.onSuccess();
+
+        if (dbType == null) {
+            if (url == null) {
+                // not resolvable without a connection yet
+                return null;
+            }
+            LOGGER.info("The db type is not supported, url: {}", url);
+            dbTypes.put(dataSource, UNSUPPORTED);
+            return null;
+        }
+
+        dbTypes.put(dataSource, dbType);
+        return dbType;
+    }
+
+    private String getUrl(DataSource dataSource) throws SQLException {
+        try (Connection connection = dataSource.getConnection()) {
+            return connection.getMetaData().getURL();
+        }
+    }
+
+    private static final class Providers {
+
+        private final WallProviderFactory factory;
+        private final Map<DbType, WallProvider> providers = new ConcurrentHashMap<>();
+        /**
+         * db type -> the provider being built or built
+         */
+        private final ConcurrentMap<DbType, CompletableFuture<WallProvider>> creations = new ConcurrentHashMap<>();
+        private final Map<WallProvider, WallPreScanner> preScanners = new ConcurrentHashMap<>();
+
+        private Providers(WallProviderFactory factory) {
+            this.factory = factory;
+        }
+    }
+}
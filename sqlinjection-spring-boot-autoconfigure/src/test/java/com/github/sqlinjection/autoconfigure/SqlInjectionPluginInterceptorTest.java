@@ -0,0 +1,252 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure;
+
+import com.alibaba.druid.DbType;
+import com.github.sqlinjection.autoconfigure.metrics.SkipReason;
+import com.github.sqlinjection.autoconfigure.metrics.SqlInjectionMetrics;
+import com.github.sqlinjection.autoconfigure.properties.SqlInjectionProperties;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author sean chen
+ * @date 2026/10/19 10:12 AM
+ */
+class SqlInjectionPluginInterceptorTest {
+
+    private static final ThreadLocal<String> ROUTE = new ThreadLocal<>();
+
+    private final SqlInjectionPluginInterceptor interceptor =
+            new SqlInjectionPluginInterceptor(new SqlInjectionProperties(), new PermitAndDenyCustomizer());
+
+    @Test
+    void cachedPassDoesNotPassAlwaysTrueCondition() {
+        assertDoesNotThrow(() -> interceptor.intercept(StubStatements.prepare("SELECT * FROM t WHERE id = 1 OR 1 = 2")));
+        assertThrows(SqlInjectionException.class,
+                () -> interceptor.intercept(StubStatements.prepare("SELECT * FROM t WHERE id = 1 OR 1 = 1")));
+    }
+
+    @Test
+    void cachedDeletePassDoesNotPassAlwaysTrueCondition() {
+        assertDoesNotThrow(() -> interceptor.intercept(StubStatements.prepare("DELETE FROM t WHERE id = 1 OR 1 = 2")));
+        assertThrows(SqlInjectionException.class,
+                () -> interceptor.intercept(StubStatements.prepare("DELETE FROM t WHERE id = 1 OR 1 = 1")));
+    }
+
+    @Test
+    void cachedViolationDoesNotRejectBenignCondition() {
+        assertThrows(SqlInjectionException.class,
+                () -> interceptor.intercept(StubStatements.prepare("SELECT * FROM t WHERE id = 1 OR 1 = 1")));
+        assertDoesNotThrow(() -> interceptor.intercept(StubStatements.prepare("SELECT * FROM t WHERE id = 1 OR 1 = 2")));
+        assertThrows(SqlInjectionException.class,
+                () -> interceptor.intercept(StubStatements.prepare("SELECT * FROM t WHERE id = 1 OR 1 = 1")));
+    }
+
+    @Test
+    void substitutionFreeStatementTrustsOnlyCheckedSql() throws NoSuchMethodException {
+        MappedStatement statement = StubStatements.statement("mysql", "com.github.sqlinjection.Mapper.select",
+                "SELECT * FROM t WHERE id = ?");
+        interceptor.markSubstitutionFree(statement);
+
+        assertDoesNotThrow(() -> interceptor.intercept(StubStatements.prepare(statement, "SELECT * FROM t WHERE id = ?")));
+        assertDoesNotThrow(() -> interceptor.intercept(StubStatements.prepare(statement, "SELECT * FROM t WHERE id = ?")));
+        // rewritten by another plugin
+        Invocation rewritten = StubStatements.prepare(statement, "SELECT * FROM t WHERE id = ? OR 1 = 1");
+        assertThrows(SqlInjectionException.class, () -> interceptor.intercept(rewritten));
+    }
+
+    @Test
+    void reloadChecksTrustedSqlAgain() throws NoSuchMethodException {
+        MappedStatement statement = StubStatements.statement("mysql", "com.github.sqlinjection.Mapper.delete",
+                "DELETE FROM t WHERE id = ?");
+        interceptor.markSubstitutionFree(statement);
+        Invocation delete = StubStatements.prepare(statement, "DELETE FROM t WHERE id = ?");
+        assertDoesNotThrow(() -> interceptor.intercept(delete));
+
+        PermitAndDenyCustomizer customizer = new PermitAndDenyCustomizer();
+        customizer.setDeleteAllow(false);
+        interceptor.reload(customizer);
+
+        assertThrows(SqlInjectionException.class, () -> interceptor.intercept(delete));
+    }
+
+    @Test
+    void reloadInvalidatesCachedPass() throws NoSuchMethodException {
+        CountingMetrics metrics = new CountingMetrics();
+        SqlInjectionPluginInterceptor interceptor = new SqlInjectionPluginInterceptor(uncheckedByPreScan(),
+                new PermitAndDenyCustomizer(), collaborators(metrics));
+        Invocation delete = StubStatements.prepare("DELETE FROM t WHERE id = 1");
+        assertDoesNotThrow(() -> interceptor.intercept(delete));
+        assertDoesNotThrow(() -> interceptor.intercept(delete));
+        assertEquals(1, metrics.skipped(SkipReason.CACHED));
+
+        interceptor.reload(denyDelete());
+
+        assertThrows(SqlInjectionException.class, () -> interceptor.intercept(delete));
+    }
+
+    @Test
+    void unchangedReloadKeepsCachedAndTrustedSql() throws NoSuchMethodException {
+        CountingMetrics metrics = new CountingMetrics();
+        SqlInjectionPluginInterceptor interceptor = new SqlInjectionPluginInterceptor(uncheckedByPreScan(),
+                new PermitAndDenyCustomizer(), collaborators(metrics));
+        MappedStatement statement = StubStatements.statement("mysql", "com.github.sqlinjection.Mapper.delete",
+                "DELETE FROM t WHERE id = ?");
+        interceptor.markSubstitutionFree(statement);
+        Invocation trusted = StubStatements.prepare(statement, "DELETE FROM t WHERE id = ?");
+        Invocation cached = StubStatements.prepare("SELECT * FROM t WHERE id = 1");
+        assertDoesNotThrow(() -> interceptor.intercept(trusted));
+        assertDoesNotThrow(() -> interceptor.intercept(cached));
+        assertEquals(2, metrics.checks);
+
+        interceptor.reload(new PermitAndDenyCustomizer());
+
+        assertDoesNotThrow(() -> interceptor.intercept(trusted));
+        assertDoesNotThrow(() -> interceptor.intercept(cached));
+        assertEquals(2, metrics.checks);
+        assertEquals(1, metrics.skipped(SkipReason.SUBSTITUTION_FREE));
+        assertEquals(1, metrics.skipped(SkipReason.CACHED));
+    }
+
+    @Test
+    void passCheckedDuringReloadIsNotCached() throws NoSuchMethodException {
+        CountingMetrics metrics = new CountingMetrics();
+        SqlInjectionPluginInterceptor interceptor = new SqlInjectionPluginInterceptor(uncheckedByPreScan(),
+                new PermitAndDenyCustomizer(), collaborators(metrics));
+        MappedStatement statement = StubStatements.statement("mysql", "com.github.sqlinjection.Mapper.delete",
+                "DELETE FROM t WHERE id = ?");
+        interceptor.markSubstitutionFree(statement);
+        Invocation delete = StubStatements.prepare(statement, "DELETE FROM t WHERE id = ?");
+        // the reload lands after the previous provider passed the sql and before its verdict is cached and trusted
+        metrics.onCheck = () -> interceptor.reload(denyDelete());
+
+        assertDoesNotThrow(() -> interceptor.intercept(delete));
+
+        metrics.onCheck = null;
+        assertThrows(SqlInjectionException.class, () -> interceptor.intercept(delete));
+    }
+
+    @Test
+    void substitutionFreeStatementIsTrustedPerDialect() throws NoSuchMethodException {
+        SqlInjectionProperties properties = new SqlInjectionProperties();
+        // the tokens of the sql pass the pre-scan, the parsers of the dialects tell them apart
+        properties.getPreScan().setEnabled(false);
+        SqlInjectionPluginInterceptor interceptor = new SqlInjectionPluginInterceptor(properties, new PermitAndDenyCustomizer());
+
+        Configuration configuration = new Configuration(new Environment("routing", new JdbcTransactionFactory(), routingDataSource()));
+        // passes the mysql wall, the postgresql parser rejects the limit
+        String sql = "SELECT * FROM t WHERE id = ? LIMIT 1, 2";
+        MappedStatement statement = StubStatements.statement(configuration, null, "com.github.sqlinjection.Mapper.page", sql);
+        interceptor.getWallProviderRegistry().init(configuration);
+        interceptor.markSubstitutionFree(statement);
+        Invocation page = StubStatements.prepare(statement, sql);
+
+        try {
+            ROUTE.set("mysql");
+            assertDoesNotThrow(() -> interceptor.intercept(page));
+            assertDoesNotThrow(() -> interceptor.intercept(page));
+
+            // passed and trusted on mysql only
+            ROUTE.set("postgresql");
+            assertThrows(SqlInjectionException.class, () -> interceptor.intercept(page));
+        } finally {
+            ROUTE.remove();
+        }
+    }
+
+    private static SqlInjectionProperties uncheckedByPreScan() {
+        SqlInjectionProperties properties = new SqlInjectionProperties();
+        // every sql not cached or trusted is parsed by the wall
+        properties.getPreScan().setEnabled(false);
+        return properties;
+    }
+
+    private static SqlInjectionCollaborators collaborators(SqlInjectionMetrics metrics) {
+        SqlInjectionCollaborators collaborators = new SqlInjectionCollaborators();
+        collaborators.setMetrics(metrics);
+        return collaborators;
+    }
+
+    private static PermitAndDenyCustomizer denyDelete() {
+        PermitAndDenyCustomizer customizer = new PermitAndDenyCustomizer();
+        customizer.setDeleteAllow(false);
+        return customizer;
+    }
+
+    private static AbstractRoutingDataSource routingDataSource() {
+        AbstractRoutingDataSource dataSource = new AbstractRoutingDataSource() {
+            @Override
+            protected Object determineCurrentLookupKey() {
+                return ROUTE.get();
+            }
+        };
+        Map<Object, Object> targets = new HashMap<>();
+        targets.put("mysql", new DriverManagerDataSource("jdbc:mysql://localhost:3306/test"));
+        targets.put("postgresql", new DriverManagerDataSource("jdbc:postgresql://localhost:5432/test"));
+        dataSource.setTargetDataSources(targets);
+        dataSource.afterPropertiesSet();
+        return dataSource;
+    }
+
+    private static final class CountingMetrics implements SqlInjectionMetrics {
+
+        private final Map<SkipReason, Integer> skipped = new EnumMap<>(SkipReason.class);
+
+        private int checks;
+
+        private Runnable onCheck;
+
+        @Override
+        public void recordCheck(DbType dbType, String statementId, long nanos) {
+            checks++;
+            if (onCheck != null) {
+                onCheck.run();
+            }
+        }
+
+        @Override
+        public void recordSkipped(SkipReason reason) {
+            skipped.merge(reason, 1, Integer::sum);
+        }
+
+        private int skipped(SkipReason reason) {
+            return skipped.getOrDefault(reason, 0);
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure;
+
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.executor.statement.RoutingStatementHandler;
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.mapping.BoundSql;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.session.RowBounds;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.util.Collections;
+
+/**
+ * Builds the prepare invocations the interceptor sees, the statements are prepared on stub connections.
+ *
+ * @author sean chen
+ * @date 2026/10/19 10:05 AM
+ */
+final class StubStatements {
+
+    private static final PreparedStatement PREPARED_STATEMENT = (PreparedStatement) Proxy.newProxyInstance(
+            StubStatements.class.getClassLoader(), new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> defaultValue(method.getReturnType()));
+
+    static final Connection CONNECTION = connection(null);
+
+    private StubStatements() {
+    }
+
+    /**
+     * @param metaData The meta data of the connection
+     * @return a connection which prepares stub statements
+     */
+    static Connection connection(DatabaseMetaData metaData) {
+        return (Connection) Proxy.newProxyInstance(StubStatements.class.getClassLoader(), new Class<?>[]{Connection.class}, (proxy, method, args) -> {
+            if (DatabaseMetaData.class.equals(method.getReturnType())) {
+                return metaData;
+            }
+            return PreparedStatement.class.equals(method.getReturnType()) ? PREPARED_STATEMENT : defaultValue(method.getReturnType());
+        });
+    }
+
+    /**
+     * Build a statement of a static sql, the db type is given by the database id
+     *
+     * @param databaseId  The database id, e.g. mysql
+     * @param statementId The statement id
+     * @param sql         The sql
+     * @return the mapped statement
+     */
+    static MappedStatement statement(String databaseId, String statementId, String sql) {
+        return statement(new Configuration(), databaseId, statementId, sql);
+    }
+
+    static MappedStatement statement(Configuration configuration, String databaseId, String statementId, String sql) {
+        return new MappedStatement.Builder(configuration, statementId, new StaticSqlSource(configuration, sql), SqlCommandType.SELECT)
+                .databaseId(databaseId)
+                .build();
+    }
+
+    /**
+     * Build the invocation which prepares the given sql of a statement, a sql other than the one of the statement
+     * is as if another plugin rewrote it
+     *
+     * @param mappedStatement The mapped statement
+     * @param sql             The sql prepared
+     * @return the invocation of {@link StatementHandler#prepare(Connection, Integer)}
+     */
+    static Invocation prepare(MappedStatement mappedStatement, String sql) throws NoSuchMethodException {
+        return prepare(mappedStatement, sql, CONNECTION);
+    }
+
+    static Invocation prepare(MappedStatement mappedStatement, String sql, Connection connection) throws NoSuchMethodException {
+        BoundSql boundSql = new BoundSql(mappedStatement.getConfiguration(), sql, Collections.emptyList(), null);
+        StatementHandler statementHandler = new RoutingStatementHandler(null, mappedStatement, null,
+                RowBounds.DEFAULT, null, boundSql);
+        Method prepare = StatementHandler.class.getMethod("prepare", Connection.class, Integer.class);
+        return new Invocation(statementHandler, prepare, new Object[]{connection, null});
+    }
+
+    static Invocation prepare(String sql) throws NoSuchMethodException {
+        return prepare(statement("mysql", "com.github.sqlinjection.Mapper.select", sql), sql);
+    }
+
+    private static Object defaultValue(Class<?> type) {
+        if (type == boolean.class) {
+            return false;
+        }
+        if (type == int.class) {
+            return 0;
+        }
+        if (type == long.class) {
+            return 0L;
+        }
+        return null;
+    }
+}
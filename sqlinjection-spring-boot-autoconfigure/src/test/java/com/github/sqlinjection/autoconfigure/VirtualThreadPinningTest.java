@@ -0,0 +1,204 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure;
+
+import com.alibaba.druid.DbType;
+import com.github.sqlinjection.autoconfigure.metrics.SqlInjectionMetrics;
+import com.github.sqlinjection.autoconfigure.properties.SqlInjectionProperties;
+import com.github.sqlinjection.autoconfigure.wall.ProviderCircuitBreaker;
+import com.github.sqlinjection.autoconfigure.wall.WallProviderFactory;
+import com.github.sqlinjection.autoconfigure.wall.WallProviderRegistry;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.session.Configuration;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import javax.sql.DataSource;
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the lookups of the wall providers on virtual threads against a slow data source, and asserts that no
+ * virtual thread parks while it holds a monitor.
+ * <p>
+ * Only runs on a jdk with virtual threads, the jdk21 profile passes {@code -Djdk.tracePinnedThreads=full}, so the
+ * jdk prints the stack trace of every pinned virtual thread to {@code System.out}.
+ *
+ * @author sean chen
+ * @date 2026/10/19 1:40 PM
+ */
+@EnabledIfSystemProperty(named = "jdk.tracePinnedThreads", matches = ".+")
+class VirtualThreadPinningTest {
+
+    private static final int THREADS = 64;
+
+    private static final long LATENCY_MILLIS = 20;
+
+    private static final Connection SLOW_CONNECTION = StubStatements.connection((DatabaseMetaData) Proxy.newProxyInstance(
+            VirtualThreadPinningTest.class.getClassLoader(), new Class<?>[]{DatabaseMetaData.class}, (proxy, method, args) -> {
+                if ("getURL".equals(method.getName())) {
+                    Thread.sleep(LATENCY_MILLIS);
+                    return "jdbc:mysql://localhost:3306/pinning";
+                }
+                throw new UnsupportedOperationException(method.getName());
+            }));
+
+    @Test
+    void getWallProviderDoesNotPin() throws Exception {
+        WallProviderRegistry registry = new WallProviderRegistry(new WallProviderFactory(new PermitAndDenyCustomizer()),
+                SqlInjectionMetrics.NOOP, new ProviderCircuitBreaker(new SqlInjectionProperties().getCircuitBreaker(),
+                ProviderCircuitBreaker.Listener.NOOP));
+
+        String trace = tracePinnedThreads(() -> {
+            // the url is not exposed, so every thread resolves the db type through the slow connection
+            assertEquals(DbType.mysql, registry.getDbType(statement(), SLOW_CONNECTION));
+            assertNotNull(registry.getWallProvider(DbType.mysql));
+        });
+
+        assertEquals("", trace, "virtual threads were pinned");
+    }
+
+    @Test
+    void interceptDoesNotPin() throws Exception {
+        SqlInjectionPluginInterceptor interceptor =
+                new SqlInjectionPluginInterceptor(new SqlInjectionProperties(), new PermitAndDenyCustomizer());
+        MappedStatement statement = statement();
+
+        String trace = tracePinnedThreads(() ->
+                interceptor.intercept(StubStatements.prepare(statement, "SELECT * FROM t WHERE id = ?", SLOW_CONNECTION)));
+
+        assertEquals("", trace, "virtual threads were pinned");
+    }
+
+    /**
+     * Run the task on many virtual threads at once
+     *
+     * @return what the jdk traced of the pinned threads
+     */
+    private static String tracePinnedThreads(Task task) throws Exception {
+        ByteArrayOutputStream trace = new ByteArrayOutputStream();
+        PrintStream out = System.out;
+        System.setOut(new PrintStream(trace, true, StandardCharsets.UTF_8.name()));
+        // the source level is 8, so the executor of jdk 21 is looked up reflectively
+        ExecutorService executor = (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        try {
+            List<Future<?>> futures = new ArrayList<>(THREADS);
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    try {
+                        task.run();
+                    } catch (Throwable throwable) {
+                        throw new IllegalStateException(throwable);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+            System.setOut(out);
+        }
+        return trace.toString(StandardCharsets.UTF_8.name());
+    }
+
+    private static MappedStatement statement() {
+        Configuration configuration = new Configuration(new Environment("pinning", new JdbcTransactionFactory(), new SlowDataSource()));
+        return StubStatements.statement(configuration, null, "com.github.sqlinjection.Mapper.select", "SELECT * FROM t WHERE id = ?");
+    }
+
+    private interface Task {
+
+        void run() throws Throwable;
+    }
+
+    /**
+     * A pool which does not expose its url and is slow to hand out connections
+     */
+    private static class SlowDataSource implements DataSource {
+
+        @Override
+        public Connection getConnection() {
+            try {
+                Thread.sleep(LATENCY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return SLOW_CONNECTION;
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) {
+            return getConnection();
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> iface) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean isWrapperFor(Class<?> iface) {
+            return false;
+        }
+
+        @Override
+        public PrintWriter getLogWriter() {
+            return null;
+        }
+
+        @Override
+        public void setLogWriter(PrintWriter out) {
+        }
+
+        @Override
+        public void setLoginTimeout(int seconds) {
+        }
+
+        @Override
+        public int getLoginTimeout() {
+            return 0;
+        }
+
+        @Override
+        public Logger getParentLogger() {
+            return Logger.getGlobal();
+        }
+    }
+}
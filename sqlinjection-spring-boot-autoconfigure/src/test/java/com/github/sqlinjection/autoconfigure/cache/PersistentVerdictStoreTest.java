@@ -0,0 +1,116 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.cache;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.wall.WallConfig;
+import com.alibaba.druid.wall.WallProvider;
+import com.alibaba.druid.wall.spi.MySqlWallProvider;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * @author sean chen
+ * @date 2026/10/19 11:02 AM
+ */
+class PersistentVerdictStoreTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void storeIsSharedPerFile() throws IOException {
+        Path file = directory.resolve("verdicts");
+        WallProvider provider = new MySqlWallProvider(new WallConfig());
+
+        PersistentVerdictStore first = PersistentVerdictStore.open(file, 1024);
+        PersistentVerdictStore second = PersistentVerdictStore.open(directory.resolve("../" + directory.getFileName() + "/verdicts"), 1024);
+        assertSame(first, second);
+
+        first.put(DbType.mysql, provider, 1L);
+        second.put(DbType.mysql, provider, 2L);
+        assertEquals(2, first.size());
+
+        // still used by the second interceptor
+        first.close();
+        second.put(DbType.mysql, provider, 3L);
+        second.close();
+
+        PersistentVerdictStore reopened = PersistentVerdictStore.open(file, 1024);
+        try {
+            assertNotSame(first, reopened);
+            assertEquals(3, reopened.size());
+            assertTrue(reopened.contains(DbType.mysql, provider, 1L));
+            assertTrue(reopened.contains(DbType.mysql, provider, 3L));
+            assertFalse(reopened.contains(DbType.mysql, provider, 4L));
+        } finally {
+            reopened.close();
+        }
+    }
+
+    @Test
+    void verdictsAreKeyedByConfig() throws IOException {
+        WallProvider provider = new MySqlWallProvider(new WallConfig());
+        WallConfig denyConfig = new WallConfig();
+        denyConfig.getDenyTables().add("users");
+        WallProvider denyProvider = new MySqlWallProvider(denyConfig);
+
+        PersistentVerdictStore store = PersistentVerdictStore.open(directory.resolve("verdicts"), 1024);
+        try {
+            store.put(DbType.mysql, provider, 1L);
+            store.put(DbType.mysql, denyProvider, 2L);
+            assertTrue(store.contains(DbType.mysql, provider, 1L));
+            assertFalse(store.contains(DbType.mysql, denyProvider, 1L));
+            assertTrue(store.contains(DbType.mysql, denyProvider, 2L));
+            assertFalse(store.contains(DbType.mysql, provider, 2L));
+        } finally {
+            store.close();
+        }
+    }
+
+    @Test
+    void putAfterCloseIsIgnored() throws IOException {
+        Path file = directory.resolve("verdicts");
+        WallProvider provider = new MySqlWallProvider(new WallConfig());
+
+        PersistentVerdictStore store = PersistentVerdictStore.open(file, 1024);
+        store.put(DbType.mysql, provider, 1L);
+        store.close();
+        // e.g. a shadow check still running at shutdown
+        store.put(DbType.mysql, provider, 2L);
+
+        PersistentVerdictStore reopened = PersistentVerdictStore.open(file, 1024);
+        try {
+            assertEquals(1, reopened.size());
+            assertFalse(reopened.contains(DbType.mysql, provider, 2L));
+        } finally {
+            reopened.close();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author sean chen
+ * @date 2026/10/19 7:35 PM
+ */
+class SetAssociativeTableTest {
+
+    @Test
+    void firstValueOfFingerprintIsKept() {
+        SetAssociativeTable<String> table = new SetAssociativeTable<>(16);
+        table.put(1L, "first");
+        table.put(1L, "second");
+
+        assertEquals("first", table.get(1L));
+        table.remove(1L);
+        assertNull(table.get(1L));
+    }
+
+    @Test
+    void fullSetOnlyEvictsItsOwnEntries() {
+        // a single set, the fifth fingerprint evicts one of the four others
+        SetAssociativeTable<Long> table = new SetAssociativeTable<>(4);
+        for (long fingerprint = 0; fingerprint < 5; fingerprint++) {
+            table.put(fingerprint, fingerprint);
+        }
+
+        int kept = 0;
+        for (long fingerprint = 0; fingerprint < 5; fingerprint++) {
+            if (table.get(fingerprint) != null) {
+                kept++;
+            }
+        }
+        assertEquals(4, table.capacity());
+        assertEquals(4, kept);
+        assertEquals(Long.valueOf(4L), table.get(4L));
+    }
+
+    @Test
+    void removeIfCountsRemovedEntries() {
+        SetAssociativeTable<Long> table = new SetAssociativeTable<>(64);
+        for (long fingerprint = 0; fingerprint < 8; fingerprint++) {
+            table.put(fingerprint << 32 | fingerprint * 0x1000_0000L, fingerprint);
+        }
+
+        assertEquals(4, table.removeIf(value -> value % 2 == 0));
+        table.clear();
+        assertEquals(0, table.removeIf(value -> true));
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * @author sean chen
+ * @date 2026/10/19 10:08 AM
+ */
+class SqlFingerprintTest {
+
+    private final SqlFingerprint sqlFingerprint = new SqlFingerprint(0L);
+
+    @Test
+    void literalValuesAreHashed() {
+        assertNotEquals(of("SELECT * FROM t WHERE id = 1 OR 1 = 2"), of("SELECT * FROM t WHERE id = 1 OR 1 = 1"));
+        assertNotEquals(of("DELETE FROM t WHERE id = 1 OR 1 = 2"), of("DELETE FROM t WHERE id = 1 OR 1 = 1"));
+        assertNotEquals(of("SELECT * FROM t WHERE name = 'a' OR 'a' = 'b'"), of("SELECT * FROM t WHERE name = 'a' OR 'a' = 'a'"));
+    }
+
+    @Test
+    void literalListsAreNotCollapsed() {
+        assertNotEquals(of("SELECT * FROM t WHERE 1 IN (2)"), of("SELECT * FROM t WHERE 1 IN (1)"));
+        assertNotEquals(of("SELECT * FROM t WHERE id IN (1, 2)"), of("SELECT * FROM t WHERE id IN (1, 2, 3)"));
+        assertNotEquals(of("INSERT INTO t (a, b) VALUES (1, 'a')"), of("INSERT INTO t (a, b) VALUES (1, 'b')"));
+    }
+
+    @Test
+    void placeholderListsAreCollapsed() {
+        assertEquals(of("SELECT * FROM t WHERE id IN (?)"), of("SELECT * FROM t WHERE id IN (?, ?, ?)"));
+        assertEquals(of("INSERT INTO t (a, b) VALUES (?, ?)"), of("INSERT INTO t (a, b) VALUES (?,?,?)"));
+        assertNotEquals(of("SELECT * FROM t WHERE id IN (?, ?)"), of("SELECT * FROM t WHERE id IN (?, 1)"));
+    }
+
+    @Test
+    void whitespaceAndCaseAreCollapsed() {
+        assertEquals(of("select * from t where id = ?"), of("SELECT  *\t FROM T   WHERE ID = ?"));
+        assertNotEquals(of("SELECT * FROM t WHERE name = 'a'"), of("SELECT * FROM t WHERE name = 'A'"));
+    }
+
+    @Test
+    void dialectAndStatementAreHashed() {
+        assertNotEquals(sqlFingerprint.of("mysql", "select", "SELECT 1"), sqlFingerprint.of("oracle", "select", "SELECT 1"));
+        assertNotEquals(sqlFingerprint.of("mysql", "select", "SELECT 1"), sqlFingerprint.of("mysql", "update", "SELECT 1"));
+    }
+
+    private long of(String sql) {
+        return sqlFingerprint.of("mysql", "com.github.sqlinjection.Mapper.select", sql);
+    }
+}
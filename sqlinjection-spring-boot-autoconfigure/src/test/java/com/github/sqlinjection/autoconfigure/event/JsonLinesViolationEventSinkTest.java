@@ -0,0 +1,103 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.event;
+
+import com.alibaba.druid.DbType;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author sean chen
+ * @date 2026/10/19 5:30 PM
+ */
+class JsonLinesViolationEventSinkTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void rotationWithoutHistoryKeepsOnlyTheCurrentFile() throws IOException {
+        Path file = directory.resolve("violations.jsonl");
+        // every event after the first one rotates the file
+        JsonLinesViolationEventSink sink = new JsonLinesViolationEventSink(file, 1, 0);
+        for (int i = 1; i <= 3; i++) {
+            sink.accept(event("com.github.sqlinjection.Mapper.select" + i));
+        }
+        sink.close();
+
+        assertStatements(file, "com.github.sqlinjection.Mapper.select3");
+        assertFalse(Files.exists(directory.resolve("violations.jsonl.1")));
+    }
+
+    @Test
+    void rotationShiftsTheHistory() throws IOException {
+        Path file = directory.resolve("violations.jsonl");
+        JsonLinesViolationEventSink sink = new JsonLinesViolationEventSink(file, 1, 2);
+        for (int i = 1; i <= 4; i++) {
+            sink.accept(event("com.github.sqlinjection.Mapper.select" + i));
+        }
+        sink.close();
+
+        assertStatements(file, "com.github.sqlinjection.Mapper.select4");
+        assertStatements(directory.resolve("violations.jsonl.1"), "com.github.sqlinjection.Mapper.select3");
+        assertStatements(directory.resolve("violations.jsonl.2"), "com.github.sqlinjection.Mapper.select2");
+        assertFalse(Files.exists(directory.resolve("violations.jsonl.3")));
+    }
+
+    @Test
+    void existingFileIsAppended() throws IOException {
+        Path file = directory.resolve("violations.jsonl");
+        JsonLinesViolationEventSink sink = new JsonLinesViolationEventSink(file, 1024, 1);
+        sink.accept(event("com.github.sqlinjection.Mapper.select1"));
+        sink.close();
+
+        sink = new JsonLinesViolationEventSink(file, 1024, 1);
+        sink.accept(event("com.github.sqlinjection.Mapper.select2"));
+        sink.close();
+
+        assertStatements(file, "com.github.sqlinjection.Mapper.select1", "com.github.sqlinjection.Mapper.select2");
+    }
+
+    private static SqlInjectionViolationEvent event(String statementId) {
+        return new SqlInjectionViolationEvent(0L, DbType.mysql, statementId, 2200, "always true", "0123456789abcdef", true);
+    }
+
+    private static void assertStatements(Path file, String... statementIds) throws IOException {
+        List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+        assertEquals(statementIds.length, lines.size());
+        for (int i = 0; i < statementIds.length; i++) {
+            assertTrue(lines.get(i).contains("\"" + statementIds[i] + "\""), lines.get(i));
+        }
+    }
+}
@@ -0,0 +1,184 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.event;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.wall.Violation;
+import com.alibaba.druid.wall.violation.ErrorCode;
+import com.alibaba.druid.wall.violation.IllegalSQLObjectViolation;
+import com.github.sqlinjection.autoconfigure.metrics.SqlInjectionMetrics;
+import com.github.sqlinjection.autoconfigure.properties.SqlInjectionProperties;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author sean chen
+ * @date 2026/10/19 5:10 PM
+ */
+class ViolationEventPublisherTest {
+
+    private static final Violation VIOLATION = new IllegalSQLObjectViolation(ErrorCode.ALWAYS_TRUE, "always true", "1 = 1");
+
+    private static final String SQL = "SELECT * FROM t WHERE id = 1 OR 1 = 1";
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final SqlInjectionMetrics metrics = new SqlInjectionMetrics() {
+        @Override
+        public void recordEventDropped() {
+            dropped.incrementAndGet();
+        }
+    };
+
+    @Test
+    void everyPublishIsDeliveredOrDropped() throws InterruptedException {
+        CountingSink sink = new CountingSink();
+        ViolationEventPublisher publisher = new ViolationEventPublisher(events(64), Collections.singletonList(sink), metrics);
+
+        int threads = 8;
+        int publishes = 10_000;
+        AtomicLong published = new AtomicLong();
+        List<Thread> publishers = new ArrayList<>(threads);
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < publishes; j++) {
+                    if (publisher.publish(DbType.mysql, "com.github.sqlinjection.Mapper.select", VIOLATION, SQL, true)) {
+                        published.incrementAndGet();
+                    }
+                }
+            });
+            thread.start();
+            publishers.add(thread);
+        }
+        for (Thread thread : publishers) {
+            thread.join();
+        }
+        publisher.close();
+
+        assertEquals(published.get(), sink.accepted.get());
+        assertEquals((long) threads * publishes - published.get(), dropped.get());
+        assertTrue(sink.closed.get());
+    }
+
+    @Test
+    void closeDeliversBufferedEvents() throws InterruptedException {
+        CountDownLatch release = new CountDownLatch(1);
+        CountingSink sink = new CountingSink() {
+            @Override
+            public void accept(SqlInjectionViolationEvent event) throws Exception {
+                release.await();
+                super.accept(event);
+            }
+        };
+        ViolationEventPublisher publisher = new ViolationEventPublisher(events(64), Collections.singletonList(sink), metrics);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(publisher.publish(DbType.mysql, "com.github.sqlinjection.Mapper.select", VIOLATION, SQL, true));
+        }
+
+        Thread closer = new Thread(publisher::close);
+        closer.start();
+        // closed and waiting for the drainer, which still holds the buffered events
+        while (closer.getState() != Thread.State.TIMED_WAITING && closer.isAlive()) {
+            Thread.yield();
+        }
+        assertFalse(publisher.publish(DbType.mysql, "com.github.sqlinjection.Mapper.select", VIOLATION, SQL, true));
+        release.countDown();
+        closer.join();
+
+        assertEquals(10, sink.accepted.get());
+        assertTrue(sink.flushed.get());
+        assertTrue(sink.closed.get());
+    }
+
+    @Test
+    void failingSinkDoesNotStopTheDrainer() {
+        AtomicInteger calls = new AtomicInteger();
+        CountingSink failing = new CountingSink() {
+            @Override
+            public void accept(SqlInjectionViolationEvent event) throws Exception {
+                if (calls.incrementAndGet() % 2 == 1) {
+                    throw new IllegalStateException("sink is down");
+                }
+                super.accept(event);
+            }
+
+            @Override
+            public void flush() {
+                throw new IllegalStateException("sink is down");
+            }
+        };
+        CountingSink healthy = new CountingSink();
+        ViolationEventPublisher publisher = new ViolationEventPublisher(events(64), Arrays.asList(failing, healthy), metrics);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(publisher.publish(DbType.mysql, "com.github.sqlinjection.Mapper.select", VIOLATION, SQL, true));
+        }
+        publisher.close();
+
+        assertEquals(10, calls.get());
+        assertEquals(5, failing.accepted.get());
+        assertEquals(10, healthy.accepted.get());
+        assertTrue(failing.closed.get());
+        assertTrue(healthy.closed.get());
+    }
+
+    private static SqlInjectionProperties.Events events(int bufferSize) {
+        SqlInjectionProperties.Events events = new SqlInjectionProperties.Events();
+        events.setBufferSize(bufferSize);
+        return events;
+    }
+
+    private static class CountingSink implements ViolationEventSink {
+
+        final AtomicInteger accepted = new AtomicInteger();
+        final AtomicBoolean flushed = new AtomicBoolean();
+        final AtomicBoolean closed = new AtomicBoolean();
+
+        @Override
+        public void accept(SqlInjectionViolationEvent event) throws Exception {
+            accepted.incrementAndGet();
+        }
+
+        @Override
+        public void flush() {
+            flushed.set(true);
+        }
+
+        @Override
+        public void close() {
+            closed.set(true);
+        }
+    }
+}
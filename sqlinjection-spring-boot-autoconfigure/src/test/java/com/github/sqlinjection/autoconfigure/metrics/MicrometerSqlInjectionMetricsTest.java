@@ -0,0 +1,105 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.metrics;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.wall.WallConfig;
+import com.alibaba.druid.wall.WallProvider;
+import com.alibaba.druid.wall.spi.MySqlWallProvider;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author sean chen
+ * @date 2026/10/19 3:20 PM
+ */
+class MicrometerSqlInjectionMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final MicrometerSqlInjectionMetrics metrics = new MicrometerSqlInjectionMetrics(registry, false);
+
+    @Test
+    void providerCountersSurviveReload() {
+        WallProvider provider = new MySqlWallProvider(new WallConfig());
+        metrics.bindWallProvider(DbType.mysql, provider);
+        provider.check("SELECT * FROM t WHERE id = ?");
+        provider.check("SELECT * FROM t WHERE id = ? OR 1 = 1");
+        assertEquals(2, count("check"));
+        assertEquals(1, count("violation"));
+
+        WallProvider reloaded = new MySqlWallProvider(new WallConfig());
+        metrics.bindWallProvider(DbType.mysql, reloaded);
+        metrics.unbindWallProvider(DbType.mysql, provider);
+        provider.check("SELECT * FROM t WHERE id = ?");
+        reloaded.check("SELECT * FROM t WHERE id = ?");
+        assertEquals(3, count("check"));
+        assertEquals(1, count("violation"));
+    }
+
+    @Test
+    void providersOfSeveralInterceptorsAreSummed() {
+        WallProvider first = new MySqlWallProvider(new WallConfig());
+        WallProvider second = new MySqlWallProvider(new WallConfig());
+        metrics.bindWallProvider(DbType.mysql, first);
+        metrics.bindWallProvider(DbType.mysql, second);
+        first.check("SELECT * FROM t WHERE id = ?");
+        second.check("SELECT * FROM t WHERE id = ? OR 1 = 1");
+        first.check("SELECT * FROM t WHERE id = ? OR 1 = 1");
+        assertEquals(3, count("check"));
+        assertEquals(2, count("violation"));
+
+        // the second interceptor reloads, the first provider keeps counting
+        WallProvider reloaded = new MySqlWallProvider(new WallConfig());
+        metrics.bindWallProvider(DbType.mysql, reloaded);
+        metrics.unbindWallProvider(DbType.mysql, second);
+        first.check("SELECT * FROM t WHERE name = ?");
+        reloaded.check("SELECT * FROM t WHERE id = ?");
+        assertEquals(5, count("check"));
+        assertEquals(2, count("violation"));
+    }
+
+    @Test
+    void sharedProviderIsRetiredAtTheLastUnbind() {
+        WallProvider shared = new MySqlWallProvider(new WallConfig());
+        metrics.bindWallProvider(DbType.mysql, shared);
+        metrics.bindWallProvider(DbType.mysql, shared);
+        shared.check("SELECT * FROM t WHERE id = ?");
+        assertEquals(1, count("check"));
+
+        metrics.unbindWallProvider(DbType.mysql, shared);
+        shared.check("SELECT * FROM t WHERE id = ?");
+        assertEquals(2, count("check"));
+
+        metrics.unbindWallProvider(DbType.mysql, shared);
+        shared.check("SELECT * FROM t WHERE id = ?");
+        assertEquals(2, count("check"));
+    }
+
+    private double count(String statistic) {
+        return registry.get(MicrometerSqlInjectionMetrics.METRIC_PREFIX + ".provider." + statistic).tag("dbType", "mysql").functionCounter().count();
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author sean chen
+ * @date 2026/10/19 3:10 PM
+ */
+class SqlInjectionEndpointTest {
+
+    private final StatementCheckStatistics statistics = new StatementCheckStatistics();
+
+    private final SqlInjectionEndpoint endpoint = new SqlInjectionEndpoint(statistics);
+
+    @Test
+    void mostExpensiveStatements() {
+        statistics.record("com.github.sqlinjection.Mapper.cheap", 10);
+        statistics.record("com.github.sqlinjection.Mapper.expensive", 1000);
+        statistics.record("com.github.sqlinjection.Mapper.cheap", 20);
+
+        assertEquals(2, endpoint.mostExpensiveStatements(null).size());
+        assertEquals("com.github.sqlinjection.Mapper.expensive", endpoint.mostExpensiveStatements(1).get(0).getStatementId());
+        assertEquals(30, endpoint.mostExpensiveStatements(2).get(1).getTotalNanos());
+    }
+
+    @Test
+    void negativeLimitListsNone() {
+        statistics.record("com.github.sqlinjection.Mapper.select", 10);
+
+        assertTrue(endpoint.mostExpensiveStatements(-1).isEmpty());
+        assertTrue(endpoint.mostExpensiveStatements(0).isEmpty());
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.reload;
+
+import com.github.sqlinjection.autoconfigure.PermitAndDenyCustomizer;
+import com.github.sqlinjection.autoconfigure.StartupSqlInjectionPlugin;
+import com.github.sqlinjection.autoconfigure.properties.SqlInjectionProperties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.env.StandardEnvironment;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author sean chen
+ * @date 2026/10/19 8:10 PM
+ */
+class PermitAndDenyCustomizerReloaderTest {
+
+    private static final String DELETE_ALLOW = "mybatis.plugin.sqlinjection.wall.config.delete-allow";
+
+    @TempDir
+    Path directory;
+
+    private final RecordingPlugin plugin = new RecordingPlugin();
+
+    @Test
+    void environmentChangeReloadsBoundConfig() {
+        StandardEnvironment environment = environment("false");
+        PermitAndDenyCustomizerReloader reloader = new PermitAndDenyCustomizerReloader(plugin, environment,
+                new SqlInjectionProperties.Reload());
+
+        reloader.onApplicationEvent(new EnvironmentChanged());
+
+        PermitAndDenyCustomizer customizer = plugin.reloads.poll();
+        assertNotNull(customizer);
+        assertFalse(customizer.isDeleteAllow());
+    }
+
+    @Test
+    void unboundConfigKeepsCurrentOne() {
+        PermitAndDenyCustomizerReloader reloader = new PermitAndDenyCustomizerReloader(plugin, environment("maybe"),
+                new SqlInjectionProperties.Reload());
+
+        reloader.onApplicationEvent(new EnvironmentChanged());
+
+        assertTrue(plugin.reloads.isEmpty());
+    }
+
+    @Test
+    void changedFileReloadsItsConfig() throws IOException, InterruptedException {
+        Path file = directory.resolve("wall.properties");
+        Files.write(file, (DELETE_ALLOW + "=true").getBytes(StandardCharsets.UTF_8));
+        SqlInjectionProperties.Reload reload = new SqlInjectionProperties.Reload();
+        reload.setFile(file.toString());
+        reload.setInterval(Duration.ofMillis(10));
+        PermitAndDenyCustomizerReloader reloader = new PermitAndDenyCustomizerReloader(plugin, new StandardEnvironment(), reload);
+        try {
+            Files.write(file, (DELETE_ALLOW + "=false").getBytes(StandardCharsets.UTF_8));
+            // the modification time may not move within its resolution
+            assertTrue(file.toFile().setLastModified(file.toFile().lastModified() + 1000L));
+
+            PermitAndDenyCustomizer customizer = plugin.reloads.poll(10, TimeUnit.SECONDS);
+            assertNotNull(customizer);
+            assertFalse(customizer.isDeleteAllow());
+        } finally {
+            reloader.destroy();
+        }
+    }
+
+    private static StandardEnvironment environment(String deleteAllow) {
+        StandardEnvironment environment = new StandardEnvironment();
+        environment.getPropertySources().addFirst(new MapPropertySource("test",
+                Collections.singletonMap(DELETE_ALLOW, deleteAllow)));
+        return environment;
+    }
+
+    private static final class EnvironmentChanged extends ApplicationEvent {
+
+        private static final long serialVersionUID = 1L;
+
+        private EnvironmentChanged() {
+            super(PermitAndDenyCustomizerReloaderTest.class);
+        }
+    }
+
+    private static final class RecordingPlugin extends StartupSqlInjectionPlugin {
+
+        private final BlockingQueue<PermitAndDenyCustomizer> reloads = new LinkedBlockingQueue<>();
+
+        private RecordingPlugin() {
+            super(Collections.emptyList(), new SqlInjectionProperties(), new PermitAndDenyCustomizer());
+        }
+
+        @Override
+        public void reload(PermitAndDenyCustomizer customizer) {
+            reloads.add(customizer);
+        }
+    }
+}
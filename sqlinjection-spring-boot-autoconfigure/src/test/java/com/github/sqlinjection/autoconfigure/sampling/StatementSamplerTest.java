@@ -0,0 +1,96 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.sampling;
+
+import com.github.sqlinjection.autoconfigure.properties.SqlInjectionProperties;
+import org.apache.ibatis.builder.StaticSqlSource;
+import org.apache.ibatis.mapping.MappedStatement;
+import org.apache.ibatis.mapping.SqlCommandType;
+import org.apache.ibatis.session.Configuration;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author sean chen
+ * @date 2026/10/19 3:40 PM
+ */
+class StatementSamplerTest {
+
+    private static final int THREADS = 8;
+
+    private static final int PASSES_PER_THREAD = 10_000;
+
+    private final MappedStatement statement = statement();
+
+    @Test
+    void concurrentPassesAreNotLost() throws InterruptedException {
+        StatementSampler sampler = sampler(THREADS * PASSES_PER_THREAD);
+        assertTrue(sampler.shouldCheck(statement));
+
+        List<Thread> threads = new ArrayList<>(THREADS);
+        for (int i = 0; i < THREADS; i++) {
+            Thread thread = new Thread(() -> {
+                for (int j = 0; j < PASSES_PER_THREAD; j++) {
+                    sampler.recordPass(statement.getId());
+                }
+            });
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertFalse(sampler.shouldCheck(statement));
+    }
+
+    @Test
+    void violatedStatementIsAlwaysChecked() {
+        StatementSampler sampler = sampler(1);
+        assertTrue(sampler.shouldCheck(statement));
+        sampler.recordPass(statement.getId());
+        assertFalse(sampler.shouldCheck(statement));
+
+        sampler.recordViolation(statement.getId());
+        assertTrue(sampler.shouldCheck(statement));
+    }
+
+    private static StatementSampler sampler(int consecutivePasses) {
+        SqlInjectionProperties.Sampling sampling = new SqlInjectionProperties.Sampling();
+        sampling.setConsecutivePasses(consecutivePasses);
+        sampling.setRate(0);
+        return new StatementSampler(sampling);
+    }
+
+    private static MappedStatement statement() {
+        Configuration configuration = new Configuration();
+        return new MappedStatement.Builder(configuration, "com.github.sqlinjection.Mapper.select",
+                new StaticSqlSource(configuration, "SELECT * FROM t WHERE id = ?"), SqlCommandType.SELECT).build();
+    }
+}
@@ -0,0 +1,228 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.utils;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.wall.Violation;
+import com.alibaba.druid.wall.WallProvider;
+import com.github.sqlinjection.autoconfigure.PermitAndDenyCustomizer;
+import com.github.sqlinjection.autoconfigure.wall.WallProviderFactory;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares the druid wall verdict of generated sql with the verdict of the sql collapsed by {@link SqlCollapseUtils}.
+ * <p>
+ * The sql has IN lists and VALUES tuples of placeholders, numbers and keywords, mixed with quotes, comments, line
+ * breaks and the fragments of common injections, comments are always closed since the druid sql server lexer does
+ * not return on an unclosed one, for every dialect of the wall provider factory. With the complete
+ * insert values check both verdicts must agree. With the default config the druid wall only parses the first
+ * {@link com.alibaba.druid.wall.WallConfig#getInsertValuesCheckSize()} tuples of an insert, so the collapsed sql may
+ * only be rejected more often. The seed is fixed, a longer run with another seed is started by e.g.
+ * {@code mvn test -Dtest=SqlCollapseDifferentialTest -Ddifferential.iterations=100000 -Ddifferential.seed=42}.
+ *
+ * @author sean chen
+ * @date 2026/10/18 6:40 PM
+ */
+class SqlCollapseDifferentialTest {
+
+    private static final DbType[] DB_TYPES = {
+            DbType.mysql, DbType.oracle, DbType.sqlserver, DbType.postgresql, DbType.db2, DbType.sqlite, DbType.clickhouse
+    };
+
+    private static final String[] ELEMENTS = {"?", "?", "?", "1", "2.5", "null", "NULL", "default", "true", "false"};
+
+    private static final String[] FRAGMENTS = {
+            " ", " ", "\n", "\r\n", "\t", ",", "(", ")", "'", "''", "\"", "`", "--", "#", "/* (?, ?) */", "*/", "\\",
+            " or 1 = 1", " and 1 = 1", " union select password from t_admin", "; drop table t_user", " sleep(5)",
+            " in ", " values ", " in (", " values (", "'a'", "x", "-1", "0x1f", "1e5", "t.in", "?"
+    };
+
+    private static final String[] TEMPLATES = {
+            "select id, name from t_user where id in %s and status = %s",
+            "select id from t_user where (id, status) in %t",
+            "delete from t_user where id not in %s%f",
+            "insert into t_user (id, name, status) values %t%f",
+            "insert into t_user (id, name, status) value %t on duplicate key update status = %e",
+            "select id from t_user where name = '%f' and id in %s%f",
+            "select id from t_user where id in %s%f and id in %s"
+    };
+
+    @Test
+    void collapsedSqlGetsTheSameVerdict() {
+        int iterations = Integer.getInteger("differential.iterations", 5_000);
+        long seed = Long.getLong("differential.seed", 20261018L);
+        SplittableRandom random = new SplittableRandom(seed);
+        PermitAndDenyCustomizer completeCustomizer = new PermitAndDenyCustomizer();
+        completeCustomizer.setCompleteInsertValuesCheck(true);
+        WallProvider[] providers = createWallProviders(new PermitAndDenyCustomizer());
+        WallProvider[] completeProviders = createWallProviders(completeCustomizer);
+
+        long collapsed = 0;
+        for (int i = 0; i < iterations; i++) {
+            String sql = generate(random);
+            String collapsedSql = SqlCollapseUtils.collapse(sql);
+            if (collapsedSql.equals(sql)) {
+                continue;
+            }
+            collapsed++;
+            for (int k = 0; k < DB_TYPES.length; k++) {
+                assertEquals(passes(completeProviders[k], sql), passes(completeProviders[k], collapsedSql),
+                        message(seed, DB_TYPES[k] + " with the complete insert values check", sql, collapsedSql));
+                // the collapsed sql may only be rejected more often
+                assertTrue(passes(providers[k], sql) || !passes(providers[k], collapsedSql),
+                        message(seed, DB_TYPES[k].toString(), sql, collapsedSql));
+            }
+        }
+        assertTrue(collapsed > 0, "no input was collapsed");
+    }
+
+    private static WallProvider[] createWallProviders(PermitAndDenyCustomizer customizer) {
+        WallProviderFactory factory = new WallProviderFactory(customizer);
+        WallProvider[] providers = new WallProvider[DB_TYPES.length];
+        for (int i = 0; i < DB_TYPES.length; i++) {
+            providers[i] = factory.createWallProvider(DB_TYPES[i]);
+            // the verdicts of the parameterized sql are cached, which would make a verdict depend on the previous ones
+            providers[i].setWhiteListEnable(false);
+            providers[i].setBlackListEnable(false);
+        }
+        return providers;
+    }
+
+    private static String message(long seed, String dbType, String sql, String collapsedSql) {
+        return String.format("seed %d, %s:%n%s%ncollapsed:%n%s", seed, dbType, sql, collapsedSql);
+    }
+
+    private static boolean passes(WallProvider provider, String sql) {
+        try {
+            List<Violation> violations = provider.check(sql).getViolations();
+            return violations.isEmpty();
+        } catch (RuntimeException e) {
+            // the druid wall fails on some malformed sql, which fails the statement as well
+            return false;
+        }
+    }
+
+    private static String generate(SplittableRandom random) {
+        String template = TEMPLATES[random.nextInt(TEMPLATES.length)];
+        StringBuilder sql = new StringBuilder();
+        for (int i = 0; i < template.length(); i++) {
+            char c = template.charAt(i);
+            if (c != '%') {
+                sql.append(c);
+                continue;
+            }
+            switch (template.charAt(++i)) {
+                case 's':
+                    list(random, sql);
+                    break;
+                case 't':
+                    tuples(random, sql);
+                    break;
+                case 'e':
+                    sql.append(element(random));
+                    break;
+                default:
+                    fragments(random, sql, random.nextInt(3));
+                    break;
+            }
+        }
+        return sql.toString();
+    }
+
+    private static void list(SplittableRandom random, StringBuilder sql) {
+        sql.append('(');
+        int size = 1 + random.nextInt(20);
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                separator(random, sql);
+            }
+            element(random, sql);
+        }
+        sql.append(')');
+    }
+
+    private static void tuples(SplittableRandom random, StringBuilder sql) {
+        if (random.nextInt(4) == 0) {
+            sql.append('(');
+        }
+        int size = 1 + random.nextInt(20);
+        int width = 1 + random.nextInt(3);
+        String[] shape = new String[width];
+        for (int j = 0; j < width; j++) {
+            shape[j] = element(random);
+        }
+        for (int i = 0; i < size; i++) {
+            if (i > 0) {
+                separator(random, sql);
+            }
+            sql.append('(');
+            for (int j = 0; j < width; j++) {
+                if (j > 0) {
+                    separator(random, sql);
+                }
+                // mostly the shape of the first tuple
+                if (random.nextInt(8) == 0) {
+                    element(random, sql);
+                } else {
+                    sql.append(shape[j]);
+                }
+            }
+            sql.append(')');
+        }
+        if (sql.charAt(sql.length() - 1) != ')' || random.nextInt(4) == 0) {
+            sql.append(')');
+        }
+    }
+
+    private static void separator(SplittableRandom random, StringBuilder sql) {
+        sql.append(random.nextInt(3) == 0 ? " , " : ",");
+        if (random.nextInt(10) == 0) {
+            fragments(random, sql, 1);
+        }
+    }
+
+    private static void element(SplittableRandom random, StringBuilder sql) {
+        if (random.nextInt(20) == 0) {
+            fragments(random, sql, 1 + random.nextInt(2));
+        } else {
+            sql.append(element(random));
+        }
+    }
+
+    private static String element(SplittableRandom random) {
+        return ELEMENTS[random.nextInt(ELEMENTS.length)];
+    }
+
+    private static void fragments(SplittableRandom random, StringBuilder sql, int count) {
+        for (int i = 0; i < count; i++) {
+            sql.append(FRAGMENTS[random.nextInt(FRAGMENTS.length)]);
+        }
+    }
+}
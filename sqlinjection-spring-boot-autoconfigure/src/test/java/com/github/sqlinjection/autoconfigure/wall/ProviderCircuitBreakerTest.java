@@ -0,0 +1,165 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.wall;
+
+import com.github.sqlinjection.autoconfigure.properties.SqlInjectionProperties;
+import com.github.sqlinjection.autoconfigure.wall.ProviderCircuitBreaker.State;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author sean chen
+ * @date 2026/10/19 8:40 PM
+ */
+class ProviderCircuitBreakerTest {
+
+    private final AtomicLong clock = new AtomicLong();
+
+    private final List<String> changes = new ArrayList<>();
+
+    private final ProviderCircuitBreaker breaker = new ProviderCircuitBreaker(properties(),
+            (source, previous, current) -> changes.add(previous + " -> " + current), clock::get);
+
+    @Test
+    void consecutiveFailuresOpenBreaker() {
+        fail(2);
+        assertEquals(State.CLOSED, breaker.getState());
+        assertTrue(breaker.tryAcquire());
+
+        fail(1);
+
+        assertEquals(State.OPEN, breaker.getState());
+        assertEquals(Duration.ofSeconds(1), breaker.getBackoff());
+        assertFalse(breaker.tryAcquire());
+        assertEquals(Arrays.asList("CLOSED -> OPEN"), changes);
+    }
+
+    @Test
+    void firstCallAfterBackoffIsHalfOpenTrial() {
+        fail(3);
+
+        advance(Duration.ofMillis(999));
+        assertFalse(breaker.tryAcquire());
+        advance(Duration.ofMillis(1));
+        assertTrue(breaker.tryAcquire());
+
+        assertEquals(State.HALF_OPEN, breaker.getState());
+        // a single trial is in flight
+        assertFalse(breaker.tryAcquire());
+        assertEquals(Arrays.asList("CLOSED -> OPEN", "OPEN -> HALF_OPEN"), changes);
+    }
+
+    @Test
+    void successfulTrialClosesBreaker() {
+        fail(3);
+        advance(Duration.ofSeconds(1));
+        assertTrue(breaker.tryAcquire());
+
+        breaker.onSuccess();
+
+        assertEquals(State.CLOSED, breaker.getState());
+        assertEquals(Duration.ZERO, breaker.getBackoff());
+        assertTrue(breaker.tryAcquire());
+        // the failures are counted from zero again
+        fail(2);
+        assertEquals(State.CLOSED, breaker.getState());
+        assertEquals(Arrays.asList("CLOSED -> OPEN", "OPEN -> HALF_OPEN", "HALF_OPEN -> CLOSED"), changes);
+    }
+
+    @Test
+    void backoffGrowsOnRepeatedFailureUpToMaximum() {
+        fail(3);
+
+        advance(Duration.ofSeconds(1));
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(State.OPEN, breaker.getState());
+        assertEquals(Duration.ofSeconds(2), breaker.getBackoff());
+
+        advance(Duration.ofMillis(1999));
+        assertFalse(breaker.tryAcquire());
+        advance(Duration.ofMillis(1));
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(Duration.ofSeconds(4), breaker.getBackoff());
+
+        advance(Duration.ofSeconds(4));
+        assertTrue(breaker.tryAcquire());
+        breaker.onFailure();
+        assertEquals(Duration.ofSeconds(4), breaker.getBackoff());
+    }
+
+    @Test
+    void unreportedTrialIsGivenUpAfterOneBackoff() {
+        fail(3);
+        advance(Duration.ofSeconds(1));
+        assertTrue(breaker.tryAcquire());
+
+        advance(Duration.ofMillis(999));
+        assertFalse(breaker.tryAcquire());
+        advance(Duration.ofMillis(1));
+        assertTrue(breaker.tryAcquire());
+        assertEquals(State.HALF_OPEN, breaker.getState());
+    }
+
+    @Test
+    void failureAcquiredBeforeOpeningIsIgnored() {
+        fail(3);
+
+        breaker.onFailure();
+
+        assertEquals(Duration.ofSeconds(1), breaker.getBackoff());
+        advance(Duration.ofSeconds(1));
+        assertTrue(breaker.tryAcquire());
+    }
+
+    private void fail(int times) {
+        for (int i = 0; i < times; i++) {
+            assertTrue(breaker.tryAcquire());
+            breaker.onFailure();
+        }
+    }
+
+    private void advance(Duration duration) {
+        clock.addAndGet(duration.toNanos());
+    }
+
+    private static SqlInjectionProperties.CircuitBreaker properties() {
+        SqlInjectionProperties.CircuitBreaker properties = new SqlInjectionProperties().getCircuitBreaker();
+        properties.setFailureThreshold(3);
+        properties.setInitialBackoff(Duration.ofSeconds(1));
+        properties.setMaxBackoff(Duration.ofSeconds(4));
+        properties.setMultiplier(2.0);
+        return properties;
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ * The MIT License (MIT)
+ *
+ * Copyright (c) 2023 seanchen(sean737281994@gmail.com)
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.github.sqlinjection.autoconfigure.wall;
+
+import com.alibaba.druid.DbType;
+import com.alibaba.druid.wall.Violation;
+import com.alibaba.druid.wall.WallProvider;
+import com.alibaba.druid.wall.violation.SyntaxErrorViolation;
+import com.github.sqlinjection.autoconfigure.PermitAndDenyCustomizer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+/**
+ * Checks on generated sql that the druid wall passes every sql {@link WallPreScanner} passes.
+ * <p>
+ * The sql are selects, inserts, updates and deletes of random conditions over columns, placeholders, constants,
+ * subqueries and the denied names, with words split, dropped or repeated and the fragments of common injections,
+ * for every dialect of the wall provider factory, with the default config and with a strict one. Comments are always
+ * closed since the druid sql server lexer does not return on an unclosed one. The pre-scan does not check the syntax,
+ * so a sql the druid wall rejects as a syntax error is not a disagreement. The seed is fixed, a longer run with
+ * another seed is started by e.g.
+ * {@code mvn test -Dtest=WallPreScanDifferentialTest -Ddifferential.iterations=100000 -Ddifferential.seed=42}.
+ *
+ * @author sean chen
+ * @date 2026/10/18 7:50 PM
+ */
+class WallPreScanDifferentialTest {
+
+    private static final DbType[] DB_TYPES = {
+            DbType.mysql, DbType.oracle, DbType.sqlserver, DbType.postgresql, DbType.db2, DbType.sqlite, DbType.clickhouse
+    };
+
+    private static final String[] TABLES = {
+            "t_user", "t_order", "t_user u", "t_order o", "t_user as u", "app.t_user", "`t_user`", "\"t_user\"",
+            "information_schema.tables", "mysql.user", "sys.objects", "system.tables", "all_users", "dual", "sysobjects"
+    };
+
+    private static final String[] COLUMNS = {
+            "id", "id", "name", "status", "user_id", "u.id", "o.user_id", "t_user.id", "u.name", "`id`", "\"id\"", "[id]",
+            "true", "false", "unknown", "user", "database", "version", "current_user", "password", "rownum", "null"
+    };
+
+    private static final String[] CONSTANTS = {
+            "?", "?", "?", "1", "0", "2.5", "'a'", "'%'", "N'a'", "''", "-1", "0x1f", "null", "true", "x'1f'", "E'a'", "1e5",
+            "\"a\"", ":a", "@a", "@@version", "$1"
+    };
+
+    private static final String[] OPERATORS = {
+            " = ", " = ", " <> ", " != ", " < ", " > ", " <= ", " >= ", " like ", " not like ", " <=> ", " == ", " + ",
+            " || ", " & ", " ^ ", " regexp ", " is ", " ~ ", " !< "
+    };
+
+    private static final String[] FUNCTIONS = {
+            "count", "sleep", "load_file", "benchmark", "concat", "database", "version", "char", "substr", "lower"
+    };
+
+    private static final String[] FRAGMENTS = {
+            " ", ",", "(", ")", "'", "\"", "`", " -- ", " #", " /* x */", "/*!50000 x */", ";", " or 1 = 1", " or true",
+            " union select password from t_admin", "; drop table t_user", " into outfile '/tmp/x'", " for update",
+            " sleep(5)", " and ", " or ", " not ", "*", ".", "?", "1", "0", " limit 0", " where ", " from ", " select ",
+            " exists ", " case when 1 then 2 end", " having ", " group by id", " order by 1", " natural join t_order",
+            " values (1)", " set id = ?", " returning id", "\\", " # x\n"
+    };
+
+    @Test
+    void wallPassesWhatThePreScanPasses() {
+        int iterations = Integer.getInteger("differential.iterations", 5_000);
+        long seed = Long.getLong("differential.seed", 20261018L);
+        SplittableRandom random = new SplittableRandom(seed);
+
+        PermitAndDenyCustomizer strictCustomizer = new PermitAndDenyCustomizer();
+        strictCustomizer.setSelectAllColumnAllow(false);
+        strictCustomizer.setUpdateWhereNoneCheck(true);
+        strictCustomizer.setDeleteWhereNoneCheck(true);
+        strictCustomizer.setCompleteInsertValuesCheck(true);
+        PermitAndDenyCustomizer[] customizers = {new PermitAndDenyCustomizer(), strictCustomizer};
+
+        WallProvider[][] providers = new WallProvider[customizers.length][DB_TYPES.length];
+        WallPreScanner[][] scanners = new WallPreScanner[customizers.length][DB_TYPES.length];
+        for (int c = 0; c < customizers.length; c++) {
+            WallProviderFactory factory = new WallProviderFactory(customizers[c]);
+            for (int k = 0; k < DB_TYPES.length; k++) {
+                providers[c][k] = factory.createWallProvider(DB_TYPES[k]);
+                // the verdicts of the parameterized sql are cached, which would make a verdict depend on the previous ones
+                providers[c][k].setWhiteListEnable(false);
+                providers[c][k].setBlackListEnable(false);
+                scanners[c][k] = new WallPreScanner(DB_TYPES[k], providers[c][k].getConfig());
+            }
+        }
+
+        for (int i = 0; i < iterations; i++) {
+            String sql = generate(random);
+            for (int c = 0; c < customizers.length; c++) {
+                for (int k = 0; k < DB_TYPES.length; k++) {
+                    if (scanners[c][k].scan(sql) != null) {
+                        assertNotEquals(Verdict.VIOLATED, check(providers[c][k], sql),
+                                String.format("seed %d, %s, %s config, the pre-scan passes a violation:%n%s",
+                                        seed, DB_TYPES[k], c == 0 ? "default" : "strict", sql));
+                    }
+                }
+            }
+        }
+    }
+
+    private enum Verdict {
+        PASSED, VIOLATED, SYNTAX_ERROR
+    }
+
+    private static Verdict check(WallProvider provider, String sql) {
+        try {
+            List<Violation> violations = provider.check(sql).getViolations();
+            if (violations.isEmpty()) {
+                return Verdict.PASSED;
+            }
+            return violations.get(0) instanceof SyntaxErrorViolation ? Verdict.SYNTAX_ERROR : Verdict.VIOLATED;
+        } catch (RuntimeException e) {
+            // the druid wall fails on some malformed sql, which fails the statement as well
+            return Verdict.SYNTAX_ERROR;
+        }
+    }
+
+    private static String generate(SplittableRandom random) {
+        StringBuilder sql = new StringBuilder();
+        switch (random.nextInt(5)) {
+            case 0:
+                insert(random, sql);
+                break;
+            case 1:
+                update(random, sql);
+                break;
+            case 2:
+                delete(random, sql);
+                break;
+            default:
+                select(random, sql, 0);
+                break;
+        }
+        int mutations = random.nextInt(4);
+        for (int i = 0; i < mutations; i++) {
+            mutate(random, sql);
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Insert a fragment, split a word, or drop or repeat a word anywhere
+     */
+    private static void mutate(SplittableRandom random, StringBuilder sql) {
+        int at = random.nextInt(sql.length() + 1);
+        switch (random.nextInt(4)) {
+            case 0:
+                sql.insert(at, ' ');
+                break;
+            case 1:
+            case 2:
+                int start = sql.lastIndexOf(" ", at - 1) + 1;
+                int end = sql.indexOf(" ", at);
+                String word = sql.substring(start, end < 0 ? sql.length() : end);
+                if (random.nextBoolean()) {
+                    sql.delete(start, start + word.length());
+                } else {
+                    sql.insert(start, word + ' ');
+                }
+                break;
+            default:
+                sql.insert(at, pick(random, FRAGMENTS));
+                break;
+        }
+    }
+
+    private static void select(SplittableRandom random, StringBuilder sql, int depth) {
+        sql.append("select ");
+        if (random.nextInt(8) == 0) {
+            sql.append("distinct ");
+        }
+        int columns = 1 + random.nextInt(3);
+        for (int i = 0; i < columns; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            switch (random.nextInt(8)) {
+                case 0:
+                    sql.append('*');
+                    break;
+                case 1:
+                    sql.append("u.*");
+                    break;
+                case 2:
+                    operand(random, sql, depth);
+                    break;
+                case 3:
+                    sql.append(pick(random, COLUMNS)).append(" as ").append(random.nextBoolean() ? "a" : "\"a\"");
+                    break;
+                default:
+                    sql.append(pick(random, COLUMNS));
+                    break;
+            }
+        }
+        sql.append(" from ").append(pick(random, TABLES));
+        if (random.nextInt(4) == 0) {
+            sql.append(random.nextBoolean() ? " left join " : " join ").append(pick(random, TABLES)).append(" on ");
+            condition(random, sql, depth, 2);
+        }
+        if (random.nextInt(5) != 0) {
+            sql.append(" where ");
+            condition(random, sql, depth, 3);
+        }
+        if (random.nextInt(6) == 0) {
+            sql.append(" group by ").append(pick(random, COLUMNS));
+            if (random.nextBoolean()) {
+                sql.append(" having ");
+                condition(random, sql, depth, 1);
+            }
+        }
+        if (random.nextInt(4) == 0) {
+            sql.append(" order by ").append(pick(random, COLUMNS)).append(random.nextBoolean() ? " desc" : "");
+        }
+        if (random.nextInt(4) == 0) {
+            sql.append(" limit ").append(pick(random, "?", "10", "0", "00", "0.0"));
+            int offset = random.nextInt(3);
+            if (offset == 1) {
+                sql.append(" offset ").append(pick(random, "?", "5", "0"));
+            } else if (offset == 2) {
+                sql.insert(sql.lastIndexOf(" limit ") + 7, pick(random, "?", "5", "0") + ", ");
+            }
+        }
+    }
+
+    private static void insert(SplittableRandom random, StringBuilder sql) {
+        int width = 1 + random.nextInt(3);
+        sql.append("insert into ").append(pick(random, TABLES)).append(" (");
+        for (int i = 0; i < width; i++) {
+            sql.append(i > 0 ? ", " : "").append(pick(random, COLUMNS));
+        }
+        sql.append(") values ");
+        int size = 1 + random.nextInt(5);
+        for (int i = 0; i < size; i++) {
+            sql.append(i > 0 ? ", (" : "(");
+            for (int j = 0; j < width; j++) {
+                sql.append(j > 0 ? ", " : "");
+                if (random.nextInt(10) == 0) {
+                    operand(random, sql, 1);
+                } else {
+                    sql.append(pick(random, CONSTANTS));
+                }
+            }
+            sql.append(')');
+        }
+    }
+
+    private static void update(SplittableRandom random, StringBuilder sql) {
+        sql.append("update ").append(pick(random, TABLES)).append(" set ");
+        int size = 1 + random.nextInt(3);
+        for (int i = 0; i < size; i++) {
+            sql.append(i > 0 ? ", " : "").append(pick(random, COLUMNS)).append(" = ");
+            operand(random, sql, 1);
+        }
+        if (random.nextInt(4) != 0) {
+            sql.append(" where ");
+            condition(random, sql, 1, 3);
+        }
+    }
+
+    private static void delete(SplittableRandom random, StringBuilder sql) {
+        sql.append("delete from ").append(pick(random, TABLES));
+        if (random.nextInt(4) != 0) {
+            sql.append(" where ");
+            condition(random, sql, 1, 3);
+        }
+    }
+
+    private static void condition(SplittableRandom random, StringBuilder sql, int depth, int size) {
+        switch (size <= 1 ? random.nextInt(6) : random.nextInt(9)) {
+            case 0:
+                sql.append(pick(random, COLUMNS)).append(random.nextBoolean() ? " in (" : " not in (");
+                if (depth < 2 && random.nextInt(4) == 0) {
+                    select(random, sql, depth + 1);
+                } else {
+                    int elements = 1 + random.nextInt(4);
+                    for (int i = 0; i < elements; i++) {
+                        sql.append(i > 0 ? ", " : "").append(random.nextInt(5) == 0 ? pick(random, CONSTANTS) : "?");
+                    }
+                }
+                sql.append(')');
+                break;
+            case 1:
+                sql.append(pick(random, COLUMNS)).append(random.nextBoolean() ? " between " : " not between ")
+                        .append(pick(random, CONSTANTS)).append(" and ").append(pick(random, CONSTANTS));
+                break;
+            case 2:
+                sql.append(random.nextBoolean() ? pick(random, COLUMNS) : "?").append(random.nextBoolean() ? " is null" : " is not null");
+                break;
+            case 6:
+                sql.append("not ");
+                condition(random, sql, depth, size - 1);
+                break;
+            case 7:
+                sql.append('(');
+                condition(random, sql, depth, size - 1);
+                sql.append(')');
+                break;
+            case 8:
+                condition(random, sql, depth, size - 1);
+                sql.append(random.nextBoolean() ? " and " : " or ");
+                condition(random, sql, depth, size - 1);
+                break;
+            default:
+                operand(random, sql, depth);
+                sql.append(pick(random, OPERATORS));
+                operand(random, sql, depth);
+                break;
+        }
+    }
+
+    private static void operand(SplittableRandom random, StringBuilder sql, int depth) {
+        switch (random.nextInt(10)) {
+            case 0:
+                sql.append(pick(random, FUNCTIONS)).append('(').append(pick(random, COLUMNS)).append(')');
+                break;
+            case 1:
+                if (depth < 2) {
+                    sql.append('(');
+                    select(random, sql, depth + 1);
+                    sql.append(')');
+                } else {
+                    sql.append('?');
+                }
+                break;
+            case 2:
+            case 3:
+            case 4:
+                sql.append(pick(random, CONSTANTS));
+                break;
+            default:
+                sql.append(pick(random, COLUMNS));
+                break;
+        }
+    }
+
+    private static String pick(SplittableRandom random, String... values) {
+        return values[random.nextInt(values.length)];
+    }
+}